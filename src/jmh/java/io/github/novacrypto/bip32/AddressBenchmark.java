@@ -0,0 +1,111 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Address encoding throughput, against writing just the hash160s that addresses are built from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AddressBenchmark {
+
+    private ExtendedPublicKey publicKey;
+    private ExtendedPublicKey chain;
+
+    @State(Scope.Thread)
+    public static class Targets {
+        final byte[] hash160 = new byte[20];
+        final byte[] range = new byte[20 * 20];
+    }
+
+    @Setup
+    public void setup() {
+        chain = ExtendedPrivateKey.fromSeed(BenchmarkKeys.SEED, Bitcoin.MAIN_NET)
+                .derive("m/44'/0'/0'/0")
+                .neuter();
+        publicKey = chain.cKDpub(0);
+    }
+
+    @Benchmark
+    public String p2pkhAddress() {
+        return publicKey.p2pkhAddress();
+    }
+
+    @Benchmark
+    public String p2shAddress() {
+        return publicKey.p2shAddress();
+    }
+
+    @Benchmark
+    public byte[] p2pkhHash160(final Targets targets) {
+        publicKey.p2pkhHash160(targets.hash160, 0);
+        return targets.hash160;
+    }
+
+    @Benchmark
+    public byte[] p2shScriptHash(final Targets targets) {
+        publicKey.p2shScriptHash(targets.hash160, 0);
+        return targets.hash160;
+    }
+
+    @Benchmark
+    public String[] p2pkhAddressesOfTwentyChildren() {
+        final ExtendedPublicKey[] children = chain.deriveRange(0, 20);
+        final String[] addresses = new String[children.length];
+        for (int i = 0; i < children.length; i++)
+            addresses[i] = children[i].p2pkhAddress();
+        return addresses;
+    }
+
+    @Benchmark
+    public byte[] p2pkhHash160sOfTwentyChildren(final Targets targets) {
+        chain.deriveP2pkhHash160Range(0, 20, targets.range, 0);
+        return targets.range;
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends AddressBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class MultiThreaded extends AddressBenchmark {
+    }
+}
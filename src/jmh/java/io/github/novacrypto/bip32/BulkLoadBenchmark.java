@@ -0,0 +1,115 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.novacrypto.bip32.ExtendedKeyLoader.Format.BASE58_LINES;
+import static io.github.novacrypto.bip32.ExtendedKeyLoader.Format.RECORDS;
+
+/**
+ * Loading 10,000 public keys with {@link ExtendedKeyLoader} at different parallelisms, against deserializing the same
+ * lines one at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private String[] lines;
+    private byte[] linesBytes;
+    private byte[] records;
+    private ExtendedKeyLoader loader;
+
+    @Setup
+    public void setup() {
+        final ExtendedPublicKey[] keys = ExtendedPrivateKey.fromSeed(BenchmarkKeys.SEED, Bitcoin.MAIN_NET)
+                .derive("m/44'/0'/0'").neuter().deriveRange(0, KEYS);
+        lines = new String[KEYS];
+        records = new byte[82 * KEYS];
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < KEYS; i++) {
+            lines[i] = keys[i].extendedBase58();
+            text.append(lines[i]).append('\n');
+            keys[i].serialize(records, 82 * i);
+        }
+        linesBytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+        loader = new ExtendedKeyLoader.Builder()
+                .parallelism(parallelism)
+                .chunkSize(64 * 1024)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        loader.close();
+    }
+
+    @Benchmark
+    public List<ExtendedPublicKey> loadLines() throws IOException {
+        return loader.loadPublic(Channels.newChannel(new ByteArrayInputStream(linesBytes)), BASE58_LINES);
+    }
+
+    @Benchmark
+    public List<ExtendedPublicKey> loadRecords() throws IOException {
+        return loader.loadPublic(Channels.newChannel(new ByteArrayInputStream(records)), RECORDS);
+    }
+
+    @Benchmark
+    public List<ExtendedPublicKey> deserializeEachLine() {
+        final Deserializer<ExtendedPublicKey> deserializer = ExtendedPublicKey.deserializer();
+        final List<ExtendedPublicKey> keys = new ArrayList<>(KEYS);
+        for (String line : lines)
+            keys.add(deserializer.deserialize(line));
+        return keys;
+    }
+}
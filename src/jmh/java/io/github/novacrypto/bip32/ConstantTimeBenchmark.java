@@ -0,0 +1,86 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.curve.Secp256k1Backend;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.novacrypto.bip32.Index.hard;
+
+/**
+ * The cost of calculating private keys' public points in constant time, see
+ * {@link Secp256k1Backend#CONSTANT_TIME_PROPERTY}. {@link DefaultMode} and {@link ConstantTimeMode} run the same
+ * benchmarks, forked with the property off and on.
+ * <p>
+ * Each private child is new, so its public point is calculated by every call that needs it rather than remembered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+public abstract class ConstantTimeBenchmark {
+
+    private ExtendedPrivateKey privateKey;
+
+    @Setup
+    public void setup() {
+        privateKey = ExtendedPrivateKey.fromSeed(BenchmarkKeys.SEED, Bitcoin.MAIN_NET).derive("m/44'/0'/0'");
+    }
+
+    @Benchmark
+    public ExtendedPrivateKey cKDprivHardened() {
+        return privateKey.cKDpriv(hard(1));
+    }
+
+    @Benchmark
+    public ExtendedPublicKey cKDpubFromPrivate() {
+        return privateKey.cKDpub(1);
+    }
+
+    @Benchmark
+    public ExtendedPrivateKey cKDprivTwoLevels() {
+        return privateKey.cKDpriv(1).cKDpriv(2);
+    }
+
+    @Fork(1)
+    public static class DefaultMode extends ConstantTimeBenchmark {
+    }
+
+    @Fork(value = 1, jvmArgsAppend = "-D" + Secp256k1Backend.CONSTANT_TIME_PROPERTY + "=true")
+    public static class ConstantTimeMode extends ConstantTimeBenchmark {
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.curve.Secp256k1Backend;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each {@link Secp256k1Backend} operation, for comparing backends side by side. Add a backend's class
+ * name to the parameter with -p backend=com.example.MyBackend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class CurveBackendBenchmark {
+
+    @Param({"io.github.novacrypto.bip32.curve.PureJavaBackend", "io.github.novacrypto.bip32.curve.SpongyCastleBackend"})
+    public String backend;
+
+    private Secp256k1Backend<Object> curve;
+    private byte[] scalar;
+    private byte[] encoded;
+    private Object point;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws ReflectiveOperationException {
+        curve = (Secp256k1Backend<Object>) Class.forName(backend).newInstance();
+        final ExtendedPrivateKey key = ExtendedPrivateKey.fromSeed(BenchmarkKeys.SEED, Bitcoin.MAIN_NET);
+        scalar = key.cKDpriv(0).hdKey().getKey();
+        encoded = key.neuter().hdKey().getKey();
+        point = curve.decode(encoded);
+    }
+
+    @Benchmark
+    public Object gMultiply() {
+        return curve.gMultiply(scalar);
+    }
+
+    @Benchmark
+    public Object gMultiplyConstantTime() {
+        return curve.gMultiplyConstantTime(scalar);
+    }
+
+    @Benchmark
+    public Object gMultiplyAndAdd() {
+        return curve.gMultiplyAndAdd(scalar, point);
+    }
+
+    @Benchmark
+    public byte[] gMultiplyAndAddThenEncode() {
+        return curve.encode(curve.gMultiplyAndAdd(scalar, point));
+    }
+
+    @Benchmark
+    public Object multiply() {
+        return curve.multiply(point, scalar);
+    }
+
+    @Benchmark
+    public Object multiplyConstantTime() {
+        return curve.multiplyConstantTime(point, scalar);
+    }
+
+    @Benchmark
+    public Object sumOfMultiplies() {
+        return curve.sumOfMultiplies(scalar, scalar, point);
+    }
+
+    @Benchmark
+    public Object multiplyAndGMultiplySeparately() {
+        return curve.gMultiplyAndAdd(scalar, curve.multiply(point, scalar));
+    }
+
+    @Benchmark
+    public Object decode() {
+        return curve.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return curve.encode(point);
+    }
+}
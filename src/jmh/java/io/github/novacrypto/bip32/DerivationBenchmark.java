@@ -0,0 +1,128 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.novacrypto.bip32.Index.hard;
+
+/**
+ * Child key derivation throughput.
+ * <p>
+ * Each benchmark is run on one thread by {@link SingleThreaded} and on as many threads as there are processors by
+ * {@link MultiThreaded}, with all threads sharing the same parent keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class DerivationBenchmark {
+
+    private ExtendedPrivateKey privateKey;
+    private ExtendedPublicKey publicKey;
+    private byte[] privateBytes;
+    private final CompiledPath compiledPath = CompiledPath.compile("m/0/*");
+
+    @Setup
+    public void setup() {
+        privateKey = ExtendedPrivateKey.fromSeed(BenchmarkKeys.SEED, Bitcoin.MAIN_NET).derive("m/44'/0'/0'");
+        publicKey = privateKey.neuter();
+        privateBytes = privateKey.extendedKeyByteArray();
+    }
+
+    @Benchmark
+    public ExtendedPrivateKey cKDpriv() {
+        return privateKey.cKDpriv(1);
+    }
+
+    @Benchmark
+    public ExtendedPrivateKey cKDprivHardened() {
+        return privateKey.cKDpriv(hard(1));
+    }
+
+    @Benchmark
+    public ExtendedPublicKey cKDpub() {
+        return publicKey.cKDpub(1);
+    }
+
+    @Benchmark
+    public ExtendedPublicKey cKDpubFromPrivate() {
+        return privateKey.cKDpub(1);
+    }
+
+    @Benchmark
+    public ExtendedPublicKey derivePath() {
+        return publicKey.derive("m/0/7");
+    }
+
+    @Benchmark
+    public ExtendedPublicKey deriveCompiledPath() {
+        return publicKey.derive(compiledPath, 7);
+    }
+
+    /**
+     * Only the allocation, as the point is calculated when the public key is first used, and the point of this
+     * private key is already known after the first call anyway. See {@link #neuterAndUse()} for the whole cost.
+     */
+    @Benchmark
+    public ExtendedPublicKey neuter() {
+        return privateKey.neuter();
+    }
+
+    /**
+     * Neuters a freshly deserialized private key, whose point is not yet known, and uses the public key, so that the
+     * point is calculated. Compare with {@link SerializationBenchmark#deserializePrivateBytes()} and
+     * {@link SerializationBenchmark#publicExtendedBase58()}.
+     */
+    @Benchmark
+    public String neuterAndUse() {
+        return ExtendedPrivateKey.deserializer().deserialize(privateBytes).neuter().extendedBase58();
+    }
+
+    @Benchmark
+    public ExtendedPrivateKey fromSeed() {
+        return ExtendedPrivateKey.fromSeed(BenchmarkKeys.SEED, Bitcoin.MAIN_NET);
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends DerivationBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class MultiThreaded extends DerivationBenchmark {
+    }
+}
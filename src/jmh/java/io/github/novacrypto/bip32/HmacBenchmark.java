@@ -0,0 +1,104 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The library's HMAC-SHA512 against the JCA provider's, for the 37 byte messages of child derivation. The "sameKey"
+ * benchmarks run many children of one parent, the "newKey" benchmarks a different parent each call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class HmacBenchmark {
+
+    private static final String HMAC_SHA512 = "HmacSHA512";
+
+    private final byte[][] keys = new byte[2][32];
+    private final byte[] data = new byte[37];
+    private final byte[] il = new byte[32];
+    private final byte[] ir = new byte[32];
+    private final byte[] I = new byte[64];
+    private HmacSha512Engine engine;
+    private Mac mac;
+    private int call;
+
+    @Setup
+    public void setup() throws NoSuchAlgorithmException, InvalidKeyException {
+        for (int i = 0; i < data.length; i++)
+            data[i] = (byte) i;
+        keys[0][0] = 1;
+        keys[1][0] = 2;
+        engine = new HmacSha512Engine();
+        mac = Mac.getInstance(HMAC_SHA512);
+        mac.init(new SecretKeySpec(keys[0], HMAC_SHA512));
+    }
+
+    @Benchmark
+    public byte[] engineSameKey() {
+        engine.hmacSha512(keys[0], data, il, ir);
+        return ir;
+    }
+
+    @Benchmark
+    public byte[] jcaSameKey() throws ShortBufferException {
+        mac.update(data);
+        mac.doFinal(I, 0);
+        return I;
+    }
+
+    @Benchmark
+    public byte[] engineNewKey() {
+        engine.hmacSha512(keys[call++ & 1], data, il, ir);
+        return ir;
+    }
+
+    @Benchmark
+    public byte[] jcaNewKey() throws ShortBufferException, InvalidKeyException {
+        mac.init(new SecretKeySpec(keys[call++ & 1], HMAC_SHA512));
+        mac.update(data);
+        mac.doFinal(I, 0);
+        return I;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening an {@link ExtendedKeyStore} of 100,000 public keys and reading from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class KeyStoreBenchmark {
+
+    private static final int KEYS = 100_000;
+
+    private Path file;
+    private ExtendedKeyStore store;
+    private int fingerprint;
+    private int record;
+
+    @Setup
+    public void setup() throws IOException {
+        final ExtendedPublicKey account = ExtendedPrivateKey.fromSeed(BenchmarkKeys.SEED, Bitcoin.MAIN_NET)
+                .derive("m/44'/0'/0'").neuter();
+        file = Files.createTempFile("keys", ".store");
+        ExtendedKeyStore.write(file, Arrays.asList(account.deriveRange(0, KEYS)));
+        store = ExtendedKeyStore.open(file);
+        fingerprint = store.getPublic(KEYS / 2).cKDpub(0).hdKey().getParentFingerprint();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public ExtendedKeyStore open() throws IOException {
+        return ExtendedKeyStore.open(file);
+    }
+
+    @Benchmark
+    public ExtendedPublicKey getPublic() {
+        record = (record + 7919) % KEYS;
+        return store.getPublic(record);
+    }
+
+    @Benchmark
+    public int[] findByFingerprint() {
+        return store.findByFingerprint(fingerprint);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.NetworkCollection;
+import io.github.novacrypto.bip32.networks.UnknownNetworkException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Version lookups in a {@link NetworkCollection} of 40 networks, for known versions and unknown ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class NetworksBenchmark {
+
+    private static final int NETWORKS = 40;
+
+    private NetworkCollection networks;
+    private int lastVersion;
+    private int unknownVersion;
+
+    @Setup
+    public void setup() {
+        final Network[] all = new Network[NETWORKS];
+        for (int i = 0; i < NETWORKS; i++)
+            all[i] = network(0x0488ade4 + i, 0x0488b21e + i);
+        networks = new NetworkCollection(all);
+        lastVersion = 0x0488b21e + NETWORKS - 1;
+        unknownVersion = 0x0488b21e + NETWORKS;
+    }
+
+    @Benchmark
+    public Network findByPublicVersion() {
+        return networks.findByPublicVersion(lastVersion);
+    }
+
+    @Benchmark
+    public Network findByPublicVersionOrNullUnknown() {
+        return networks.findByPublicVersionOrNull(unknownVersion);
+    }
+
+    @Benchmark
+    public Network findByPublicVersionUnknown() {
+        try {
+            return networks.findByPublicVersion(unknownVersion);
+        } catch (final UnknownNetworkException e) {
+            return null;
+        }
+    }
+
+    private static Network network(final int privateVersion, final int publicVersion) {
+        return new Network() {
+            @Override
+            public int getPrivateVersion() {
+                return privateVersion;
+            }
+
+            @Override
+            public int getPublicVersion() {
+                return publicVersion;
+            }
+
+            @Override
+            public byte p2pkhVersion() {
+                return 0;
+            }
+
+            @Override
+            public byte p2shVersion() {
+                return 5;
+            }
+        };
+    }
+}
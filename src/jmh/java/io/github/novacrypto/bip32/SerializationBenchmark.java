@@ -0,0 +1,156 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.novacrypto.base58.Base58.base58Decode;
+import static io.github.novacrypto.base58.Base58.base58Encode;
+
+/**
+ * Extended key serialization and deserialization throughput. The "Generic" benchmarks are the general Base58 codec on
+ * the same 82 bytes, for comparison with the extended key specific one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class SerializationBenchmark {
+
+    private ExtendedPrivateKey privateKey;
+    private ExtendedPublicKey publicKey;
+    private String privateBase58;
+    private String publicBase58;
+    private byte[] privateBytes;
+    private byte[] publicBytes;
+
+    @State(Scope.Thread)
+    public static class Targets {
+        final byte[] array = new byte[82];
+        final ByteBuffer direct = ByteBuffer.allocateDirect(82);
+        final StringBuilder builder = new StringBuilder(ExtendedKeyBase58.MAX_LENGTH);
+    }
+
+    @Setup
+    public void setup() {
+        privateKey = ExtendedPrivateKey.fromSeed(BenchmarkKeys.SEED, Bitcoin.MAIN_NET).derive("m/44'/0'/0'");
+        publicKey = privateKey.neuter();
+        privateBase58 = privateKey.extendedBase58();
+        publicBase58 = publicKey.extendedBase58();
+        privateBytes = privateKey.extendedKeyByteArray();
+        publicBytes = publicKey.extendedKeyByteArray();
+    }
+
+    @Benchmark
+    public String privateExtendedBase58() {
+        return privateKey.extendedBase58();
+    }
+
+    @Benchmark
+    public String publicExtendedBase58() {
+        return publicKey.extendedBase58();
+    }
+
+    @Benchmark
+    public StringBuilder publicExtendedBase58IntoBuilder(final Targets targets) {
+        targets.builder.setLength(0);
+        publicKey.extendedBase58(targets.builder);
+        return targets.builder;
+    }
+
+    @Benchmark
+    public String publicGenericBase58Encode() {
+        return base58Encode(publicBytes);
+    }
+
+    @Benchmark
+    public byte[] publicGenericBase58Decode() {
+        return base58Decode(publicBase58);
+    }
+
+    @Benchmark
+    public byte[] privateExtendedKeyByteArray() {
+        return privateKey.extendedKeyByteArray();
+    }
+
+    @Benchmark
+    public byte[] publicExtendedKeyByteArray() {
+        return publicKey.extendedKeyByteArray();
+    }
+
+    @Benchmark
+    public byte[] publicSerializeIntoArray(final Targets targets) {
+        publicKey.serialize(targets.array, 0);
+        return targets.array;
+    }
+
+    @Benchmark
+    public ByteBuffer publicSerializeIntoDirectBuffer(final Targets targets) {
+        targets.direct.clear();
+        publicKey.serialize(targets.direct);
+        return targets.direct;
+    }
+
+    @Benchmark
+    public ExtendedPrivateKey deserializePrivateBase58() {
+        return ExtendedPrivateKey.deserializer().deserialize(privateBase58);
+    }
+
+    @Benchmark
+    public ExtendedPublicKey deserializePublicBase58() {
+        return ExtendedPublicKey.deserializer().deserialize(publicBase58);
+    }
+
+    @Benchmark
+    public ExtendedPrivateKey deserializePrivateBytes() {
+        return ExtendedPrivateKey.deserializer().deserialize(privateBytes);
+    }
+
+    @Benchmark
+    public ExtendedPublicKey deserializePublicBytes() {
+        return ExtendedPublicKey.deserializer().deserialize(publicBytes);
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends SerializationBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class MultiThreaded extends SerializationBenchmark {
+    }
+}
@@ -21,15 +21,18 @@
 
 package io.github.novacrypto.bip32;
 
-import java.util.Arrays;
-
 final class ByteArrayWriter {
 
     private final byte[] bytes;
-    private int idx = 0;
+    private int idx;
 
     ByteArrayWriter(final byte[] target) {
+        this(target, 0);
+    }
+
+    ByteArrayWriter(final byte[] target, final int offset) {
         this.bytes = target;
+        this.idx = offset;
     }
 
     void concat(final byte[] bytesSource, final int length) {
@@ -56,14 +59,4 @@ final class ByteArrayWriter {
     void concat(final byte b) {
         bytes[idx++] = b;
     }
-
-    static byte[] tail32(final byte[] bytes64) {
-        final byte[] ir = new byte[bytes64.length - 32];
-        System.arraycopy(bytes64, 32, ir, 0, ir.length);
-        return ir;
-    }
-
-    static byte[] head32(final byte[] bytes64) {
-        return Arrays.copyOf(bytes64, 32);
-    }
-}
\ No newline at end of file
+}
@@ -21,19 +21,17 @@
 
 package io.github.novacrypto.bip32;
 
-import static io.github.novacrypto.hashing.Sha256.sha256Twice;
-
 final class Checksum {
 
     static void confirmExtendedKeyChecksum(final byte[] extendedKeyData) {
-        final byte[] expected = checksum(extendedKeyData);
-        for (int i = 0; i < 4; i++) {
-            if (extendedKeyData[78 + i] != expected[i])
-                throw new BadKeySerializationException("Checksum error");
-        }
+        if (!DoubleSha256.forThisThread().checksumMatches(extendedKeyData, 0, 78, extendedKeyData, 78))
+            throw new BadKeySerializationException("Checksum error");
     }
 
-    static byte[] checksum(final byte[] privateKey) {
-        return sha256Twice(privateKey, 0, 78);
+    /**
+     * Writes the 4 byte checksum of the 78 bytes of extended key data at offset, directly after them.
+     */
+    static void writeChecksum(final byte[] extendedKeyData, final int offset) {
+        DoubleSha256.forThisThread().checksum(extendedKeyData, offset, 78, extendedKeyData, offset + 78);
     }
-}
\ No newline at end of file
+}
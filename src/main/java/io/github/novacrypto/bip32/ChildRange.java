@@ -0,0 +1,49 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import static io.github.novacrypto.bip32.Index.isHardened;
+
+final class ChildRange {
+
+    private static final long CHILD_INDEX_COUNT = 1L << 32;
+
+    /**
+     * Checks a range of child indexes [from, from + count) for private derivation.
+     */
+    static void checkPrivateRange(final int from, final int count) {
+        if (count < 0)
+            throw new IllegalArgumentException("Count must not be negative");
+        if ((from & 0xffffffffL) + count > CHILD_INDEX_COUNT)
+            throw new IllegalArgumentException("Range goes beyond the last child index");
+    }
+
+    /**
+     * Checks a range of child indexes [from, from + count) for public derivation.
+     */
+    static void checkPublicRange(final int from, final int count) {
+        if (count < 0)
+            throw new IllegalArgumentException("Count must not be negative");
+        if (count > 0 && (isHardened(from) || isHardened(from + count - 1)))
+            throw new IllegalCKDCall("Cannot derive a hardened key from a public key");
+    }
+}
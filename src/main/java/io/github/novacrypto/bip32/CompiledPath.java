@@ -0,0 +1,217 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.derivation.CkdFunction;
+import io.github.novacrypto.bip32.derivation.Derivation;
+
+import java.util.Arrays;
+
+import static io.github.novacrypto.bip32.Index.isHardened;
+
+/**
+ * A derivation path parsed once into child indexes, for paths that are derived many times.
+ * <p>
+ * Paths are written as for {@link ExtendedPrivateKey#derive(CharSequence)}, e.g. "m/44'/0'/0'/0". The last component
+ * may be "*" (or "*'" for hardened), a slot for the child index that is supplied each time the path is derived, e.g.
+ * "m/44'/0'/0'/0/*".
+ */
+public final class CompiledPath {
+
+    private static final int HARDENED = 0x80000000;
+
+    /**
+     * Derives a compiled path without a variable index, for use with {@link ExtendedPrivateKey#derive(Object,
+     * Derivation)} and {@link ExtendedPublicKey#derive(Object, Derivation)}, such as through a cache.
+     */
+    public static final Derivation<CompiledPath> DERIVATION = new Derivation<CompiledPath>() {
+        @Override
+        public <Node> Node derive(final Node root, final CompiledPath path, final CkdFunction<Node> ckdFunction) {
+            path.checkNoVariableIndex();
+            return path.derivePrefix(root, ckdFunction);
+        }
+    };
+
+    static final CkdFunction<ExtendedPrivateKey> PRIVATE = new CkdFunction<ExtendedPrivateKey>() {
+        @Override
+        public ExtendedPrivateKey deriveChildKey(final ExtendedPrivateKey parent, final int childIndex) {
+            return parent.cKDpriv(childIndex);
+        }
+    };
+
+    static final CkdFunction<ExtendedPublicKey> PUBLIC = new CkdFunction<ExtendedPublicKey>() {
+        @Override
+        public ExtendedPublicKey deriveChildKey(final ExtendedPublicKey parent, final int childIndex) {
+            return parent.cKDpub(childIndex);
+        }
+    };
+
+    private final String path;
+    private final int[] indexes;
+    private final boolean variableIndex;
+    private final int variableIndexFlag;
+    private final boolean anyHardened;
+
+    private CompiledPath(final String path, final int[] indexes, final boolean variableIndex,
+                         final int variableIndexFlag) {
+        this.path = path;
+        this.indexes = indexes;
+        this.variableIndex = variableIndex;
+        this.variableIndexFlag = variableIndexFlag;
+        boolean hardened = variableIndexFlag != 0;
+        for (final int index : indexes)
+            hardened |= isHardened(index);
+        anyHardened = hardened;
+    }
+
+    /**
+     * @param path A path such as "m/44'/0'/0'/0", optionally ending in "*" or "*'".
+     * @return The compiled path.
+     */
+    public static CompiledPath compile(final CharSequence path) {
+        final int length = path.length();
+        if (length == 0 || path.charAt(0) != 'm')
+            throw new IllegalArgumentException("Path must start with m");
+        int[] indexes = new int[8];
+        int count = 0;
+        boolean variableIndex = false;
+        int variableIndexFlag = 0;
+        int i = 1;
+        while (i < length) {
+            if (variableIndex)
+                throw new IllegalArgumentException("Only the last index of a path can be *");
+            if (path.charAt(i++) != '/' || i == length)
+                throw new IllegalArgumentException("Malformed path " + path);
+            int index;
+            if (path.charAt(i) == '*') {
+                variableIndex = true;
+                index = 0;
+                i++;
+            } else {
+                long value = 0;
+                final int start = i;
+                while (i < length && path.charAt(i) >= '0' && path.charAt(i) <= '9') {
+                    value = value * 10 + (path.charAt(i++) - '0');
+                    if (value >= (1L << 31))
+                        throw new IllegalArgumentException("Index too large in path " + path);
+                }
+                if (i == start)
+                    throw new IllegalArgumentException("Malformed path " + path);
+                index = (int) value;
+            }
+            if (i < length && (path.charAt(i) == '\'' || path.charAt(i) == 'h')) {
+                index |= HARDENED;
+                i++;
+            }
+            if (variableIndex) {
+                variableIndexFlag = index;
+            } else {
+                if (count == indexes.length)
+                    indexes = Arrays.copyOf(indexes, count * 2);
+                indexes[count++] = index;
+            }
+        }
+        return new CompiledPath(path.toString(), Arrays.copyOf(indexes, count), variableIndex, variableIndexFlag);
+    }
+
+    /**
+     * @return true iff the path ends in a variable index that must be supplied when deriving.
+     */
+    public boolean hasVariableIndex() {
+        return variableIndex;
+    }
+
+    /**
+     * @return The number of levels the path derives, including any variable index.
+     */
+    public int depth() {
+        return indexes.length + (variableIndex ? 1 : 0);
+    }
+
+    public ExtendedPrivateKey derive(final ExtendedPrivateKey root) {
+        checkNoVariableIndex();
+        return derivePrefix(root, PRIVATE);
+    }
+
+    /**
+     * @param root  The key to derive from.
+     * @param index The child index for the variable slot, hardened by the path if it ends in "*'".
+     * @return The derived key.
+     */
+    public ExtendedPrivateKey derive(final ExtendedPrivateKey root, final int index) {
+        checkVariableIndex();
+        return derivePrefix(root, PRIVATE).cKDpriv(index | variableIndexFlag);
+    }
+
+    public ExtendedPublicKey derive(final ExtendedPublicKey root) {
+        checkNoVariableIndex();
+        checkPublicDerivable();
+        return derivePrefix(root, PUBLIC);
+    }
+
+    /**
+     * @param root  The key to derive from.
+     * @param index The child index for the variable slot.
+     * @return The derived key.
+     */
+    public ExtendedPublicKey derive(final ExtendedPublicKey root, final int index) {
+        checkVariableIndex();
+        checkPublicDerivable();
+        return derivePrefix(root, PUBLIC).cKDpub(index);
+    }
+
+    /**
+     * @param level         Level of the path, from 0 to depth - 1.
+     * @param variableIndex The index for the variable slot, used only at the last level of such a path.
+     * @return The child index to derive at that level.
+     */
+    int indexAt(final int level, final int variableIndex) {
+        return level < indexes.length ? indexes[level] : variableIndex | variableIndexFlag;
+    }
+
+    private <Node> Node derivePrefix(final Node root, final CkdFunction<Node> ckdFunction) {
+        Node node = root;
+        for (final int index : indexes)
+            node = ckdFunction.deriveChildKey(node, index);
+        return node;
+    }
+
+    void checkNoVariableIndex() {
+        if (variableIndex)
+            throw new IllegalArgumentException("Path " + path + " needs an index for *");
+    }
+
+    void checkVariableIndex() {
+        if (!variableIndex)
+            throw new IllegalArgumentException("Path " + path + " has no variable index");
+    }
+
+    void checkPublicDerivable() {
+        if (anyHardened)
+            throw new IllegalCKDCall("Cannot derive a hardened key from a public key");
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.derivation.CkdFunction;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread safe cache of derived children, for use with
+ * {@link ExtendedPrivateKey#deriveWithCache(DerivationCache)} and
+ * {@link ExtendedPublicKey#deriveWithCache(DerivationCache)}.
+ * <p>
+ * Entries are keyed by the parent key and the child index. Two parent instances of the same key share entries, so
+ * one cache can serve keys that are deserialized again and again. When full, the least recently used entry is
+ * evicted.
+ * <p>
+ * The cache is split into independently locked segments so that concurrent lookups rarely contend. Derivation runs
+ * outside of any lock.
+ */
+public final class DerivationCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maximumSize The most children the cache holds.
+     */
+    public DerivationCache(final int maximumSize) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("Maximum size must be at least 1");
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 <= maximumSize)
+            segmentCount *= 2;
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++)
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    public int size() {
+        int size = 0;
+        for (final Segment segment : segments)
+            size += segment.size();
+        return size;
+    }
+
+    <Node> CkdFunction<Node> decorate(final CkdFunction<Node> ckdFunction) {
+        return new CkdFunction<Node>() {
+            @Override
+            public Node deriveChildKey(final Node parent, final int childIndex) {
+                return get(parent, childIndex, ckdFunction);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private <Node> Node get(final Node parent, final int childIndex, final CkdFunction<Node> ckdFunction) {
+        final Key key = new Key(hdKeyOf(parent), childIndex);
+        final Segment segment = segments[key.hashCode() & (segments.length - 1)];
+        final Object cached = segment.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return (Node) cached;
+        }
+        misses.incrementAndGet();
+        return (Node) segment.putIfAbsent(key, ckdFunction.deriveChildKey(parent, childIndex));
+    }
+
+    private static HdKey hdKeyOf(final Object node) {
+        if (node instanceof ExtendedPrivateKey)
+            return ((ExtendedPrivateKey) node).hdKey();
+        return ((ExtendedPublicKey) node).hdKey();
+    }
+
+    private final class Segment {
+
+        private final Map<Key, Object> map;
+
+        Segment(final int maximumSize) {
+            map = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Key, Object> eldest) {
+                    if (size() <= maximumSize)
+                        return false;
+                    evictions.incrementAndGet();
+                    return true;
+                }
+            };
+        }
+
+        synchronized Object get(final Key key) {
+            return map.get(key);
+        }
+
+        /**
+         * @return the value already cached under key if another thread got there first, otherwise value.
+         */
+        synchronized Object putIfAbsent(final Key key, final Object value) {
+            final Object existing = map.get(key);
+            if (existing != null)
+                return existing;
+            map.put(key, value);
+            return value;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+
+    private static final class Key {
+
+        private final HdKey parent;
+        private final int childIndex;
+        private final int hashCode;
+
+        Key(final HdKey parent, final int childIndex) {
+            this.parent = parent;
+            this.childIndex = childIndex;
+            final int h = 31 * parent.derivationHashCode() + childIndex;
+            hashCode = h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key other = (Key) o;
+            return childIndex == other.childIndex && parent.derivesSameChildrenAs(other.parent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
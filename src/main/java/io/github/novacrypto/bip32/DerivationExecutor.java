@@ -0,0 +1,225 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static io.github.novacrypto.bip32.ChildRange.checkPrivateRange;
+import static io.github.novacrypto.bip32.ChildRange.checkPublicRange;
+
+/**
+ * Derives large ranges of children in parallel.
+ * <p>
+ * A range is split into batches that are derived on a {@link ForkJoinPool} with
+ * {@link ExtendedPublicKey#deriveRange(int, int)} or {@link ExtendedPrivateKey#deriveRange(int, int)}. Results are
+ * always returned in index order.
+ * <p>
+ * Close the executor to shut down its pool, unless the pool was supplied with {@link Builder#pool(ForkJoinPool)}.
+ */
+public final class DerivationExecutor implements AutoCloseable {
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int batchSize;
+
+    private DerivationExecutor(final Builder builder) {
+        ownsPool = builder.pool == null;
+        pool = ownsPool ? new ForkJoinPool(builder.parallelism) : builder.pool;
+        batchSize = builder.batchSize;
+    }
+
+    /**
+     * Calculates the public keys of a range of children of one parent.
+     *
+     * @param parent The parent key.
+     * @param from   The first child index to calculate.
+     * @param count  The number of children to calculate.
+     * @return The public keys of the children, element i being the child at index from + i.
+     */
+    public ExtendedPublicKey[] deriveRange(final ExtendedPublicKey parent, final int from, final int count) {
+        checkPublicRange(from, count);
+        final ExtendedPublicKey[] children = new ExtendedPublicKey[count];
+        pool.invoke(new PublicRange(parent, from, children, 0, count));
+        return children;
+    }
+
+    /**
+     * Calculates the public keys of the same range of children of many parents.
+     *
+     * @param parents The parent keys.
+     * @param from    The first child index to calculate.
+     * @param count   The number of children to calculate for each parent.
+     * @return The public keys of the children, element [p][i] being the child at index from + i of parents[p].
+     */
+    public ExtendedPublicKey[][] deriveRange(final ExtendedPublicKey[] parents, final int from, final int count) {
+        checkPublicRange(from, count);
+        final ExtendedPublicKey[][] children = new ExtendedPublicKey[parents.length][count];
+        final PublicRange[] tasks = new PublicRange[parents.length];
+        for (int p = 0; p < parents.length; p++)
+            tasks[p] = new PublicRange(parents[p], from, children[p], 0, count);
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        return children;
+    }
+
+    /**
+     * Calculates the private keys of a range of children of one parent.
+     *
+     * @param parent The parent key.
+     * @param from   The first child index to calculate, may be hardened.
+     * @param count  The number of children to calculate.
+     * @return The private keys of the children, element i being the child at index from + i.
+     */
+    public ExtendedPrivateKey[] deriveRange(final ExtendedPrivateKey parent, final int from, final int count) {
+        checkPrivateRange(from, count);
+        final ExtendedPrivateKey[] children = new ExtendedPrivateKey[count];
+        pool.invoke(new PrivateRange(parent, from, children, 0, count));
+        return children;
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool)
+            pool.shutdown();
+    }
+
+    private abstract class RangeTask<Node> extends RecursiveAction {
+
+        final int from;
+        private final Node[] target;
+        private final int lo;
+        private final int hi;
+
+        RangeTask(final int from, final Node[] target, final int lo, final int hi) {
+            this.from = from;
+            this.target = target;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= batchSize) {
+                final Node[] batch = deriveBatch(from + lo, hi - lo);
+                System.arraycopy(batch, 0, target, lo, batch.length);
+                return;
+            }
+            final int mid = (lo + hi) >>> 1;
+            invokeAll(split(target, lo, mid), split(target, mid, hi));
+        }
+
+        abstract Node[] deriveBatch(int index, int count);
+
+        abstract RangeTask<Node> split(Node[] target, int lo, int hi);
+    }
+
+    private final class PublicRange extends RangeTask<ExtendedPublicKey> {
+
+        private final ExtendedPublicKey parent;
+
+        PublicRange(final ExtendedPublicKey parent, final int from, final ExtendedPublicKey[] target,
+                    final int lo, final int hi) {
+            super(from, target, lo, hi);
+            this.parent = parent;
+        }
+
+        @Override
+        ExtendedPublicKey[] deriveBatch(final int index, final int count) {
+            return parent.deriveRange(index, count);
+        }
+
+        @Override
+        RangeTask<ExtendedPublicKey> split(final ExtendedPublicKey[] target, final int lo, final int hi) {
+            return new PublicRange(parent, from, target, lo, hi);
+        }
+    }
+
+    private final class PrivateRange extends RangeTask<ExtendedPrivateKey> {
+
+        private final ExtendedPrivateKey parent;
+
+        PrivateRange(final ExtendedPrivateKey parent, final int from, final ExtendedPrivateKey[] target,
+                     final int lo, final int hi) {
+            super(from, target, lo, hi);
+            this.parent = parent;
+        }
+
+        @Override
+        ExtendedPrivateKey[] deriveBatch(final int index, final int count) {
+            return parent.deriveRange(index, count);
+        }
+
+        @Override
+        RangeTask<ExtendedPrivateKey> split(final ExtendedPrivateKey[] target, final int lo, final int hi) {
+            return new PrivateRange(parent, from, target, lo, hi);
+        }
+    }
+
+    public static final class Builder {
+
+        private ForkJoinPool pool;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
+        /**
+         * @param parallelism Number of threads for the executor's own pool, defaults to the number of processors.
+         * @return this builder
+         */
+        public Builder parallelism(final int parallelism) {
+            if (parallelism < 1)
+                throw new IllegalArgumentException("Parallelism must be at least 1");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param pool A pool to run on instead of the executor's own. It is not shut down when the executor is closed.
+         * @return this builder
+         */
+        public Builder pool(final ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * @param batchSize Most children one task derives before the range is split further, defaults to 64.
+         * @return this builder
+         */
+        public Builder batchSize(final int batchSize) {
+            if (batchSize < 1)
+                throw new IllegalArgumentException("Batch size must be at least 1");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public DerivationExecutor build() {
+            return new DerivationExecutor(this);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.derivation.CkdFunction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread safe cache of derived keys, arranged as a tree of paths from each root key.
+ * <p>
+ * Deriving a path reuses the deepest ancestor already in the tree and derives only the levels below it, so requests
+ * that share a prefix such as m/44'/0'/0'/0 share that work, whatever order they arrive in. Roots are matched by key,
+ * so two instances of the same root share one tree.
+ * <p>
+ * When full, the least recently used leaf is evicted. Every derivation touches its whole path, so ancestors are
+ * always more recently used than their descendants and shared prefixes stay cached longest. Derivation runs outside
+ * of the lock.
+ */
+public final class DerivationTrie {
+
+    private final int maximumSize;
+    private final Map<RootKey, Node> roots = new HashMap<>();
+
+    /**
+     * Sentinel of the access ordered list of all nodes, least recently used first.
+     */
+    private final Node head = new Node(null, null, 0);
+
+    private int size;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maximumSize The most keys the cache holds, including roots.
+     */
+    public DerivationTrie(final int maximumSize) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("Maximum size must be at least 1");
+        this.maximumSize = maximumSize;
+        head.before = head;
+        head.after = head;
+    }
+
+    public ExtendedPrivateKey derive(final ExtendedPrivateKey root, final CompiledPath path) {
+        path.checkNoVariableIndex();
+        return derive(root.hdKey(), root, path, 0, CompiledPath.PRIVATE);
+    }
+
+    /**
+     * @param root  The key to derive from.
+     * @param path  A path ending in a variable index.
+     * @param index The child index for the variable slot.
+     * @return The key at the end of the path.
+     */
+    public ExtendedPrivateKey derive(final ExtendedPrivateKey root, final CompiledPath path, final int index) {
+        path.checkVariableIndex();
+        return derive(root.hdKey(), root, path, index, CompiledPath.PRIVATE);
+    }
+
+    public ExtendedPublicKey derive(final ExtendedPublicKey root, final CompiledPath path) {
+        path.checkNoVariableIndex();
+        path.checkPublicDerivable();
+        return derive(root.hdKey(), root, path, 0, CompiledPath.PUBLIC);
+    }
+
+    /**
+     * @param root  The key to derive from.
+     * @param path  A path ending in a variable index.
+     * @param index The child index for the variable slot.
+     * @return The key at the end of the path.
+     */
+    public ExtendedPublicKey derive(final ExtendedPublicKey root, final CompiledPath path, final int index) {
+        path.checkVariableIndex();
+        path.checkPublicDerivable();
+        return derive(root.hdKey(), root, path, index, CompiledPath.PUBLIC);
+    }
+
+    /**
+     * @return The number of path levels that were found in the cache.
+     */
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    /**
+     * @return The number of path levels that had to be derived.
+     */
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <Key> Key derive(final HdKey rootHdKey, final Key root, final CompiledPath path, final int index,
+                             final CkdFunction<Key> ckdFunction) {
+        final int depth = path.depth();
+        if (depth == 0)
+            return root;
+        final RootKey rootKey = new RootKey(rootHdKey);
+        final Object[] keys = new Object[depth];
+
+        int found = 0;
+        synchronized (this) {
+            Node node = roots.get(rootKey);
+            if (node != null) {
+                Node child;
+                while (found < depth && (child = node.child(path.indexAt(found, index))) != null) {
+                    node = child;
+                    keys[found++] = node.key;
+                }
+                touchPath(node);
+            }
+            hits += found;
+            misses += depth - found;
+        }
+        if (found == depth)
+            return (Key) keys[depth - 1];
+
+        Key key = found == 0 ? root : (Key) keys[found - 1];
+        for (int level = found; level < depth; level++) {
+            key = ckdFunction.deriveChildKey(key, path.indexAt(level, index));
+            keys[level] = key;
+        }
+
+        synchronized (this) {
+            Node node = roots.get(rootKey);
+            if (node == null) {
+                node = new Node(null, root, 0);
+                node.rootKey = rootKey;
+                roots.put(rootKey, node);
+                link(node);
+            }
+            for (int level = 0; level < depth; level++) {
+                final int childIndex = path.indexAt(level, index);
+                Node child = node.child(childIndex);
+                if (child == null) {
+                    child = new Node(node, keys[level], childIndex);
+                    node.addChild(child);
+                    link(child);
+                }
+                node = child;
+            }
+            touchPath(node);
+            while (size > maximumSize)
+                evict(head.after);
+            return (Key) node.key;
+        }
+    }
+
+    /**
+     * Moves a node and then each of its ancestors to the most recently used end, keeping every node more recently
+     * used than all of its descendants.
+     */
+    private void touchPath(final Node leaf) {
+        for (Node node = leaf; node != null; node = node.parent) {
+            unlinkFromList(node);
+            linkAtEnd(node);
+        }
+    }
+
+    private void link(final Node node) {
+        linkAtEnd(node);
+        size++;
+    }
+
+    private void linkAtEnd(final Node node) {
+        node.after = head;
+        node.before = head.before;
+        head.before.after = node;
+        head.before = node;
+    }
+
+    private static void unlinkFromList(final Node node) {
+        node.before.after = node.after;
+        node.after.before = node.before;
+    }
+
+    private void evict(final Node node) {
+        if (node.parent == null)
+            roots.remove(node.rootKey);
+        else
+            node.parent.children.remove(node.childIndex);
+        removeSubtree(node);
+    }
+
+    private void removeSubtree(final Node node) {
+        unlinkFromList(node);
+        size--;
+        evictions++;
+        if (node.children != null)
+            for (final Node child : node.children.values())
+                removeSubtree(child);
+    }
+
+    private static final class Node {
+
+        private final Node parent;
+        private final Object key;
+        private final int childIndex;
+        private RootKey rootKey;
+        private Map<Integer, Node> children;
+        private Node before;
+        private Node after;
+
+        Node(final Node parent, final Object key, final int childIndex) {
+            this.parent = parent;
+            this.key = key;
+            this.childIndex = childIndex;
+        }
+
+        Node child(final int childIndex) {
+            return children == null ? null : children.get(childIndex);
+        }
+
+        void addChild(final Node child) {
+            if (children == null)
+                children = new HashMap<>(4);
+            children.put(child.childIndex, child);
+        }
+    }
+
+    private static final class RootKey {
+
+        private final HdKey root;
+
+        RootKey(final HdKey root) {
+            this.root = root;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RootKey)) return false;
+            return root.derivesSameChildrenAs(((RootKey) o).root);
+        }
+
+        @Override
+        public int hashCode() {
+            return root.derivationHashCode();
+        }
+    }
+}
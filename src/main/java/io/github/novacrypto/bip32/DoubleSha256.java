@@ -0,0 +1,94 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.toruntime.CheckedExceptionToRuntime;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+
+import static io.github.novacrypto.toruntime.CheckedExceptionToRuntime.toRuntime;
+
+/**
+ * SHA-256(SHA-256(data)) checksums calculated without allocating.
+ * <p>
+ * Not thread safe, use {@link #forThisThread()} to get the calling thread's instance.
+ */
+final class DoubleSha256 {
+
+    private static final ThreadLocal<DoubleSha256> INSTANCES = new ThreadLocal<DoubleSha256>() {
+        @Override
+        protected DoubleSha256 initialValue() {
+            return new DoubleSha256();
+        }
+    };
+
+    static DoubleSha256 forThisThread() {
+        return INSTANCES.get();
+    }
+
+    private final MessageDigest sha256;
+    private final byte[] digest = new byte[32];
+
+    DoubleSha256() {
+        sha256 = toRuntime(new CheckedExceptionToRuntime.Func<MessageDigest>() {
+            @Override
+            public MessageDigest run() throws Exception {
+                return MessageDigest.getInstance("SHA-256");
+            }
+        });
+    }
+
+    /**
+     * Writes the first 4 bytes of SHA-256(SHA-256(data[offset..offset + length))) to target[targetOffset].
+     */
+    void checksum(final byte[] data, final int offset, final int length,
+                  final byte[] target, final int targetOffset) {
+        hashTwice(data, offset, length);
+        System.arraycopy(digest, 0, target, targetOffset, 4);
+    }
+
+    /**
+     * Compares the first 4 bytes of SHA-256(SHA-256(data[offset..offset + length))) to expected[expectedOffset].
+     */
+    boolean checksumMatches(final byte[] data, final int offset, final int length,
+                            final byte[] expected, final int expectedOffset) {
+        hashTwice(data, offset, length);
+        for (int i = 0; i < 4; i++) {
+            if (expected[expectedOffset + i] != digest[i])
+                return false;
+        }
+        return true;
+    }
+
+    private void hashTwice(final byte[] data, final int offset, final int length) {
+        try {
+            sha256.update(data, offset, length);
+            sha256.digest(digest, 0, 32);
+            sha256.update(digest, 0, 32);
+            sha256.digest(digest, 0, 32);
+        } catch (final DigestException e) {
+            sha256.reset();
+            throw new RuntimeException(e);
+        }
+    }
+}
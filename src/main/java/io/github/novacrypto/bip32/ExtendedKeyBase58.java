@@ -0,0 +1,203 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import java.util.Arrays;
+
+import static io.github.novacrypto.bip32.Serializer.SERIALIZED_LENGTH;
+
+/**
+ * Base58 for the 82 bytes of a serialized extended key, the 78 bytes of key data and their 4 byte checksum.
+ * <p>
+ * The key is held as 21 32 bit words and converted five Base58 digits at a time, dividing by or multiplying by 58^5,
+ * so a conversion is about 23 passes over the words rather than 111 passes of big number arithmetic. The result is
+ * the same as general Base58, a leading '1' for each leading zero byte.
+ * <p>
+ * The checksum is written by {@link Serializer} and checked by the deserializers, not by this class. The working
+ * words and characters are wiped before each call returns, as the key may be private.
+ * <p>
+ * Not thread safe, use {@link #forThisThread()} to get the calling thread's instance.
+ */
+final class ExtendedKeyBase58 {
+
+    /**
+     * The longest Base58 encoding of 82 bytes.
+     */
+    static final int MAX_LENGTH = 112;
+
+    private static final char[] ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++)
+            DIGITS[ALPHABET[i]] = (byte) i;
+    }
+
+    private static final int WORDS = (SERIALIZED_LENGTH + 3) / 4;
+    private static final int TOP_WORD_BYTES = SERIALIZED_LENGTH - (WORDS - 1) * 4;
+    private static final int CHUNK_DIGITS = 5;
+    private static final long CHUNK = 58L * 58 * 58 * 58 * 58;
+    private static final long WORD_MASK = 0xffffffffL;
+
+    private static final ThreadLocal<ExtendedKeyBase58> INSTANCES = new ThreadLocal<ExtendedKeyBase58>() {
+        @Override
+        protected ExtendedKeyBase58 initialValue() {
+            return new ExtendedKeyBase58();
+        }
+    };
+
+    static ExtendedKeyBase58 forThisThread() {
+        return INSTANCES.get();
+    }
+
+    private final int[] words = new int[WORDS];
+    private final char[] chars = new char[MAX_LENGTH + CHUNK_DIGITS];
+
+    ExtendedKeyBase58() {
+    }
+
+    /**
+     * Appends the Base58 encoding of the 82 bytes of data at offset to target.
+     */
+    void encode(final byte[] data, final int offset, final StringBuilder target) {
+        int zeros = 0;
+        while (zeros < SERIALIZED_LENGTH && data[offset + zeros] == 0)
+            zeros++;
+        load(data, offset);
+
+        int first = 0;
+        int position = chars.length;
+        try {
+            while (true) {
+                while (first < WORDS && words[first] == 0)
+                    first++;
+                if (first == WORDS)
+                    break;
+                long remainder = 0;
+                for (int i = first; i < WORDS; i++) {
+                    final long current = (remainder << 32) | (words[i] & WORD_MASK);
+                    words[i] = (int) (current / CHUNK);
+                    remainder = current % CHUNK;
+                }
+                for (int i = 0; i < CHUNK_DIGITS; i++) {
+                    chars[--position] = ALPHABET[(int) (remainder % 58)];
+                    remainder /= 58;
+                }
+            }
+            int start = position;
+            while (start < chars.length && chars[start] == ALPHABET[0])
+                start++;
+
+            for (int i = 0; i < zeros; i++)
+                target.append(ALPHABET[0]);
+            target.append(chars, start, chars.length - start);
+        } finally {
+            Arrays.fill(chars, position, chars.length, '\0');
+        }
+    }
+
+    /**
+     * Decodes the Base58 encoding of 82 bytes into target at offset.
+     *
+     * @throws BadKeySerializationException If base58 has a character that is not Base58, or does not encode exactly
+     *                                      82 bytes.
+     */
+    void decode(final CharSequence base58, final byte[] target, final int offset) {
+        final int length = base58.length();
+        if (length > MAX_LENGTH)
+            throw notAnExtendedKey();
+        int zeros = 0;
+        while (zeros < length && base58.charAt(zeros) == ALPHABET[0])
+            zeros++;
+
+        Arrays.fill(words, 0);
+        try {
+            int i = zeros;
+            int chunkLength = (length - zeros) % CHUNK_DIGITS;
+            if (chunkLength == 0)
+                chunkLength = CHUNK_DIGITS;
+            while (i < length) {
+                long chunk = 0;
+                long multiplier = 1;
+                for (final int end = i + chunkLength; i < end; i++) {
+                    chunk = chunk * 58 + digit(base58.charAt(i));
+                    multiplier *= 58;
+                }
+                multiplyAdd(multiplier, chunk);
+                chunkLength = CHUNK_DIGITS;
+            }
+            if (leadingZeroBytes() != zeros)
+                throw notAnExtendedKey();
+            store(target, offset);
+        } finally {
+            Arrays.fill(words, 0);
+        }
+    }
+
+    private static int digit(final char c) {
+        final int digit = c < 128 ? DIGITS[c] : -1;
+        if (digit < 0)
+            throw new BadKeySerializationException("Bad Base58 character");
+        return digit;
+    }
+
+    private void multiplyAdd(final long multiplier, final long addend) {
+        long carry = addend;
+        for (int i = WORDS - 1; i >= 0; i--) {
+            final long current = (words[i] & WORD_MASK) * multiplier + carry;
+            words[i] = (int) current;
+            carry = current >>> 32;
+        }
+        if (carry != 0 || (words[0] >>> (TOP_WORD_BYTES * 8)) != 0)
+            throw notAnExtendedKey();
+    }
+
+    private int leadingZeroBytes() {
+        int zeros = 0;
+        while (zeros < SERIALIZED_LENGTH && byteAt(zeros) == 0)
+            zeros++;
+        return zeros;
+    }
+
+    private int byteAt(final int index) {
+        final int position = index + 4 - TOP_WORD_BYTES;
+        return (words[position >>> 2] >>> ((3 - (position & 3)) * 8)) & 0xff;
+    }
+
+    private void load(final byte[] data, final int offset) {
+        Arrays.fill(words, 0);
+        for (int i = 0; i < SERIALIZED_LENGTH; i++) {
+            final int position = i + 4 - TOP_WORD_BYTES;
+            words[position >>> 2] |= (data[offset + i] & 0xff) << ((3 - (position & 3)) * 8);
+        }
+    }
+
+    private void store(final byte[] target, final int offset) {
+        for (int i = 0; i < SERIALIZED_LENGTH; i++)
+            target[offset + i] = (byte) byteAt(i);
+    }
+
+    private static BadKeySerializationException notAnExtendedKey() {
+        return new BadKeySerializationException("Not the Base58 of an 82 byte extended key");
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.DefaultNetworks;
+import io.github.novacrypto.bip32.networks.UnknownNetworkException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static io.github.novacrypto.bip32.Serializer.SERIALIZED_LENGTH;
+
+/**
+ * Loads many serialized extended keys from a file or channel, deserializing them in parallel.
+ * <p>
+ * The input is read in chunks of whole lines or records, and each chunk is deserialized on a {@link ForkJoinPool}
+ * while the next is read. Files are memory-mapped rather than read. Checksums and versions are checked as they are by
+ * the {@link Deserializer}s, against the {@link Networks} given to the builder. Keys are returned in input order.
+ * <p>
+ * A key that fails to deserialize fails the whole load. The {@link BadKeySerializationException} or, for a version
+ * that is not in the networks, {@link UnknownNetworkException} gives the position in the input of the bad key.
+ * <p>
+ * Close the loader to shut down its pool, unless the pool was supplied with {@link Builder#pool(ForkJoinPool)}.
+ */
+public final class ExtendedKeyLoader implements AutoCloseable {
+
+    public enum Format {
+        /**
+         * One Base58 extended key per line. Blank lines and whitespace around keys are ignored.
+         */
+        BASE58_LINES,
+
+        /**
+         * 82 byte serialized extended keys, as written by {@link ExtendedKey#serialize(byte[], int)}, back to back.
+         */
+        RECORDS
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int MIN_CHUNK_SIZE = 1024;
+    private static final int MAX_MAPPING = 1 << 30;
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int chunkSize;
+    private final int maxPendingChunks;
+    private final Deserializer<ExtendedPublicKey> publicDeserializer;
+    private final Deserializer<ExtendedPrivateKey> privateDeserializer;
+
+    private ExtendedKeyLoader(final Builder builder) {
+        ownsPool = builder.pool == null;
+        pool = ownsPool ? new ForkJoinPool(builder.parallelism) : builder.pool;
+        chunkSize = builder.chunkSize;
+        maxPendingChunks = 2 * pool.getParallelism();
+        publicDeserializer = new ExtendedPublicKeyDeserializer(builder.networks);
+        privateDeserializer = new ExtendedPrivateKeyDeserializer(builder.networks);
+    }
+
+    /**
+     * Reads public keys from a blocking channel until the end of its stream. The channel is not closed.
+     *
+     * @param channel The channel to read.
+     * @param format  The format of the keys.
+     * @return The keys, in the order they were read.
+     * @throws IOException If the channel cannot be read.
+     */
+    public List<ExtendedPublicKey> loadPublic(final ReadableByteChannel channel, final Format format)
+            throws IOException {
+        return load(channel, format, publicDeserializer);
+    }
+
+    /**
+     * Reads private keys from a blocking channel until the end of its stream. The channel is not closed.
+     *
+     * @param channel The channel to read.
+     * @param format  The format of the keys.
+     * @return The keys, in the order they were read.
+     * @throws IOException If the channel cannot be read.
+     */
+    public List<ExtendedPrivateKey> loadPrivate(final ReadableByteChannel channel, final Format format)
+            throws IOException {
+        return load(channel, format, privateDeserializer);
+    }
+
+    /**
+     * Reads public keys from a memory-mapped file.
+     *
+     * @param file   The file to read.
+     * @param format The format of the keys.
+     * @return The keys, in the order they appear in the file.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public List<ExtendedPublicKey> loadPublic(final Path file, final Format format) throws IOException {
+        return load(file, format, publicDeserializer);
+    }
+
+    /**
+     * Reads private keys from a memory-mapped file.
+     *
+     * @param file   The file to read.
+     * @param format The format of the keys.
+     * @return The keys, in the order they appear in the file.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public List<ExtendedPrivateKey> loadPrivate(final Path file, final Format format) throws IOException {
+        return load(file, format, privateDeserializer);
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool)
+            pool.shutdown();
+    }
+
+    private <T> List<T> load(final ReadableByteChannel channel, final Format format,
+                             final Deserializer<T> deserializer) throws IOException {
+        final Chunks<T> chunks = new Chunks<>(format, deserializer);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            long offset = 0;
+            boolean endOfStream = false;
+            while (!endOfStream) {
+                endOfStream = fill(channel, buffer);
+                final int end = endOfStream ? buffer.position() : chunkEnd(format, buffer, 0, buffer.position());
+                final ByteBuffer next = ByteBuffer.allocate(chunkSize);
+                next.put(buffer.array(), end, buffer.position() - end);
+                buffer.limit(end);
+                buffer.position(0);
+                chunks.submit(buffer, offset);
+                offset += end;
+                buffer = next;
+            }
+            return chunks.join();
+        } finally {
+            chunks.cancel();
+        }
+    }
+
+    private <T> List<T> load(final Path file, final Format format,
+                             final Deserializer<T> deserializer) throws IOException {
+        final Chunks<T> chunks = new Chunks<>(format, deserializer);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long offset = 0;
+            while (offset < size) {
+                final int regionSize = (int) Math.min(MAX_MAPPING, size - offset);
+                final boolean lastRegion = offset + regionSize == size;
+                final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, offset, regionSize);
+                int start = 0;
+                while (start < regionSize) {
+                    final int limit = (int) Math.min((long) start + chunkSize, regionSize);
+                    final int end = lastRegion && limit == regionSize ? limit : chunkEnd(format, region, start, limit);
+                    chunks.submit(slice(region, start, end), offset + start);
+                    start = end;
+                    if (!lastRegion && limit == regionSize)
+                        break;
+                }
+                offset += start;
+            }
+            return chunks.join();
+        } finally {
+            chunks.cancel();
+        }
+    }
+
+    /**
+     * Reads until buffer is full or the stream ends.
+     *
+     * @return true if the stream ended.
+     */
+    private static boolean fill(final ReadableByteChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The end of the last whole line or record in buffer[from..to), or to if there is none.
+     */
+    private static int chunkEnd(final Format format, final ByteBuffer buffer, final int from, final int to) {
+        if (format == Format.RECORDS) {
+            final int end = from + (to - from) / SERIALIZED_LENGTH * SERIALIZED_LENGTH;
+            return end == from ? to : end;
+        }
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer.get(i) == '\n')
+                return i + 1;
+        }
+        return to;
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int from, final int to) {
+        final ByteBuffer slice = buffer.duplicate();
+        slice.limit(to);
+        slice.position(from);
+        return slice.slice();
+    }
+
+    /**
+     * The chunks of one load, of which at most {@link #maxPendingChunks} are queued or being deserialized at once.
+     */
+    private final class Chunks<T> {
+
+        private final Format format;
+        private final Deserializer<T> deserializer;
+        private final Deque<ForkJoinTask<List<T>>> pending = new ArrayDeque<>();
+        private final List<T> keys = new ArrayList<>();
+
+        Chunks(final Format format, final Deserializer<T> deserializer) {
+            this.format = format;
+            this.deserializer = deserializer;
+        }
+
+        void submit(final ByteBuffer chunk, final long offset) {
+            if (pending.size() >= maxPendingChunks)
+                keys.addAll(pending.removeFirst().join());
+            pending.addLast(pool.submit(new Chunk<>(format, deserializer, chunk, offset)));
+        }
+
+        List<T> join() {
+            while (!pending.isEmpty())
+                keys.addAll(pending.removeFirst().join());
+            return keys;
+        }
+
+        void cancel() {
+            for (final ForkJoinTask<List<T>> task : pending)
+                task.cancel(false);
+        }
+    }
+
+    private static final class Chunk<T> implements Callable<List<T>> {
+
+        private final Format format;
+        private final Deserializer<T> deserializer;
+        private final ByteBuffer chunk;
+        private final long offset;
+        private final byte[] data = new byte[SERIALIZED_LENGTH];
+
+        Chunk(final Format format, final Deserializer<T> deserializer, final ByteBuffer chunk, final long offset) {
+            this.format = format;
+            this.deserializer = deserializer;
+            this.chunk = chunk;
+            this.offset = offset;
+        }
+
+        @Override
+        public List<T> call() {
+            final List<T> keys = new ArrayList<>();
+            try {
+                if (format == Format.RECORDS)
+                    readRecords(keys);
+                else
+                    readLines(keys);
+            } finally {
+                Arrays.fill(data, (byte) 0);
+            }
+            return keys;
+        }
+
+        private void readRecords(final List<T> keys) {
+            final int limit = chunk.limit();
+            for (int start = chunk.position(); start < limit; start += SERIALIZED_LENGTH) {
+                if (limit - start < SERIALIZED_LENGTH)
+                    throw at(start, new BadKeySerializationException("Truncated record"));
+                chunk.get(data);
+                try {
+                    keys.add(deserializer.deserialize(data));
+                } catch (final BadKeySerializationException e) {
+                    throw at(start, e);
+                } catch (final UnknownNetworkException e) {
+                    throw at(start, e);
+                }
+            }
+        }
+
+        private void readLines(final List<T> keys) {
+            final ExtendedKeyBase58 base58 = ExtendedKeyBase58.forThisThread();
+            final AsciiLine line = new AsciiLine(chunk);
+            final int limit = chunk.limit();
+            int start = chunk.position();
+            while (start < limit) {
+                int end = start;
+                while (end < limit && chunk.get(end) != '\n')
+                    end++;
+                if (line.set(start, end)) {
+                    try {
+                        base58.decode(line, data, 0);
+                        keys.add(deserializer.deserialize(data));
+                    } catch (final BadKeySerializationException e) {
+                        throw at(start, e);
+                    } catch (final UnknownNetworkException e) {
+                        throw at(start, e);
+                    }
+                }
+                start = end + 1;
+            }
+        }
+
+        private BadKeySerializationException at(final int position, final BadKeySerializationException e) {
+            return new BadKeySerializationException(at(position) + e.getMessage());
+        }
+
+        private UnknownNetworkException at(final int position, final UnknownNetworkException e) {
+            return new UnknownNetworkException(at(position) + e.getMessage());
+        }
+
+        private String at(final int position) {
+            return "At byte " + (offset + position) + ": ";
+        }
+    }
+
+    /**
+     * One line of a chunk, without its surrounding whitespace, as characters.
+     */
+    private static final class AsciiLine implements CharSequence {
+
+        private final ByteBuffer chunk;
+        private int start;
+        private int end;
+
+        AsciiLine(final ByteBuffer chunk) {
+            this.chunk = chunk;
+        }
+
+        /**
+         * @return false if the line is blank.
+         */
+        boolean set(final int from, final int to) {
+            start = from;
+            end = to;
+            while (start < end && isWhitespace(chunk.get(start)))
+                start++;
+            while (end > start && isWhitespace(chunk.get(end - 1)))
+                end--;
+            return start < end;
+        }
+
+        private static boolean isWhitespace(final byte b) {
+            return b == ' ' || b == '\t' || b == '\r';
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return (char) (chunk.get(start + index) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(final int from, final int to) {
+            return toString().subSequence(from, to);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder string = new StringBuilder(length());
+            for (int i = 0; i < length(); i++)
+                string.append(charAt(i));
+            return string.toString();
+        }
+    }
+
+    public static final class Builder {
+
+        private ForkJoinPool pool;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private Networks networks = DefaultNetworks.INSTANCE;
+
+        /**
+         * @param parallelism Number of threads for the loader's own pool, defaults to the number of processors.
+         * @return this builder
+         */
+        public Builder parallelism(final int parallelism) {
+            if (parallelism < 1)
+                throw new IllegalArgumentException("Parallelism must be at least 1");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param pool A pool to run on instead of the loader's own. It is not shut down when the loader is closed.
+         * @return this builder
+         */
+        public Builder pool(final ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * @param chunkSize Most bytes of input one task deserializes, defaults to 1 MiB.
+         * @return this builder
+         */
+        public Builder chunkSize(final int chunkSize) {
+            if (chunkSize < MIN_CHUNK_SIZE)
+                throw new IllegalArgumentException("Chunk size must be at least " + MIN_CHUNK_SIZE);
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * @param networks The networks that keys' versions are looked up in, defaults to {@link DefaultNetworks}.
+         * @return this builder
+         */
+        public Builder networks(final Networks networks) {
+            this.networks = networks;
+            return this;
+        }
+
+        public ExtendedKeyLoader build() {
+            return new ExtendedKeyLoader(this);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.DefaultNetworks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static io.github.novacrypto.bip32.Serializer.SERIALIZED_LENGTH;
+
+/**
+ * A file of extended keys in fixed width binary records, read through a memory mapping.
+ * <p>
+ * The file is a header, the keys' records and an index of the keys' fingerprints:
+ * <pre>
+ * header, 32 bytes:  "BIP32KS" 0x01, record length (78), key count, index entry length (8), 12 zero bytes
+ * records, 78 each:  version, depth, parent fingerprint, child number, chain code, key, as serialized but without
+ *                    the checksum
+ * index, 8 each:     fingerprint, record number, in order of unsigned fingerprint then record number
+ * </pre>
+ * All integers are big endian. Opening a store maps the file and checks its header, so takes the same time however
+ * many keys it holds. Keys are only built from their records when they are asked for, and are not kept.
+ * <p>
+ * Safe for use by many threads.
+ */
+public final class ExtendedKeyStore {
+
+    private static final byte[] MAGIC = {'B', 'I', 'P', '3', '2', 'K', 'S', 1};
+    private static final int HEADER_LENGTH = 32;
+    private static final int RECORD_LENGTH = SERIALIZED_LENGTH - 4;
+    private static final int INDEX_ENTRY_LENGTH = 8;
+    private static final int KEY_OFFSET = 45;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer file;
+    private final int size;
+    private final int indexOffset;
+    private final Networks networks;
+
+    private ExtendedKeyStore(final ByteBuffer file, final int size, final Networks networks) {
+        this.file = file;
+        this.size = size;
+        this.networks = networks;
+        indexOffset = HEADER_LENGTH + size * RECORD_LENGTH;
+    }
+
+    /**
+     * Writes keys to a new store, replacing any file already at the path.
+     *
+     * @param file The file to write.
+     * @param keys The keys, which become records 0 to keys.size() - 1 in iteration order.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(final Path file, final Collection<? extends ExtendedKey> keys) throws IOException {
+        final int size = keys.size();
+        if (size > (Integer.MAX_VALUE - HEADER_LENGTH) / (RECORD_LENGTH + INDEX_ENTRY_LENGTH))
+            throw new IllegalArgumentException("Too many keys for one store");
+        final long[] index = new long[size];
+        final byte[] serialized = new byte[SERIALIZED_LENGTH];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            try {
+                buffer.put(MAGIC)
+                        .putInt(RECORD_LENGTH)
+                        .putInt(size)
+                        .putInt(INDEX_ENTRY_LENGTH)
+                        .put(new byte[HEADER_LENGTH - 20]);
+                int record = 0;
+                for (final ExtendedKey key : keys) {
+                    final HdKey hdKey = hdKey(key);
+                    hdKey.serialize(serialized, 0);
+                    put(channel, buffer, serialized, RECORD_LENGTH);
+                    index[record] = indexEntry(hdKey.calculateFingerPrint(), record);
+                    record++;
+                }
+                Arrays.sort(index);
+                for (final long entry : index) {
+                    if (buffer.remaining() < INDEX_ENTRY_LENGTH)
+                        flush(channel, buffer);
+                    buffer.putInt((int) (entry >>> 32) ^ Integer.MIN_VALUE)
+                            .putInt((int) entry);
+                }
+                flush(channel, buffer);
+            } finally {
+                Arrays.fill(serialized, (byte) 0);
+                Arrays.fill(buffer.array(), (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Opens a store, looking up keys' versions in {@link DefaultNetworks}.
+     *
+     * @param file The file to open.
+     * @return The store.
+     * @throws IOException If the file cannot be mapped or is not an extended key store.
+     */
+    public static ExtendedKeyStore open(final Path file) throws IOException {
+        return open(file, DefaultNetworks.INSTANCE);
+    }
+
+    /**
+     * Opens a store.
+     *
+     * @param file     The file to open.
+     * @param networks The networks that keys' versions are looked up in when they are built.
+     * @return The store.
+     * @throws IOException If the file cannot be mapped or is not an extended key store.
+     */
+    public static ExtendedKeyStore open(final Path file, final Networks networks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long length = channel.size();
+            if (length < HEADER_LENGTH || length > Integer.MAX_VALUE)
+                throw notAStore(file);
+            final ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (mapped.get(i) != MAGIC[i])
+                    throw notAStore(file);
+            }
+            final int size = mapped.getInt(12);
+            if (mapped.getInt(8) != RECORD_LENGTH
+                    || mapped.getInt(16) != INDEX_ENTRY_LENGTH
+                    || size < 0
+                    || length != HEADER_LENGTH + (long) size * (RECORD_LENGTH + INDEX_ENTRY_LENGTH))
+                throw notAStore(file);
+            return new ExtendedKeyStore(mapped, size, networks);
+        }
+    }
+
+    /**
+     * @return The number of keys in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param record The record number, from 0 to {@link #size()} - 1.
+     * @return true if the record is a private key.
+     */
+    public boolean isPrivate(final int record) {
+        return file.get(offset(record) + KEY_OFFSET) == 0;
+    }
+
+    /**
+     * @param record The record number, from 0 to {@link #size()} - 1.
+     * @return The depth of the record's key.
+     */
+    public int depth(final int record) {
+        return file.get(offset(record) + 4) & 0xff;
+    }
+
+    /**
+     * @param record The record number, from 0 to {@link #size()} - 1.
+     * @return The fingerprint of the record's key's parent.
+     */
+    public int parentFingerprint(final int record) {
+        return file.getInt(offset(record) + 5);
+    }
+
+    /**
+     * @param record The record number, from 0 to {@link #size()} - 1.
+     * @return The child number of the record's key.
+     */
+    public int childNumber(final int record) {
+        return file.getInt(offset(record) + 9);
+    }
+
+    /**
+     * Builds the key of a record.
+     *
+     * @param record The record number, from 0 to {@link #size()} - 1.
+     * @return An {@link ExtendedPrivateKey} or {@link ExtendedPublicKey}, see {@link #isPrivate(int)}.
+     */
+    public ExtendedKey get(final int record) {
+        return isPrivate(record) ? getPrivate(record) : getPublic(record);
+    }
+
+    /**
+     * Builds the public key of a record, neutering private keys.
+     *
+     * @param record The record number, from 0 to {@link #size()} - 1.
+     * @return The public key.
+     */
+    public ExtendedPublicKey getPublic(final int record) {
+        if (isPrivate(record))
+            return getPrivate(record).neuter();
+        final ByteArrayReader reader = new ByteArrayReader(bytes(record));
+        return new ExtendedPublicKey(new HdKey
+                .Builder()
+                .network(networks.findByPublicVersion(reader.readSer32()))
+                .depth(reader.read())
+                .parentFingerprint(reader.readSer32())
+                .childNumber(reader.readSer32())
+                .chainCode(reader.readRange(32))
+                .key(reader.readRange(33))
+                .neutered(true)
+                .build()
+        );
+    }
+
+    /**
+     * Builds the private key of a record.
+     *
+     * @param record The record number, from 0 to {@link #size()} - 1.
+     * @return The private key.
+     * @throws IllegalArgumentException If the record is a public key.
+     */
+    public ExtendedPrivateKey getPrivate(final int record) {
+        if (!isPrivate(record))
+            throw new IllegalArgumentException("Record " + record + " is a public key");
+        final byte[] bytes = bytes(record);
+        try {
+            final ByteArrayReader reader = new ByteArrayReader(bytes);
+            return new ExtendedPrivateKey(new HdKey
+                    .Builder()
+                    .network(networks.findByPrivateVersion(reader.readSer32()))
+                    .depth(reader.read())
+                    .parentFingerprint(reader.readSer32())
+                    .childNumber(reader.readSer32())
+                    .chainCode(reader.readRange(32))
+                    .key(skipPadding(reader).readRange(32))
+                    .neutered(false)
+                    .build()
+            );
+        } finally {
+            Arrays.fill(bytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Finds keys by their own fingerprint, the parent fingerprint of their children.
+     *
+     * @param fingerprint The first 32 bits of the key identifier.
+     * @return The record numbers of the keys with the fingerprint, in ascending order, empty if there are none.
+     */
+    public int[] findByFingerprint(final int fingerprint) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (unsignedLess(indexFingerprint(mid), fingerprint))
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        int end = lo;
+        while (end < size && indexFingerprint(end) == fingerprint)
+            end++;
+        final int[] records = new int[end - lo];
+        for (int i = 0; i < records.length; i++)
+            records[i] = file.getInt(indexOffset + (lo + i) * INDEX_ENTRY_LENGTH + 4);
+        return records;
+    }
+
+    private int indexFingerprint(final int entry) {
+        return file.getInt(indexOffset + entry * INDEX_ENTRY_LENGTH);
+    }
+
+    private static boolean unsignedLess(final int a, final int b) {
+        return (a ^ Integer.MIN_VALUE) < (b ^ Integer.MIN_VALUE);
+    }
+
+    private byte[] bytes(final int record) {
+        final int offset = offset(record);
+        final byte[] bytes = new byte[RECORD_LENGTH];
+        for (int i = 0; i < RECORD_LENGTH; i++)
+            bytes[i] = file.get(offset + i);
+        return bytes;
+    }
+
+    private static ByteArrayReader skipPadding(final ByteArrayReader reader) {
+        reader.read();
+        return reader;
+    }
+
+    private int offset(final int record) {
+        if (record < 0 || record >= size)
+            throw new IndexOutOfBoundsException("Record " + record + " of " + size);
+        return HEADER_LENGTH + record * RECORD_LENGTH;
+    }
+
+    private static HdKey hdKey(final ExtendedKey key) {
+        if (key instanceof ExtendedPrivateKey)
+            return ((ExtendedPrivateKey) key).hdKey();
+        if (key instanceof ExtendedPublicKey)
+            return ((ExtendedPublicKey) key).hdKey();
+        throw new IllegalArgumentException("Unsupported key type " + key.getClass().getName());
+    }
+
+    /**
+     * @return An index entry, ordered by unsigned fingerprint then record number when compared as signed longs.
+     */
+    private static long indexEntry(final int fingerprint, final int record) {
+        return ((long) (fingerprint ^ Integer.MIN_VALUE) << 32) | record;
+    }
+
+    private static void put(final FileChannel channel, final ByteBuffer buffer, final byte[] bytes, final int length)
+            throws IOException {
+        if (buffer.remaining() < length)
+            flush(channel, buffer);
+        buffer.put(bytes, 0, length);
+    }
+
+    /**
+     * Writes the buffer's contents and then zeros them, as they may be private keys.
+     */
+    private static void flush(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        Arrays.fill(buffer.array(), 0, buffer.limit(), (byte) 0);
+        buffer.clear();
+    }
+
+    private static IOException notAStore(final Path file) {
+        return new IOException("Not an extended key store: " + file);
+    }
+}
@@ -27,17 +27,19 @@ import io.github.novacrypto.bip32.derivation.Derivation;
 import io.github.novacrypto.bip32.derivation.Derive;
 import io.github.novacrypto.toruntime.CheckedExceptionToRuntime;
 
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
-import static io.github.novacrypto.base58.Base58.base58Encode;
-import static io.github.novacrypto.bip32.BigIntegerUtils.parse256;
-import static io.github.novacrypto.bip32.BigIntegerUtils.ser256;
-import static io.github.novacrypto.bip32.ByteArrayWriter.head32;
-import static io.github.novacrypto.bip32.ByteArrayWriter.tail32;
+import static io.github.novacrypto.bip32.ChildRange.checkPrivateRange;
 import static io.github.novacrypto.bip32.HmacSha512.hmacSha512;
 import static io.github.novacrypto.bip32.Index.isHardened;
-import static io.github.novacrypto.bip32.Secp256k1SC.n;
+import static io.github.novacrypto.bip32.Scalars.addModN;
+import static io.github.novacrypto.bip32.Scalars.isZero;
+import static io.github.novacrypto.bip32.Scalars.lessThanN;
+import static io.github.novacrypto.bip32.Secp256k1SC.gMultiplyAndAddPoint;
+import static io.github.novacrypto.bip32.Secp256k1SC.isInfinity;
+import static io.github.novacrypto.bip32.Secp256k1SC.multiplyConstantTime;
+import static io.github.novacrypto.bip32.Secp256k1SC.pointSerP;
 import static io.github.novacrypto.bip32.derivation.CkdFunctionResultCacheDecorator.newCacheOf;
 import static io.github.novacrypto.toruntime.CheckedExceptionToRuntime.toRuntime;
 
@@ -86,10 +88,9 @@ public final class ExtendedPrivateKey implements
     }
 
     public static ExtendedPrivateKey fromSeed(final byte[] seed, final Network network) {
-        final byte[] I = hmacSha512(BITCOIN_SEED, seed);
-
-        final byte[] Il = head32(I);
-        final byte[] Ir = tail32(I);
+        final byte[] Il = new byte[32];
+        final byte[] Ir = new byte[32];
+        hmacSha512(BITCOIN_SEED, seed, Il, Ir);
 
         return new ExtendedPrivateKey(network, Il, Ir);
     }
@@ -108,6 +109,26 @@ public final class ExtendedPrivateKey implements
         return hdKey.serialize();
     }
 
+    /**
+     * Serialize this extended key into an existing array, without allocating
+     *
+     * @param target the array to write the 82 bytes representing this key to
+     * @param offset the position in target of the first byte
+     */
+    public void serialize(final byte[] target, final int offset) {
+        hdKey.serialize(target, offset);
+    }
+
+    /**
+     * Serialize this extended key into a heap or direct buffer, without allocating
+     *
+     * @param target the buffer to write the 82 bytes representing this key to, from its current position, which is
+     *               advanced past them
+     */
+    public void serialize(final ByteBuffer target) {
+        hdKey.serialize(target);
+    }
+
     @Override
     public ExtendedPrivateKey toNetwork(final Network otherNetwork) {
         if (otherNetwork == network())
@@ -120,7 +141,18 @@ public final class ExtendedPrivateKey implements
 
     @Override
     public String extendedBase58() {
-        return base58Encode(extendedKeyByteArray());
+        final StringBuilder target = new StringBuilder(ExtendedKeyBase58.MAX_LENGTH);
+        hdKey.extendedBase58(target);
+        return target.toString();
+    }
+
+    /**
+     * Append the serialized Base58 String of this extended key to target
+     *
+     * @param target the builder to append the Base58 characters representing this key to
+     */
+    public void extendedBase58(final StringBuilder target) {
+        hdKey.extendedBase58(target);
     }
 
     @Override
@@ -136,22 +168,21 @@ public final class ExtendedPrivateKey implements
         }
         writer.concatSer32(index);
 
-        final byte[] I = hmacSha512(hdKey.getChainCode(), data);
+        final byte[] Il = new byte[32];
+        final byte[] Ir = new byte[32];
+        hmacSha512(hdKey.getChainCode(), data, Il, Ir);
         Arrays.fill(data, (byte) 0);
 
-        final byte[] Il = head32(I);
-        final byte[] Ir = tail32(I);
+        if (!lessThanN(Il)) {
+            return cKDpriv(index + 1);
+        }
 
-        final byte[] key = hdKey.getKey();
-        final BigInteger parse256_Il = parse256(Il);
-        final BigInteger ki = parse256_Il.add(parse256(key)).mod(n());
+        addModN(Il, hdKey.getKey(), Il);
 
-        if (parse256_Il.compareTo(n()) >= 0 || ki.equals(BigInteger.ZERO)) {
+        if (isZero(Il)) {
             return cKDpriv(index + 1);
         }
 
-        ser256(Il, ki);
-
         return new ExtendedPrivateKey(new HdKey.Builder()
                 .network(hdKey.getNetwork())
                 .neutered(false)
@@ -163,13 +194,71 @@ public final class ExtendedPrivateKey implements
                 .build());
     }
 
+    /**
+     * Calculates the private keys of a contiguous range of children, the same as calling {@link #cKDpriv(int)} for each
+     * index.
+     *
+     * @param from  The first child index to calculate, may be hardened.
+     * @param count The number of children to calculate.
+     * @return The private keys of the children, element i being the child at index from + i.
+     */
+    public ExtendedPrivateKey[] deriveRange(final int from, final int count) {
+        checkPrivateRange(from, count);
+        final ExtendedPrivateKey[] children = new ExtendedPrivateKey[count];
+        for (int i = 0; i < count; i++)
+            children[i] = cKDpriv(from + i);
+        return children;
+    }
+
     @Override
     public ExtendedPublicKey cKDpub(final int index) {
         return cKDpriv(index).neuter();
     }
 
+    /**
+     * The public key of this key. Its point is calculated on first use of the public key, other than for its depth,
+     * child number or network, and is shared with this key.
+     * <p>
+     * Until then the public key keeps this private key reachable, however long it is kept. Where that matters, such
+     * as public keys that are stored or handed to watch-only code, use the public key, for example
+     * {@link ExtendedPublicKey#extendedBase58()}, before passing it on. Keys whose point has already been calculated,
+     * including every key that has derived a child, are neutered straight away and hold no reference.
+     *
+     * @return The public key of this key.
+     */
     public ExtendedPublicKey neuter() {
-        return ExtendedPublicKey.from(hdKey);
+        return ExtendedPublicKey.lazilyFrom(hdKey);
+    }
+
+    /**
+     * Elliptic curve Diffie-Hellman with another party's public key. The multiplication by this key is constant time,
+     * see {@link io.github.novacrypto.bip32.curve.Secp256k1Backend#multiplyConstantTime(Object, byte[])}.
+     *
+     * @param publicKey The other party's public key.
+     * @return The 33 byte compressed encoding of this key times the other party's point, the same point they calculate
+     * from their private key and this key's public key. Hash it as the protocol in use requires.
+     */
+    public byte[] ecdh(final ExtendedPublicKey publicKey) {
+        return pointSerP(multiplyConstantTime(publicKey.hdKey().getKeyPoint(), hdKey.getKey()));
+    }
+
+    /**
+     * Elliptic curve Diffie-Hellman with a child of another party's public key, without building the child's
+     * {@link ExtendedPublicKey}. The same as {@code ecdh(parent.cKDpub(index))}: the child's point, IL * G + Kpar, is
+     * public and is calculated in variable time, then multiplied by this key in constant time.
+     *
+     * @param parent The other party's parent public key.
+     * @param index  The non-hardened index of the child.
+     * @return The 33 byte compressed encoding of the shared point.
+     */
+    public byte[] ecdh(final ExtendedPublicKey parent, final int index) {
+        final byte[] Il = parent.childTweak(index);
+        if (Il == null)
+            return ecdh(parent, index + 1);
+        final Object child = gMultiplyAndAddPoint(Il, parent.hdKey().getKeyPoint());
+        if (isInfinity(child))
+            return ecdh(parent, index + 1);
+        return pointSerP(multiplyConstantTime(child, hdKey.getKey()));
     }
 
     public Derive<ExtendedPrivateKey> derive() {
@@ -180,6 +269,16 @@ public final class ExtendedPrivateKey implements
         return derive(newCacheOf(CKD_FUNCTION));
     }
 
+    /**
+     * Derive through a shared {@link DerivationCache}.
+     *
+     * @param cache The cache to look up children in and add derived children to.
+     * @return A {@link Derive} that looks up each child in the cache before deriving it.
+     */
+    public Derive<ExtendedPrivateKey> deriveWithCache(final DerivationCache cache) {
+        return derive(cache.decorate(CKD_FUNCTION));
+    }
+
     @Override
     public ExtendedPrivateKey derive(final CharSequence derivationPath) {
         return derive().derive(derivationPath);
@@ -190,10 +289,32 @@ public final class ExtendedPrivateKey implements
         return derive().derive(derivationPath, derivation);
     }
 
+    /**
+     * @param derivationPath A path compiled with {@link CompiledPath#compile(CharSequence)}.
+     * @return The key at the end of the path.
+     */
+    public ExtendedPrivateKey derive(final CompiledPath derivationPath) {
+        return derivationPath.derive(this);
+    }
+
+    /**
+     * @param derivationPath A path compiled with {@link CompiledPath#compile(CharSequence)}, ending in a variable
+     *                       index.
+     * @param index          The child index for the path's variable index.
+     * @return The key at the end of the path.
+     */
+    public ExtendedPrivateKey derive(final CompiledPath derivationPath, final int index) {
+        return derivationPath.derive(this, index);
+    }
+
     private Derive<ExtendedPrivateKey> derive(final CkdFunction<ExtendedPrivateKey> ckdFunction) {
         return new CkdFunctionDerive<>(ckdFunction, this);
     }
 
+    HdKey hdKey() {
+        return hdKey;
+    }
+
     @Override
     public Network network() {
         return hdKey.getNetwork();
@@ -25,16 +25,14 @@ import io.github.novacrypto.bip32.derivation.CkdFunction;
 import io.github.novacrypto.bip32.derivation.CkdFunctionDerive;
 import io.github.novacrypto.bip32.derivation.Derivation;
 import io.github.novacrypto.bip32.derivation.Derive;
-import org.spongycastle.math.ec.ECPoint;
 
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 import static io.github.novacrypto.base58.Base58.base58Encode;
-import static io.github.novacrypto.bip32.BigIntegerUtils.parse256;
-import static io.github.novacrypto.bip32.ByteArrayWriter.head32;
-import static io.github.novacrypto.bip32.ByteArrayWriter.tail32;
+import static io.github.novacrypto.bip32.ChildRange.checkPublicRange;
 import static io.github.novacrypto.bip32.HmacSha512.hmacSha512;
 import static io.github.novacrypto.bip32.Index.isHardened;
+import static io.github.novacrypto.bip32.Scalars.lessThanN;
 import static io.github.novacrypto.bip32.Secp256k1SC.*;
 import static io.github.novacrypto.bip32.derivation.CkdFunctionResultCacheDecorator.newCacheOf;
 import static io.github.novacrypto.hashing.Hash160.hash160into;
@@ -56,6 +54,8 @@ public final class ExtendedPublicKey implements
         return new ExtendedPublicKeyDeserializer(networks);
     }
 
+    private static final int HASH160_LENGTH = 20;
+
     private static final CkdFunction<ExtendedPublicKey> CKD_FUNCTION = new CkdFunction<ExtendedPublicKey>() {
         @Override
         public ExtendedPublicKey deriveChildKey(final ExtendedPublicKey parent, final int childIndex) {
@@ -63,22 +63,27 @@ public final class ExtendedPublicKey implements
         }
     };
 
-    static ExtendedPublicKey from(final HdKey hdKey) {
-        return new ExtendedPublicKey(new HdKey.Builder()
-                .network(hdKey.getNetwork())
-                .neutered(true)
-                .key(hdKey.getPoint())
-                .parentFingerprint(hdKey.getParentFingerprint())
-                .depth(hdKey.depth())
-                .childNumber(hdKey.getChildNumber())
-                .chainCode(hdKey.getChainCode())
-                .build());
+    /**
+     * The public key of a private key, calculated from it on first use. Until then it holds the private key, and reads
+     * its depth, child number and network from that. If the private key's point is already known there is nothing to
+     * put off, so the public key is built straight away and holds no reference to the private key.
+     */
+    static ExtendedPublicKey lazilyFrom(final HdKey privateKey) {
+        if (privateKey.hasPoint())
+            return new ExtendedPublicKey(neutered(privateKey));
+        return new ExtendedPublicKey(null, privateKey);
     }
 
-    private final HdKey hdKey;
+    private volatile HdKey hdKey;
+    private volatile HdKey privateKey;
 
     ExtendedPublicKey(final HdKey hdKey) {
+        this(hdKey, null);
+    }
+
+    private ExtendedPublicKey(final HdKey hdKey, final HdKey privateKey) {
         this.hdKey = hdKey;
+        this.privateKey = privateKey;
     }
 
     @Override
@@ -86,41 +91,138 @@ public final class ExtendedPublicKey implements
         if (isHardened(index))
             throw new IllegalCKDCall("Cannot derive a hardened key from a public key");
 
-        final HdKey parent = this.hdKey;
-        final byte[] kPar = parent.getKey();
+        final HdKey parent = hdKey();
+        final byte[] Il = new byte[32];
+        final byte[] Ir = new byte[32];
+        childHmac(index, Il, Ir);
+
+        if (!lessThanN(Il)) {
+            return cKDpub(index + 1);
+        }
+
+        final Object ki = gMultiplyAndAddPoint(Il, parent.getKeyPoint());
+
+        if (isInfinity(ki)) {
+            return cKDpub(index + 1);
+        }
 
+        return child(parent.calculateFingerPrint(), index, normalize(ki), Ir);
+    }
+
+    /**
+     * @param index A non-hardened child index.
+     * @return IL for the child at index, the 32 byte scalar that G is multiplied by and added to this key's point, or
+     * null if it is not less than n and the child is skipped.
+     */
+    byte[] childTweak(final int index) {
+        if (isHardened(index))
+            throw new IllegalCKDCall("Cannot derive a hardened key from a public key");
+        final byte[] Il = new byte[32];
+        childHmac(index, Il, new byte[32]);
+        return lessThanN(Il) ? Il : null;
+    }
+
+    private void childHmac(final int index, final byte[] Il, final byte[] Ir) {
         final byte[] data = new byte[37];
         final ByteArrayWriter writer = new ByteArrayWriter(data);
-        writer.concat(kPar, 33);
+        writer.concat(hdKey().getKey(), 33);
         writer.concatSer32(index);
+        hmacSha512(hdKey().getChainCode(), data, Il, Ir);
+    }
 
-        final byte[] I = hmacSha512(parent.getChainCode(), data);
-        final byte[] Il = head32(I);
-        final byte[] Ir = tail32(I);
-
-        final BigInteger parse256_Il = parse256(Il);
-        final ECPoint ki = gMultiplyAndAddPoint(parse256_Il, kPar);
+    /**
+     * Calculates the public keys of a contiguous range of children.
+     * <p>
+     * The result is the same as calling {@link #cKDpub(int)} for each index, but the parent point and fingerprint are
+     * prepared once for the whole range rather than once per child, and the HMAC stays keyed with the parent's chain
+     * code throughout. The children's points are converted to affine coordinates together, with a single field
+     * inversion for the whole range.
+     *
+     * @param from  The first child index to calculate.
+     * @param count The number of children to calculate.
+     * @return The public keys of the children, element i being the child at index from + i.
+     */
+    public ExtendedPublicKey[] deriveRange(final int from, final int count) {
+        checkPublicRange(from, count);
+        final ExtendedPublicKey[] children = new ExtendedPublicKey[count];
+        if (count == 0)
+            return children;
+
+        final HdKey parent = hdKey();
+        final byte[] kPar = parent.getKey();
+        final Object kParPoint = parent.getKeyPoint();
+        final byte[] chainCode = parent.getChainCode();
+        final HmacSha512Engine hmac = HmacSha512Engine.forThisThread();
 
-        if (parse256_Il.compareTo(n()) >= 0 || ki.isInfinity()) {
-            return cKDpub(index + 1);
+        final Object[] points = new Object[count];
+        final byte[][] chainCodes = new byte[count][];
+        final byte[] data = new byte[37];
+        final byte[] Il = new byte[32];
+        for (int i = 0; i < count; i++) {
+            final int index = from + i;
+            final ByteArrayWriter writer = new ByteArrayWriter(data);
+            writer.concat(kPar, 33);
+            writer.concatSer32(index);
+
+            final byte[] Ir = new byte[32];
+            hmac.hmacSha512(chainCode, data, Il, Ir);
+            final Object ki = lessThanN(Il) ? gMultiplyAndAddPoint(Il, kParPoint) : null;
+
+            if (ki == null || isInfinity(ki)) {
+                children[i] = cKDpub(index + 1);
+            } else {
+                points[i] = ki;
+                chainCodes[i] = Ir;
+            }
         }
 
-        final byte[] key = pointSerP(ki);
+        normalizeAll(points);
 
+        final int parentFingerprint = parent.calculateFingerPrint();
+        for (int i = 0; i < count; i++) {
+            if (points[i] != null)
+                children[i] = child(parentFingerprint, from + i, points[i], chainCodes[i]);
+        }
+        return children;
+    }
+
+    private ExtendedPublicKey child(final int parentFingerprint, final int index, final Object ki,
+                                    final byte[] chainCode) {
         return new ExtendedPublicKey(new HdKey.Builder()
-                .network(parent.getNetwork())
+                .network(hdKey().getNetwork())
                 .neutered(true)
-                .depth(parent.depth() + 1)
-                .parentFingerprint(parent.calculateFingerPrint())
-                .key(key)
-                .chainCode(Ir)
+                .depth(hdKey().depth() + 1)
+                .parentFingerprint(parentFingerprint)
+                .key(pointSerP(ki))
+                .keyPoint(ki)
+                .chainCode(chainCode)
                 .childNumber(index)
                 .build());
     }
 
     @Override
     public byte[] extendedKeyByteArray() {
-        return hdKey.serialize();
+        return hdKey().serialize();
+    }
+
+    /**
+     * Serialize this extended key into an existing array, without allocating
+     *
+     * @param target the array to write the 82 bytes representing this key to
+     * @param offset the position in target of the first byte
+     */
+    public void serialize(final byte[] target, final int offset) {
+        hdKey().serialize(target, offset);
+    }
+
+    /**
+     * Serialize this extended key into a heap or direct buffer, without allocating
+     *
+     * @param target the buffer to write the 82 bytes representing this key to, from its current position, which is
+     *               advanced past them
+     */
+    public void serialize(final ByteBuffer target) {
+        hdKey().serialize(target);
     }
 
     @Override
@@ -128,35 +230,123 @@ public final class ExtendedPublicKey implements
         if (otherNetwork == network())
             return this;
         return new ExtendedPublicKey(
-                hdKey.toBuilder()
+                hdKey().toBuilder()
                         .network(otherNetwork)
                         .build());
     }
 
     @Override
     public String extendedBase58() {
-        return base58Encode(extendedKeyByteArray());
+        final StringBuilder target = new StringBuilder(ExtendedKeyBase58.MAX_LENGTH);
+        hdKey().extendedBase58(target);
+        return target.toString();
+    }
+
+    /**
+     * Append the serialized Base58 String of this extended key to target
+     *
+     * @param target the builder to append the Base58 characters representing this key to
+     */
+    public void extendedBase58(final StringBuilder target) {
+        hdKey().extendedBase58(target);
     }
 
     public String p2pkhAddress() {
-        return encodeAddress(hdKey.getNetwork().p2pkhVersion(), hdKey.getKey());
+        final byte[] address = new byte[25];
+        p2pkhHash160(address, 1);
+        return encodeAddress(hdKey().getNetwork().p2pkhVersion(), address);
     }
 
     public String p2shAddress() {
-        final byte[] script = new byte[22];
-        script[1] = (byte) 20;
-        hash160into(script, 2, hdKey.getKey());
-        return encodeAddress(hdKey.getNetwork().p2shVersion(), script);
+        final byte[] address = new byte[25];
+        p2shScriptHash(address, 1);
+        return encodeAddress(hdKey().getNetwork().p2shVersion(), address);
     }
 
-    private static String encodeAddress(final byte version, final byte[] data) {
-        final byte[] address = new byte[25];
+    private static String encodeAddress(final byte version, final byte[] address) {
         address[0] = version;
-        hash160into(address, 1, data);
         System.arraycopy(sha256Twice(address, 0, 21), 0, address, 21, 4);
         return base58Encode(address);
     }
 
+    /**
+     * @return The 20 byte hash160 of the public key, as found in a P2PKH address.
+     */
+    public byte[] p2pkhHash160() {
+        final byte[] hash160 = new byte[HASH160_LENGTH];
+        p2pkhHash160(hash160, 0);
+        return hash160;
+    }
+
+    /**
+     * Writes the hash160 of the public key, as found in a P2PKH address, without the version and checksum.
+     *
+     * @param target Array to write the 20 bytes to.
+     * @param offset Position in target to start writing at.
+     */
+    public void p2pkhHash160(final byte[] target, final int offset) {
+        checkRoom(target, offset, HASH160_LENGTH);
+        hash160into(target, offset, hdKey().getKey());
+    }
+
+    /**
+     * @return The 20 byte hash160 of the P2WPKH script, as found in a P2SH address.
+     */
+    public byte[] p2shScriptHash() {
+        final byte[] hash160 = new byte[HASH160_LENGTH];
+        p2shScriptHash(hash160, 0);
+        return hash160;
+    }
+
+    /**
+     * Writes the hash160 of the P2WPKH script, as found in a P2SH address, without the version and checksum.
+     *
+     * @param target Array to write the 20 bytes to.
+     * @param offset Position in target to start writing at.
+     */
+    public void p2shScriptHash(final byte[] target, final int offset) {
+        checkRoom(target, offset, HASH160_LENGTH);
+        final byte[] script = new byte[22];
+        script[1] = (byte) 20;
+        hash160into(script, 2, hdKey().getKey());
+        hash160into(target, offset, script);
+    }
+
+    /**
+     * Writes the P2PKH hash160s of a range of children, back to back, without building their addresses.
+     *
+     * @param from   The first child index.
+     * @param count  The number of children.
+     * @param target Array to write count * 20 bytes to.
+     * @param offset Position in target to start writing at.
+     */
+    public void deriveP2pkhHash160Range(final int from, final int count, final byte[] target, final int offset) {
+        checkRoom(target, offset, (long) count * HASH160_LENGTH);
+        final ExtendedPublicKey[] children = deriveRange(from, count);
+        for (int i = 0; i < count; i++)
+            children[i].p2pkhHash160(target, offset + i * HASH160_LENGTH);
+    }
+
+    /**
+     * Writes the P2SH script hashes of a range of children, back to back, without building their addresses.
+     *
+     * @param from   The first child index.
+     * @param count  The number of children.
+     * @param target Array to write count * 20 bytes to.
+     * @param offset Position in target to start writing at.
+     */
+    public void deriveP2shScriptHashRange(final int from, final int count, final byte[] target, final int offset) {
+        checkRoom(target, offset, (long) count * HASH160_LENGTH);
+        final ExtendedPublicKey[] children = deriveRange(from, count);
+        for (int i = 0; i < count; i++)
+            children[i].p2shScriptHash(target, offset + i * HASH160_LENGTH);
+    }
+
+    private static void checkRoom(final byte[] target, final int offset, final long length) {
+        if (offset < 0 || offset > target.length - length)
+            throw new IndexOutOfBoundsException("Not enough room in target for " + length + " bytes");
+    }
+
     public Derive<ExtendedPublicKey> derive() {
         return derive(CKD_FUNCTION);
     }
@@ -165,6 +355,16 @@ public final class ExtendedPublicKey implements
         return derive(newCacheOf(CKD_FUNCTION));
     }
 
+    /**
+     * Derive through a shared {@link DerivationCache}.
+     *
+     * @param cache The cache to look up children in and add derived children to.
+     * @return A {@link Derive} that looks up each child in the cache before deriving it.
+     */
+    public Derive<ExtendedPublicKey> deriveWithCache(final DerivationCache cache) {
+        return derive(cache.decorate(CKD_FUNCTION));
+    }
+
     @Override
     public ExtendedPublicKey derive(final CharSequence derivationPath) {
         return derive().derive(derivationPath);
@@ -175,22 +375,77 @@ public final class ExtendedPublicKey implements
         return derive().derive(derivationPath, derivation);
     }
 
+    /**
+     * @param derivationPath A path compiled with {@link CompiledPath#compile(CharSequence)}.
+     * @return The key at the end of the path.
+     */
+    public ExtendedPublicKey derive(final CompiledPath derivationPath) {
+        return derivationPath.derive(this);
+    }
+
+    /**
+     * @param derivationPath A path compiled with {@link CompiledPath#compile(CharSequence)}, ending in a variable
+     *                       index.
+     * @param index          The child index for the path's variable index.
+     * @return The key at the end of the path.
+     */
+    public ExtendedPublicKey derive(final CompiledPath derivationPath, final int index) {
+        return derivationPath.derive(this, index);
+    }
+
     private Derive<ExtendedPublicKey> derive(final CkdFunction<ExtendedPublicKey> ckdFunction) {
         return new CkdFunctionDerive<>(ckdFunction, this);
     }
 
+    HdKey hdKey() {
+        HdKey hdKey = this.hdKey;
+        if (hdKey != null)
+            return hdKey;
+        final HdKey privateKey = this.privateKey;
+        hdKey = this.hdKey;
+        if (hdKey != null)
+            return hdKey;
+        hdKey = neutered(privateKey);
+        this.hdKey = hdKey;
+        this.privateKey = null;
+        return hdKey;
+    }
+
+    private static HdKey neutered(final HdKey privateKey) {
+        return new HdKey.Builder()
+                .network(privateKey.getNetwork())
+                .neutered(true)
+                .key(privateKey.getPoint())
+                .parentFingerprint(privateKey.getParentFingerprint())
+                .depth(privateKey.depth())
+                .childNumber(privateKey.getChildNumber())
+                .chainCode(privateKey.getChainCode())
+                .build();
+    }
+
+    /**
+     * The key to read the fields the public and private keys share from, without calculating the public key.
+     */
+    private HdKey sharedFields() {
+        final HdKey hdKey = this.hdKey;
+        if (hdKey != null)
+            return hdKey;
+        final HdKey privateKey = this.privateKey;
+        return privateKey != null ? privateKey : this.hdKey;
+    }
+
     @Override
     public Network network() {
-        return hdKey.getNetwork();
+        return sharedFields().getNetwork();
     }
 
     @Override
     public int depth() {
-        return hdKey.depth();
+        return sharedFields().depth();
     }
 
     @Override
     public int childNumber() {
-        return hdKey.getChildNumber();
+        return sharedFields().getChildNumber();
     }
 }
\ No newline at end of file
@@ -25,8 +25,8 @@ import io.github.novacrypto.bip32.networks.DefaultNetworks;
 
 import java.util.Arrays;
 
-import static io.github.novacrypto.base58.Base58.base58Decode;
 import static io.github.novacrypto.bip32.Checksum.confirmExtendedKeyChecksum;
+import static io.github.novacrypto.bip32.Serializer.SERIALIZED_LENGTH;
 
 final class ExtendedPublicKeyDeserializer implements Deserializer<ExtendedPublicKey> {
 
@@ -40,7 +40,8 @@ final class ExtendedPublicKeyDeserializer implements Deserializer<ExtendedPublic
 
     @Override
     public ExtendedPublicKey deserialize(final CharSequence extendedBase58Key) {
-        final byte[] extendedKeyData = base58Decode(extendedBase58Key);
+        final byte[] extendedKeyData = new byte[SERIALIZED_LENGTH];
+        ExtendedKeyBase58.forThisThread().decode(extendedBase58Key, extendedKeyData, 0);
         try {
             return deserialize(extendedKeyData);
         } finally {
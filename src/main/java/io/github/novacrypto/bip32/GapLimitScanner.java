@@ -0,0 +1,224 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Discovers the used addresses of an account by BIP44 gap-limit scanning.
+ * <p>
+ * The receive (0) and change (1) chains of the account are derived in batches with
+ * {@link ExtendedPublicKey#deriveRange(int, int)}, and each child's P2PKH address is checked for use. A chain is
+ * finished once gap limit consecutive unused addresses follow the last used one, and no batch derives past that
+ * point, so the work done is proportional to the account's actual usage.
+ */
+public final class GapLimitScanner {
+
+    /**
+     * BIP44 gap limit.
+     */
+    public static final int DEFAULT_GAP_LIMIT = 20;
+
+    public static final int RECEIVE_CHAIN = 0;
+    public static final int CHANGE_CHAIN = 1;
+
+    /**
+     * Answers whether an address has been used.
+     */
+    public interface AddressUsage {
+
+        boolean isUsed(String address);
+    }
+
+    private static final long FIRST_HARDENED_INDEX = 0x80000000L;
+
+    private final AddressUsage usage;
+    private final int gapLimit;
+    private final int batchSize;
+
+    private GapLimitScanner(final Builder builder) {
+        if (builder.usage == null)
+            throw new IllegalStateException("An address usage check is required");
+        usage = builder.usage;
+        gapLimit = builder.gapLimit;
+        batchSize = builder.batchSize == 0 ? builder.gapLimit : builder.batchSize;
+    }
+
+    /**
+     * Scans the receive and change chains of an account.
+     *
+     * @param account The account's public key, e.g. m/44'/0'/0' neutered.
+     * @return The used children of both chains.
+     */
+    public Result scan(final ExtendedPublicKey account) {
+        return new Result(
+                scanChain(account.cKDpub(RECEIVE_CHAIN)),
+                scanChain(account.cKDpub(CHANGE_CHAIN)));
+    }
+
+    /**
+     * Scans a single chain.
+     *
+     * @param chain The chain's public key, e.g. m/44'/0'/0'/0 neutered.
+     * @return The used children of the chain.
+     */
+    public Chain scanChain(final ExtendedPublicKey chain) {
+        int[] used = new int[4];
+        int usedCount = 0;
+        long next = 0;
+        long end = gapLimit;
+        while (next < end) {
+            final int count = (int) Math.min(batchSize, end - next);
+            final ExtendedPublicKey[] children = chain.deriveRange((int) next, count);
+            for (int i = 0; i < count; i++) {
+                if (usage.isUsed(children[i].p2pkhAddress())) {
+                    if (usedCount == used.length)
+                        used = Arrays.copyOf(used, usedCount * 2);
+                    used[usedCount++] = (int) (next + i);
+                    end = Math.min(next + i + 1 + gapLimit, FIRST_HARDENED_INDEX);
+                }
+            }
+            next += count;
+        }
+        return new Chain(Arrays.copyOf(used, usedCount), (int) next);
+    }
+
+    /**
+     * The used children of an account's receive and change chains.
+     */
+    public static final class Result {
+
+        private final Chain receive;
+        private final Chain change;
+
+        Result(final Chain receive, final Chain change) {
+            this.receive = receive;
+            this.change = change;
+        }
+
+        public Chain receive() {
+            return receive;
+        }
+
+        public Chain change() {
+            return change;
+        }
+    }
+
+    /**
+     * The used children of one chain.
+     */
+    public static final class Chain {
+
+        private final int[] usedIndexes;
+        private final int derivedCount;
+
+        Chain(final int[] usedIndexes, final int derivedCount) {
+            this.usedIndexes = usedIndexes;
+            this.derivedCount = derivedCount;
+        }
+
+        /**
+         * @return The indexes of the used children, in ascending order.
+         */
+        public int[] usedIndexes() {
+            return Arrays.copyOf(usedIndexes, usedIndexes.length);
+        }
+
+        /**
+         * @return The index of the last used child, or -1 if none are used.
+         */
+        public int lastUsedIndex() {
+            return usedIndexes.length == 0 ? -1 : usedIndexes[usedIndexes.length - 1];
+        }
+
+        /**
+         * @return The index of the first child after the last used one.
+         */
+        public int nextUnusedIndex() {
+            return lastUsedIndex() + 1;
+        }
+
+        /**
+         * @return The number of children that were derived and checked.
+         */
+        public int derivedCount() {
+            return derivedCount;
+        }
+    }
+
+    public static final class Builder {
+
+        private AddressUsage usage;
+        private int gapLimit = DEFAULT_GAP_LIMIT;
+        private int batchSize;
+
+        /**
+         * @param usage Check for whether an address has been used.
+         * @return this builder
+         */
+        public Builder usage(final AddressUsage usage) {
+            this.usage = usage;
+            return this;
+        }
+
+        /**
+         * @param usedAddresses The addresses that are known to be used.
+         * @return this builder
+         */
+        public Builder usedAddresses(final Set<String> usedAddresses) {
+            return usage(new AddressUsage() {
+                @Override
+                public boolean isUsed(final String address) {
+                    return usedAddresses.contains(address);
+                }
+            });
+        }
+
+        /**
+         * @param gapLimit Consecutive unused addresses that end a chain, defaults to 20.
+         * @return this builder
+         */
+        public Builder gapLimit(final int gapLimit) {
+            if (gapLimit < 1)
+                throw new IllegalArgumentException("Gap limit must be at least 1");
+            this.gapLimit = gapLimit;
+            return this;
+        }
+
+        /**
+         * @param batchSize Most children derived at once, defaults to the gap limit.
+         * @return this builder
+         */
+        public Builder batchSize(final int batchSize) {
+            if (batchSize < 1)
+                throw new IllegalArgumentException("Batch size must be at least 1");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public GapLimitScanner build() {
+            return new GapLimitScanner(this);
+        }
+    }
+}
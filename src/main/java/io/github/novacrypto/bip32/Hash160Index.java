@@ -0,0 +1,245 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.github.novacrypto.hashing.Hash160.hash160into;
+
+/**
+ * Finds which watched account, chain and child index owns a public key hash (hash160).
+ * <p>
+ * Children are added with {@link #extend(int, ExtendedPublicKey, int, int)}, which derives only the children not
+ * already watched, so the index can grow incrementally as more of each chain is used. Hashes are kept in flat arrays
+ * with an open addressing table over them, so lookups are constant time and do not allocate on a miss.
+ * <p>
+ * All methods are synchronized.
+ */
+public final class Hash160Index {
+
+    private static final int HASH_LENGTH = 20;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<Long, WatchedChain> chains = new HashMap<>();
+
+    private byte[] hashes = new byte[INITIAL_CAPACITY * HASH_LENGTH];
+    private int[] keyIds = new int[INITIAL_CAPACITY];
+    private int[] chainNumbers = new int[INITIAL_CAPACITY];
+    private int[] childIndexes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Entry number + 1 for each slot, 0 marks an empty slot. Kept at most half full.
+     */
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+    /**
+     * Makes sure the first watchedCount children of the account's chain are in the index.
+     *
+     * @param keyId        Caller's identifier for the account, returned by lookups.
+     * @param account      The account's public key.
+     * @param chain        The chain, e.g. 0 for receive and 1 for change.
+     * @param watchedCount The number of children of the chain to watch.
+     * @return The number of children that were added.
+     */
+    public synchronized int extend(final int keyId, final ExtendedPublicKey account, final int chain,
+                                   final int watchedCount) {
+        final Long chainKey = chainKey(keyId, chain);
+        WatchedChain watched = chains.get(chainKey);
+        if (watched == null) {
+            watched = new WatchedChain(account, account.cKDpub(chain));
+            chains.put(chainKey, watched);
+        } else if (!watched.account.hdKey().derivesSameChildrenAs(account.hdKey())) {
+            throw new IllegalArgumentException("Key id " + keyId + " is already used for a different account");
+        }
+        final int from = watched.count;
+        if (watchedCount <= from)
+            return 0;
+        final ExtendedPublicKey[] children = watched.chainKey.deriveRange(from, watchedCount - from);
+        for (int i = 0; i < children.length; i++)
+            add(children[i].hdKey().getKey(), keyId, chain, from + i);
+        watched.count = watchedCount;
+        return children.length;
+    }
+
+    /**
+     * @param keyId The caller's identifier for the account.
+     * @param chain The chain.
+     * @return The number of children of that chain that are watched.
+     */
+    public synchronized int watchedCount(final int keyId, final int chain) {
+        final WatchedChain watched = chains.get(chainKey(keyId, chain));
+        return watched == null ? 0 : watched.count;
+    }
+
+    /**
+     * @return The number of public key hashes in the index.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param hash160 A 20 byte public key hash.
+     * @return The owner of the hash, or null if it is not watched.
+     */
+    public Owner find(final byte[] hash160) {
+        if (hash160.length != HASH_LENGTH)
+            throw new IllegalArgumentException("Hash160 must be 20 bytes");
+        return find(hash160, 0);
+    }
+
+    /**
+     * Looks up a public key hash in place, for example within an output script.
+     *
+     * @param source The bytes containing the hash.
+     * @param offset The position of the 20 byte hash within source.
+     * @return The owner of the hash, or null if it is not watched.
+     */
+    public synchronized Owner find(final byte[] source, final int offset) {
+        if (offset < 0 || offset > source.length - HASH_LENGTH)
+            throw new IndexOutOfBoundsException("Not enough bytes for a hash160 at offset " + offset);
+        final int mask = slots.length - 1;
+        for (int slot = hashCode(source, offset) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            final int entry = slots[slot] - 1;
+            if (hashEquals(entry, source, offset))
+                return new Owner(keyIds[entry], chainNumbers[entry], childIndexes[entry]);
+        }
+        return null;
+    }
+
+    private void add(final byte[] publicKey, final int keyId, final int chain, final int index) {
+        if (size == keyIds.length)
+            grow();
+        hash160into(hashes, size * HASH_LENGTH, publicKey);
+        final int mask = slots.length - 1;
+        int slot = hashCode(hashes, size * HASH_LENGTH) & mask;
+        while (slots[slot] != 0) {
+            if (hashEquals(slots[slot] - 1, hashes, size * HASH_LENGTH))
+                return;
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = size + 1;
+        keyIds[size] = keyId;
+        chainNumbers[size] = chain;
+        childIndexes[size] = index;
+        size++;
+    }
+
+    private void grow() {
+        final int capacity = keyIds.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity * HASH_LENGTH);
+        keyIds = Arrays.copyOf(keyIds, capacity);
+        chainNumbers = Arrays.copyOf(chainNumbers, capacity);
+        childIndexes = Arrays.copyOf(childIndexes, capacity);
+        slots = new int[capacity * 2];
+        final int mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hashCode(hashes, entry * HASH_LENGTH) & mask;
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private boolean hashEquals(final int entry, final byte[] source, final int offset) {
+        final int start = entry * HASH_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++)
+            if (hashes[start + i] != source[offset + i])
+                return false;
+        return true;
+    }
+
+    private static long chainKey(final int keyId, final int chain) {
+        return ((long) keyId << 32) | (chain & 0xffffffffL);
+    }
+
+    /**
+     * The hash is already uniformly distributed, so its first four bytes are enough.
+     */
+    private static int hashCode(final byte[] source, final int offset) {
+        return (source[offset] & 0xff) << 24 |
+                (source[offset + 1] & 0xff) << 16 |
+                (source[offset + 2] & 0xff) << 8 |
+                (source[offset + 3] & 0xff);
+    }
+
+    private static final class WatchedChain {
+
+        private final ExtendedPublicKey account;
+        private final ExtendedPublicKey chainKey;
+        private int count;
+
+        WatchedChain(final ExtendedPublicKey account, final ExtendedPublicKey chainKey) {
+            this.account = account;
+            this.chainKey = chainKey;
+        }
+    }
+
+    /**
+     * The account, chain and child index that a public key hash belongs to.
+     */
+    public static final class Owner {
+
+        private final int keyId;
+        private final int chain;
+        private final int index;
+
+        Owner(final int keyId, final int chain, final int index) {
+            this.keyId = keyId;
+            this.chain = chain;
+            this.index = index;
+        }
+
+        public int keyId() {
+            return keyId;
+        }
+
+        public int chain() {
+            return chain;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Owner owner = (Owner) o;
+            return keyId == owner.keyId && chain == owner.chain && index == owner.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * keyId + chain) + index;
+        }
+
+        @Override
+        public String toString() {
+            return "Owner{keyId=" + keyId + ", chain=" + chain + ", index=" + index + "}";
+        }
+    }
+}
@@ -21,12 +21,24 @@
 
 package io.github.novacrypto.bip32;
 
-import static io.github.novacrypto.bip32.BigIntegerUtils.parse256;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static io.github.novacrypto.bip32.Secp256k1SC.decode;
 import static io.github.novacrypto.bip32.Secp256k1SC.pointSerP_gMultiply;
+import static io.github.novacrypto.bip32.Serializer.SERIALIZED_LENGTH;
 import static io.github.novacrypto.hashing.Hash160.hash160;
 
 final class HdKey {
 
+    private static final ThreadLocal<byte[]> SERIALIZE_BUFFERS = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[SERIALIZED_LENGTH];
+        }
+    };
+
     private final boolean neutered;
     private final Network network;
     private final byte[] chainCode;
@@ -36,6 +48,11 @@ final class HdKey {
     private final int childNumber;
     private final int depth;
 
+    private volatile byte[] point;
+    private volatile Object keyPoint;
+    private volatile boolean fingerprintCalculated;
+    private int fingerprint;
+
     private HdKey(final Builder builder) {
         neutered = builder.neutered;
         network = builder.network;
@@ -44,6 +61,8 @@ final class HdKey {
         childNumber = builder.childNumber;
         chainCode = builder.chainCode;
         depth = builder.depth;
+        point = builder.point;
+        keyPoint = builder.keyPoint;
         serializer = new Serializer.Builder()
                 .network(builder.network)
                 .neutered(builder.neutered)
@@ -57,8 +76,72 @@ final class HdKey {
         return serializer.serialize(key, chainCode);
     }
 
+    void serialize(final byte[] target, final int offset) {
+        serializer.serialize(key, chainCode, target, offset);
+    }
+
+    void serialize(final ByteBuffer target) {
+        if (target.remaining() < SERIALIZED_LENGTH)
+            throw new BufferOverflowException();
+        if (target.hasArray()) {
+            serialize(target.array(), target.arrayOffset() + target.position());
+            target.position(target.position() + SERIALIZED_LENGTH);
+            return;
+        }
+        final byte[] buffer = SERIALIZE_BUFFERS.get();
+        try {
+            serialize(buffer, 0);
+            target.put(buffer);
+        } finally {
+            Arrays.fill(buffer, (byte) 0);
+        }
+    }
+
+    void extendedBase58(final StringBuilder target) {
+        final byte[] buffer = SERIALIZE_BUFFERS.get();
+        try {
+            serialize(buffer, 0);
+            ExtendedKeyBase58.forThisThread().encode(buffer, 0, target);
+        } finally {
+            Arrays.fill(buffer, (byte) 0);
+        }
+    }
+
+    /**
+     * The serialized public point of this private key. Calculated once on first use and then shared, so callers must
+     * not modify the returned array.
+     *
+     * @return serP(point(k))
+     */
     byte[] getPoint() {
-        return pointSerP_gMultiply(parse256(key));
+        byte[] point = this.point;
+        if (point == null) {
+            point = pointSerP_gMultiply(key);
+            this.point = point;
+        }
+        return point;
+    }
+
+    /**
+     * @return true iff {@link #getPoint()} has already been calculated.
+     */
+    boolean hasPoint() {
+        return point != null;
+    }
+
+    /**
+     * The key of this neutered key as a normalized point on the curve. Either supplied by the derivation that produced
+     * this key, or decoded once on first use.
+     *
+     * @return point(K)
+     */
+    Object getKeyPoint() {
+        Object keyPoint = this.keyPoint;
+        if (keyPoint == null) {
+            keyPoint = decode(key);
+            this.keyPoint = keyPoint;
+        }
+        return keyPoint;
     }
 
     byte[] getKey() {
@@ -70,12 +153,16 @@ final class HdKey {
     }
 
     int calculateFingerPrint() {
-        final byte[] point = getPublicBuffer();
-        final byte[] o = hash160(point);
-        return ((o[0] & 0xFF) << 24) |
-                ((o[1] & 0xFF) << 16) |
-                ((o[2] & 0xFF) << 8) |
-                (o[3] & 0xFF);
+        if (!fingerprintCalculated) {
+            final byte[] point = getPublicBuffer();
+            final byte[] o = hash160(point);
+            fingerprint = ((o[0] & 0xFF) << 24) |
+                    ((o[1] & 0xFF) << 16) |
+                    ((o[2] & 0xFF) << 8) |
+                    (o[3] & 0xFF);
+            fingerprintCalculated = true;
+        }
+        return fingerprint;
     }
 
     private byte[] getPublicBuffer() {
@@ -98,6 +185,21 @@ final class HdKey {
         return childNumber;
     }
 
+    /**
+     * Whether the other key would derive the same children as this key.
+     */
+    boolean derivesSameChildrenAs(final HdKey other) {
+        return neutered == other.neutered &&
+                depth == other.depth &&
+                network == other.network &&
+                Arrays.equals(key, other.key) &&
+                Arrays.equals(chainCode, other.chainCode);
+    }
+
+    int derivationHashCode() {
+        return 31 * Arrays.hashCode(key) + Arrays.hashCode(chainCode);
+    }
+
     Builder toBuilder() {
         return new Builder()
                 .neutered(neutered)
@@ -105,7 +207,9 @@ final class HdKey {
                 .key(key)
                 .depth(depth)
                 .childNumber(childNumber)
-                .parentFingerprint(parentFingerprint);
+                .parentFingerprint(parentFingerprint)
+                .point(point)
+                .keyPoint(keyPoint);
     }
 
     static class Builder {
@@ -117,6 +221,8 @@ final class HdKey {
         private int depth;
         private int childNumber;
         private int parentFingerprint;
+        private byte[] point;
+        private Object keyPoint;
 
         Builder network(final Network network) {
             this.network = network;
@@ -153,6 +259,22 @@ final class HdKey {
             return this;
         }
 
+        /**
+         * Optional, the already known serialized public point of a private key.
+         */
+        Builder point(final byte[] point) {
+            this.point = point;
+            return this;
+        }
+
+        /**
+         * Optional, the already known normalized point of a neutered key.
+         */
+        Builder keyPoint(final Object keyPoint) {
+            this.keyPoint = keyPoint;
+            return this;
+        }
+
         HdKey build() {
             return new HdKey(this);
         }
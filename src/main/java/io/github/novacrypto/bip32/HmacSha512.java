@@ -21,39 +21,18 @@
 
 package io.github.novacrypto.bip32;
 
-import io.github.novacrypto.toruntime.CheckedExceptionToRuntime;
-
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
-import static io.github.novacrypto.toruntime.CheckedExceptionToRuntime.toRuntime;
-
 final class HmacSha512 {
-    private static final String HMAC_SHA512 = "HmacSHA512";
 
     static byte[] hmacSha512(final byte[] byteKey, final byte[] seed) {
-        return initialize(byteKey)
-                .doFinal(seed);
-    }
-
-    private static Mac initialize(final byte[] byteKey) {
-        final Mac hmacSha512 = getInstance(HMAC_SHA512);
-        final SecretKeySpec keySpec = new SecretKeySpec(byteKey, HMAC_SHA512);
-        toRuntime(new CheckedExceptionToRuntime.Action() {
-            @Override
-            public void run() throws Exception {
-                hmacSha512.init(keySpec);
-            }
-        });
-        return hmacSha512;
+        final byte[] I = new byte[64];
+        HmacSha512Engine.forThisThread().hmacSha512(byteKey, seed, I);
+        return I;
     }
 
-    private static Mac getInstance(final String HMAC_SHA256) {
-        return toRuntime(new CheckedExceptionToRuntime.Func<Mac>() {
-            @Override
-            public Mac run() throws Exception {
-                return Mac.getInstance(HMAC_SHA256);
-            }
-        });
+    /**
+     * Calculates HMAC-SHA512(byteKey, seed), writing IL, the first 32 bytes, to il and IR, the last 32 bytes, to ir.
+     */
+    static void hmacSha512(final byte[] byteKey, final byte[] seed, final byte[] il, final byte[] ir) {
+        HmacSha512Engine.forThisThread().hmacSha512(byteKey, seed, il, ir);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import java.util.Arrays;
+
+import static io.github.novacrypto.bip32.Sha512.BLOCK_LENGTH;
+import static io.github.novacrypto.bip32.Sha512.DIGEST_LENGTH;
+import static io.github.novacrypto.bip32.Sha512.SCHEDULE_LENGTH;
+import static io.github.novacrypto.bip32.Sha512.STATE_LENGTH;
+import static io.github.novacrypto.bip32.Sha512.writeLong;
+
+/**
+ * A reusable HMAC-SHA512.
+ * <p>
+ * The engine keeps the SHA-512 states after the inner and outer padded key blocks and only recalculates them when it
+ * is given a different key, so running the messages for many children of one parent against it hashes two blocks
+ * per message rather than four. Hashing works on the engine's own long state and scratch, and the result is written
+ * straight into the caller's arrays, so a call allocates nothing. The message, which may hold a private key, and the
+ * result are wiped from the scratch before each call returns.
+ * <p>
+ * Not thread safe, use {@link #forThisThread()} to get the calling thread's engine.
+ */
+final class HmacSha512Engine {
+
+    private static final byte INNER_PAD = 0x36;
+    private static final byte OUTER_PAD = 0x5c;
+
+    private static final ThreadLocal<HmacSha512Engine> ENGINES = new ThreadLocal<HmacSha512Engine>() {
+        @Override
+        protected HmacSha512Engine initialValue() {
+            return new HmacSha512Engine();
+        }
+    };
+
+    static HmacSha512Engine forThisThread() {
+        return ENGINES.get();
+    }
+
+    private final long[] innerKeyed = new long[STATE_LENGTH];
+    private final long[] outerKeyed = new long[STATE_LENGTH];
+    private final long[] state = new long[STATE_LENGTH];
+    private final long[] w = new long[SCHEDULE_LENGTH];
+    private final byte[] block = new byte[BLOCK_LENGTH];
+    private byte[] key;
+
+    HmacSha512Engine() {
+    }
+
+    /**
+     * Calculates HMAC-SHA512(key, message) into the first 64 bytes of target.
+     */
+    void hmacSha512(final byte[] key, final byte[] message, final byte[] target) {
+        hash(key, message);
+        for (int i = 0; i < STATE_LENGTH; i++)
+            writeLong(state[i], target, i << 3);
+        wipe();
+    }
+
+    /**
+     * Calculates HMAC-SHA512(key, message), writing the first 32 bytes, IL, to il and the last 32 bytes, IR, to ir.
+     */
+    void hmacSha512(final byte[] key, final byte[] message, final byte[] il, final byte[] ir) {
+        hash(key, message);
+        for (int i = 0; i < STATE_LENGTH / 2; i++) {
+            writeLong(state[i], il, i << 3);
+            writeLong(state[i + STATE_LENGTH / 2], ir, i << 3);
+        }
+        wipe();
+    }
+
+    private void hash(final byte[] key, final byte[] message) {
+        keyWith(key);
+
+        System.arraycopy(innerKeyed, 0, state, 0, STATE_LENGTH);
+        Sha512.finish(state, BLOCK_LENGTH, message, block, w);
+
+        System.arraycopy(state, 0, w, 0, STATE_LENGTH);
+        w[8] = 0x8000000000000000L;
+        Arrays.fill(w, 9, 15, 0L);
+        w[15] = (BLOCK_LENGTH + DIGEST_LENGTH) << 3;
+        System.arraycopy(outerKeyed, 0, state, 0, STATE_LENGTH);
+        Sha512.compress(state, w);
+    }
+
+    private void wipe() {
+        Arrays.fill(block, (byte) 0);
+        Arrays.fill(w, 0L);
+        Arrays.fill(state, 0L);
+    }
+
+    private void keyWith(final byte[] key) {
+        if (Arrays.equals(this.key, key))
+            return;
+        final byte[] keyCopy = this.key != null && this.key.length == key.length ? this.key : new byte[key.length];
+        this.key = null;
+        final byte[] blockKey = key.length > BLOCK_LENGTH ? Sha512.digest(key) : key;
+        keyedState(blockKey, INNER_PAD, innerKeyed);
+        keyedState(blockKey, OUTER_PAD, outerKeyed);
+        Arrays.fill(block, (byte) 0);
+        System.arraycopy(key, 0, keyCopy, 0, key.length);
+        this.key = keyCopy;
+    }
+
+    private void keyedState(final byte[] blockKey, final byte pad, final long[] keyed) {
+        for (int i = 0; i < BLOCK_LENGTH; i++)
+            block[i] = (byte) ((i < blockKey.length ? blockKey[i] : 0) ^ pad);
+        Sha512.initialize(keyed);
+        Sha512.compress(keyed, block, 0, w);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+/**
+ * Arithmetic on 32 byte big-endian scalars modulo n, the order of secp256k1, on the bytes directly, without
+ * BigInteger, and without branches or early exits that depend on the values, as these are private keys.
+ */
+final class Scalars {
+
+    private static final byte[] N = {
+            -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -2,
+            -70, -82, -36, -26, -81, 72, -96, 59, -65, -46, 94, -116, -48, 54, 65, 65
+    };
+
+    Scalars() {
+    }
+
+    /**
+     * @param scalar 32 byte big-endian scalar.
+     * @return true iff the scalar is less than n.
+     */
+    static boolean lessThanN(final byte[] scalar) {
+        return borrowSubtractingN(scalar) == 1;
+    }
+
+    static boolean isZero(final byte[] scalar) {
+        int bits = 0;
+        for (int i = 0; i < 32; i++)
+            bits |= scalar[i];
+        return bits == 0;
+    }
+
+    /**
+     * Sets target to (a + b) mod n.
+     *
+     * @param a      32 byte scalar less than n.
+     * @param b      32 byte scalar less than n.
+     * @param target 32 byte array for the result, may be a or b.
+     */
+    static void addModN(final byte[] a, final byte[] b, final byte[] target) {
+        int carry = 0;
+        for (int i = 31; i >= 0; i--) {
+            final int sum = (a[i] & 0xff) + (b[i] & 0xff) + carry;
+            target[i] = (byte) sum;
+            carry = sum >> 8;
+        }
+        // subtracts n when the sum is at least n and 0 otherwise, the same work either way
+        final int subtractN = -(carry | (borrowSubtractingN(target) ^ 1));
+        int borrow = 0;
+        for (int i = 31; i >= 0; i--) {
+            final int difference = (target[i] & 0xff) - (N[i] & subtractN & 0xff) - borrow;
+            target[i] = (byte) difference;
+            borrow = difference >>> 31;
+        }
+    }
+
+    /**
+     * @return 1 if scalar is less than n, 0 otherwise, looking at every byte.
+     */
+    private static int borrowSubtractingN(final byte[] scalar) {
+        int borrow = 0;
+        for (int i = 31; i >= 0; i--)
+            borrow = ((scalar[i] & 0xff) - (N[i] & 0xff) - borrow) >>> 31;
+        return borrow;
+    }
+}
@@ -21,38 +21,91 @@
 
 package io.github.novacrypto.bip32;
 
+import io.github.novacrypto.bip32.curve.Secp256k1Backend;
+import io.github.novacrypto.bip32.curve.PureJavaBackend;
 import org.spongycastle.asn1.x9.X9ECParameters;
 import org.spongycastle.crypto.ec.CustomNamedCurves;
-import org.spongycastle.math.ec.ECPoint;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.ServiceLoader;
 
+/**
+ * Elliptic curve operations on secp256k1, delegated to the selected {@link Secp256k1Backend}. Points are the
+ * backend's own objects.
+ */
 final class Secp256k1SC {
 
     static final X9ECParameters CURVE = CustomNamedCurves.getByName("secp256k1");
 
+    private static final Secp256k1Backend<Object> BACKEND = loadBackend();
+
+    /**
+     * Whether private keys' public points are calculated in constant time, see
+     * {@link Secp256k1Backend#CONSTANT_TIME_PROPERTY}. {@link #multiplyConstantTime} is constant time either way.
+     */
+    private static final boolean CONSTANT_TIME = Boolean.getBoolean(Secp256k1Backend.CONSTANT_TIME_PROPERTY);
+
     static BigInteger n() {
         return CURVE.getN();
     }
 
-    static byte[] pointSerP(final ECPoint point) {
-        return point.getEncoded(true);
+    static byte[] pointSerP(final Object point) {
+        return BACKEND.encode(point);
+    }
+
+    static byte[] pointSerP_gMultiply(final byte[] p) {
+        return pointSerP(CONSTANT_TIME ? BACKEND.gMultiplyConstantTime(p) : BACKEND.gMultiply(p));
+    }
+
+    static Object gMultiplyAndAddPoint(final byte[] p, final byte[] toAdd) {
+        return gMultiplyAndAddPoint(p, decode(toAdd));
+    }
+
+    static Object gMultiplyAndAddPoint(final byte[] p, final Object toAdd) {
+        return BACKEND.gMultiplyAndAdd(p, toAdd);
+    }
+
+    static Object multiplyConstantTime(final Object point, final byte[] scalar) {
+        return BACKEND.multiplyConstantTime(point, scalar);
+    }
+
+    static boolean isInfinity(final Object point) {
+        return BACKEND.isInfinity(point);
     }
 
-    static byte[] pointSerP_gMultiply(final BigInteger p) {
-        return pointSerP(gMultiply(p));
+    /**
+     * Prepares all the points for serialization at once, which for the default backend means normalizing them with
+     * one field inversion (Montgomery's trick). Null elements are skipped.
+     *
+     * @param points The points, which may be replaced with equivalent points.
+     */
+    static void normalizeAll(final Object[] points) {
+        BACKEND.normalizeAll(Arrays.asList(points));
     }
 
-    static ECPoint gMultiplyAndAddPoint(final BigInteger p, final byte[] toAdd) {
-        return gMultiply(p).add(decode(toAdd));
+    static Object normalize(final Object point) {
+        final Object[] points = {point};
+        normalizeAll(points);
+        return points[0];
     }
 
-    private static ECPoint decode(final byte[] toAdd) {
-        return CURVE.getCurve().decodePoint(toAdd);
+    static Object decode(final byte[] toAdd) {
+        return BACKEND.decode(toAdd);
     }
 
-    private static ECPoint gMultiply(BigInteger p) {
-        return CURVE.getG()
-                .multiply(p);
+    @SuppressWarnings("unchecked")
+    private static Secp256k1Backend<Object> loadBackend() {
+        final String className = System.getProperty(Secp256k1Backend.BACKEND_PROPERTY);
+        if (className != null) {
+            try {
+                return (Secp256k1Backend<Object>) Class.forName(className).newInstance();
+            } catch (final ReflectiveOperationException | ClassCastException e) {
+                throw new IllegalStateException("Cannot use " + className + " as the secp256k1 backend", e);
+            }
+        }
+        for (final Secp256k1Backend<?> backend : ServiceLoader.load(Secp256k1Backend.class))
+            return (Secp256k1Backend<Object>) backend;
+        return (Secp256k1Backend<Object>) (Secp256k1Backend<?>) new PureJavaBackend();
     }
-}
\ No newline at end of file
+}
@@ -21,11 +21,12 @@
 
 package io.github.novacrypto.bip32;
 
-import static io.github.novacrypto.bip32.Checksum.checksum;
-import static io.github.novacrypto.hashing.Sha256.sha256Twice;
+import static io.github.novacrypto.bip32.Checksum.writeChecksum;
 
 final class Serializer {
 
+    static final int SERIALIZED_LENGTH = 82;
+
     private final Network network;
     private final boolean neutered;
     private final int depth;
@@ -41,6 +42,20 @@ final class Serializer {
     }
 
     byte[] serialize(final byte[] key, final byte[] chainCode) {
+        final byte[] privateKey = new byte[SERIALIZED_LENGTH];
+        serialize(key, chainCode, privateKey, 0);
+        return privateKey;
+    }
+
+    /**
+     * Serializes into target without allocating.
+     *
+     * @param key       The key.
+     * @param chainCode The chain code.
+     * @param target    The array to serialize into.
+     * @param offset    Where in target to write the first of the {@link #SERIALIZED_LENGTH} bytes.
+     */
+    void serialize(final byte[] key, final byte[] chainCode, final byte[] target, final int offset) {
         if (key == null)
             throw new IllegalArgumentException("Key is null");
         if (chainCode == null)
@@ -54,9 +69,10 @@ final class Serializer {
             if (key.length != 32)
                 throw new IllegalArgumentException("Key must be 32 bytes for non neutered serialization");
         }
+        if (offset < 0 || offset > target.length - SERIALIZED_LENGTH)
+            throw new IndexOutOfBoundsException("Not enough room in target for " + SERIALIZED_LENGTH + " bytes");
 
-        final byte[] privateKey = new byte[82];
-        final ByteArrayWriter writer = new ByteArrayWriter(privateKey);
+        final ByteArrayWriter writer = new ByteArrayWriter(target, offset);
         writer.concatSer32(getVersion());
         writer.concat((byte) depth);
         writer.concatSer32(fingerprint);
@@ -68,8 +84,7 @@ final class Serializer {
         } else {
             writer.concat(key);
         }
-        writer.concat(checksum(privateKey), 4);
-        return privateKey;
+        writeChecksum(target, offset);
     }
 
     private int getVersion() {
@@ -0,0 +1,239 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import java.util.Arrays;
+
+/**
+ * SHA-512 (FIPS 180-4) over caller provided state and scratch, so that hashing allocates nothing.
+ * <p>
+ * A hash is eight longs of state, a message schedule of {@link #SCHEDULE_LENGTH} longs and a {@link #BLOCK_LENGTH}
+ * byte block for the padded tail, all owned by the caller.
+ */
+final class Sha512 {
+
+    static final int BLOCK_LENGTH = 128;
+    static final int DIGEST_LENGTH = 64;
+    static final int STATE_LENGTH = 8;
+    static final int SCHEDULE_LENGTH = 80;
+
+    private static final long[] INITIAL_STATE = {
+            0x6A09E667F3BCC908L, 0xBB67AE8584CAA73BL,
+            0x3C6EF372FE94F82BL, 0xA54FF53A5F1D36F1L,
+            0x510E527FADE682D1L, 0x9B05688C2B3E6C1FL,
+            0x1F83D9ABFB41BD6BL, 0x5BE0CD19137E2179L
+    };
+
+    private static final long[] K = {
+            0x428A2F98D728AE22L, 0x7137449123EF65CDL, 0xB5C0FBCFEC4D3B2FL,
+            0xE9B5DBA58189DBBCL, 0x3956C25BF348B538L, 0x59F111F1B605D019L,
+            0x923F82A4AF194F9BL, 0xAB1C5ED5DA6D8118L, 0xD807AA98A3030242L,
+            0x12835B0145706FBEL, 0x243185BE4EE4B28CL, 0x550C7DC3D5FFB4E2L,
+            0x72BE5D74F27B896FL, 0x80DEB1FE3B1696B1L, 0x9BDC06A725C71235L,
+            0xC19BF174CF692694L, 0xE49B69C19EF14AD2L, 0xEFBE4786384F25E3L,
+            0x0FC19DC68B8CD5B5L, 0x240CA1CC77AC9C65L, 0x2DE92C6F592B0275L,
+            0x4A7484AA6EA6E483L, 0x5CB0A9DCBD41FBD4L, 0x76F988DA831153B5L,
+            0x983E5152EE66DFABL, 0xA831C66D2DB43210L, 0xB00327C898FB213FL,
+            0xBF597FC7BEEF0EE4L, 0xC6E00BF33DA88FC2L, 0xD5A79147930AA725L,
+            0x06CA6351E003826FL, 0x142929670A0E6E70L, 0x27B70A8546D22FFCL,
+            0x2E1B21385C26C926L, 0x4D2C6DFC5AC42AEDL, 0x53380D139D95B3DFL,
+            0x650A73548BAF63DEL, 0x766A0ABB3C77B2A8L, 0x81C2C92E47EDAEE6L,
+            0x92722C851482353BL, 0xA2BFE8A14CF10364L, 0xA81A664BBC423001L,
+            0xC24B8B70D0F89791L, 0xC76C51A30654BE30L, 0xD192E819D6EF5218L,
+            0xD69906245565A910L, 0xF40E35855771202AL, 0x106AA07032BBD1B8L,
+            0x19A4C116B8D2D0C8L, 0x1E376C085141AB53L, 0x2748774CDF8EEB99L,
+            0x34B0BCB5E19B48A8L, 0x391C0CB3C5C95A63L, 0x4ED8AA4AE3418ACBL,
+            0x5B9CCA4F7763E373L, 0x682E6FF3D6B2B8A3L, 0x748F82EE5DEFB2FCL,
+            0x78A5636F43172F60L, 0x84C87814A1F0AB72L, 0x8CC702081A6439ECL,
+            0x90BEFFFA23631E28L, 0xA4506CEBDE82BDE9L, 0xBEF9A3F7B2C67915L,
+            0xC67178F2E372532BL, 0xCA273ECEEA26619CL, 0xD186B8C721C0C207L,
+            0xEADA7DD6CDE0EB1EL, 0xF57D4F7FEE6ED178L, 0x06F067AA72176FBAL,
+            0x0A637DC5A2C898A6L, 0x113F9804BEF90DAEL, 0x1B710B35131C471BL,
+            0x28DB77F523047D84L, 0x32CAAB7B40C72493L, 0x3C9EBE0A15C9BEBCL,
+            0x431D67C49C100D4CL, 0x4CC5D4BECB3E42B6L, 0x597F299CFC657E2AL,
+            0x5FCB6FAB3AD6FAECL, 0x6C44198C4A475817L
+    };
+
+    private Sha512() {
+    }
+
+    static void initialize(final long[] state) {
+        System.arraycopy(INITIAL_STATE, 0, state, 0, STATE_LENGTH);
+    }
+
+    /**
+     * Hashes the remainder of a message and pads it, leaving the digest in state.
+     *
+     * @param state         The state after the blocks that were hashed before this message.
+     * @param hashedLength  The number of bytes already hashed into state, a multiple of {@link #BLOCK_LENGTH}.
+     * @param message       The rest of the message.
+     * @param block         Scratch for the padded tail, at least {@link #BLOCK_LENGTH} bytes.
+     * @param w             Scratch for the message schedule, at least {@link #SCHEDULE_LENGTH} longs.
+     */
+    static void finish(final long[] state, final long hashedLength, final byte[] message,
+                       final byte[] block, final long[] w) {
+        final int length = message.length;
+        int offset = 0;
+        for (; length - offset >= BLOCK_LENGTH; offset += BLOCK_LENGTH)
+            compress(state, message, offset, w);
+
+        final int tail = length - offset;
+        System.arraycopy(message, offset, block, 0, tail);
+        block[tail] = (byte) 0x80;
+        if (tail + 1 > BLOCK_LENGTH - 16) {
+            Arrays.fill(block, tail + 1, BLOCK_LENGTH, (byte) 0);
+            compress(state, block, 0, w);
+            Arrays.fill(block, 0, BLOCK_LENGTH - 16, (byte) 0);
+        } else {
+            Arrays.fill(block, tail + 1, BLOCK_LENGTH - 16, (byte) 0);
+        }
+        final long bits = (hashedLength + length) << 3;
+        writeLong(0, block, BLOCK_LENGTH - 16);
+        writeLong(bits, block, BLOCK_LENGTH - 8);
+        compress(state, block, 0, w);
+    }
+
+    /**
+     * @return SHA-512 of the whole message, in a new array.
+     */
+    static byte[] digest(final byte[] message) {
+        final long[] state = new long[STATE_LENGTH];
+        initialize(state);
+        finish(state, 0, message, new byte[BLOCK_LENGTH], new long[SCHEDULE_LENGTH]);
+        final byte[] digest = new byte[DIGEST_LENGTH];
+        for (int i = 0; i < STATE_LENGTH; i++)
+            writeLong(state[i], digest, i << 3);
+        return digest;
+    }
+
+    /**
+     * Hashes the block at offset into state.
+     */
+    static void compress(final long[] state, final byte[] block, final int offset, final long[] w) {
+        for (int i = 0, j = offset; i < 16; i++, j += 8)
+            w[i] = readLong(block, j);
+        compress(state, w);
+    }
+
+    /**
+     * Hashes the block already loaded, big endian, into the first 16 longs of w into state.
+     */
+    static void compress(final long[] state, final long[] w) {
+        for (int t = 16; t < 80; t++) {
+            final long w15 = w[t - 15];
+            final long w2 = w[t - 2];
+            final long s0 = Long.rotateRight(w15, 1) ^ Long.rotateRight(w15, 8) ^ (w15 >>> 7);
+            final long s1 = Long.rotateRight(w2, 19) ^ Long.rotateRight(w2, 61) ^ (w2 >>> 6);
+            w[t] = s1 + w[t - 7] + s0 + w[t - 16];
+        }
+
+        long a = state[0];
+        long b = state[1];
+        long c = state[2];
+        long d = state[3];
+        long e = state[4];
+        long f = state[5];
+        long g = state[6];
+        long h = state[7];
+
+        for (int t = 0; t < 80; t += 8) {
+            h += sum1(e) + ch(e, f, g) + K[t] + w[t];
+            d += h;
+            h += sum0(a) + maj(a, b, c);
+
+            g += sum1(d) + ch(d, e, f) + K[t + 1] + w[t + 1];
+            c += g;
+            g += sum0(h) + maj(h, a, b);
+
+            f += sum1(c) + ch(c, d, e) + K[t + 2] + w[t + 2];
+            b += f;
+            f += sum0(g) + maj(g, h, a);
+
+            e += sum1(b) + ch(b, c, d) + K[t + 3] + w[t + 3];
+            a += e;
+            e += sum0(f) + maj(f, g, h);
+
+            d += sum1(a) + ch(a, b, c) + K[t + 4] + w[t + 4];
+            h += d;
+            d += sum0(e) + maj(e, f, g);
+
+            c += sum1(h) + ch(h, a, b) + K[t + 5] + w[t + 5];
+            g += c;
+            c += sum0(d) + maj(d, e, f);
+
+            b += sum1(g) + ch(g, h, a) + K[t + 6] + w[t + 6];
+            f += b;
+            b += sum0(c) + maj(c, d, e);
+
+            a += sum1(f) + ch(f, g, h) + K[t + 7] + w[t + 7];
+            e += a;
+            a += sum0(b) + maj(b, c, d);
+        }
+
+        state[0] += a;
+        state[1] += b;
+        state[2] += c;
+        state[3] += d;
+        state[4] += e;
+        state[5] += f;
+        state[6] += g;
+        state[7] += h;
+    }
+
+    private static long sum0(final long x) {
+        return Long.rotateRight(x, 28) ^ Long.rotateRight(x, 34) ^ Long.rotateRight(x, 39);
+    }
+
+    private static long sum1(final long x) {
+        return Long.rotateRight(x, 14) ^ Long.rotateRight(x, 18) ^ Long.rotateRight(x, 41);
+    }
+
+    private static long ch(final long x, final long y, final long z) {
+        return (x & y) ^ (~x & z);
+    }
+
+    private static long maj(final long x, final long y, final long z) {
+        return (x & y) ^ (x & z) ^ (y & z);
+    }
+
+    static long readLong(final byte[] bytes, final int offset) {
+        return ((long) (bytes[offset] & 0xff) << 56)
+                | ((long) (bytes[offset + 1] & 0xff) << 48)
+                | ((long) (bytes[offset + 2] & 0xff) << 40)
+                | ((long) (bytes[offset + 3] & 0xff) << 32)
+                | ((long) (bytes[offset + 4] & 0xff) << 24)
+                | ((bytes[offset + 5] & 0xff) << 16)
+                | ((bytes[offset + 6] & 0xff) << 8)
+                | (bytes[offset + 7] & 0xff);
+    }
+
+    static void writeLong(final long value, final byte[] bytes, final int offset) {
+        bytes[offset] = (byte) (value >>> 56);
+        bytes[offset + 1] = (byte) (value >>> 48);
+        bytes[offset + 2] = (byte) (value >>> 40);
+        bytes[offset + 3] = (byte) (value >>> 32);
+        bytes[offset + 4] = (byte) (value >>> 24);
+        bytes[offset + 5] = (byte) (value >>> 16);
+        bytes[offset + 6] = (byte) (value >>> 8);
+        bytes[offset + 7] = (byte) value;
+    }
+}
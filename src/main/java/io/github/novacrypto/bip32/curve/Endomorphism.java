@@ -0,0 +1,72 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import java.math.BigInteger;
+
+/**
+ * The secp256k1 endomorphism (x, y) -> (beta * x, y), which is multiplication by lambda, and the splitting of a scalar
+ * k into two halves of about 128 bits each, k = k1 + k2 * lambda (mod n), so that k * P = k1 * P + k2 * (lambda * P)
+ * needs only half the doublings (Gallant, Lambert and Vanstone).
+ * <p>
+ * The lattice basis and rounding constants are those SpongyCastle and libsecp256k1 use for secp256k1.
+ */
+final class Endomorphism {
+
+    static final String BETA = "7AE96A2B657C07106E64479EAC3434E99CF0497512F58995C1396C28719501EE";
+
+    private static final BigInteger N = new BigInteger(
+            "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEBAAEDCE6AF48A03BBFD25E8CD0364141", 16);
+
+    private static final BigInteger A1 = new BigInteger("3086D221A7D46BCDE86C90E49284EB15", 16);
+    private static final BigInteger B1 = new BigInteger("-E4437ED6010E88286F547FA90ABFE4C3", 16);
+    private static final BigInteger A2 = new BigInteger("114CA50F7A8E2F3F657C1108D9D44CFD8", 16);
+    private static final BigInteger B2 = A1;
+
+    private static final BigInteger G1 = new BigInteger("3086D221A7D46BCDE86C90E49284EB153DAB", 16);
+    private static final BigInteger G2 = new BigInteger("E4437ED6010E88286F547FA90ABFE4C42212", 16);
+    private static final int G_SHIFT = 272;
+
+    private Endomorphism() {
+    }
+
+    /**
+     * @param scalar 32 byte big-endian scalar.
+     * @return k1 and k2, signed and each below 2^129 in magnitude, with k1 + k2 * lambda = scalar (mod n).
+     */
+    static BigInteger[] split(final byte[] scalar) {
+        final BigInteger k = new BigInteger(1, scalar).mod(N);
+        final BigInteger c1 = roundedShift(k.multiply(G1));
+        final BigInteger c2 = roundedShift(k.multiply(G2));
+        final BigInteger k1 = k.subtract(c1.multiply(A1)).subtract(c2.multiply(A2));
+        final BigInteger k2 = c1.multiply(B1).add(c2.multiply(B2)).negate();
+        return new BigInteger[]{k1, k2};
+    }
+
+    /**
+     * @return value / 2^G_SHIFT, rounded to the nearest integer, for non-negative values.
+     */
+    private static BigInteger roundedShift(final BigInteger value) {
+        final BigInteger shifted = value.shiftRight(G_SHIFT);
+        return value.testBit(G_SHIFT - 1) ? shifted.add(BigInteger.ONE) : shifted;
+    }
+}
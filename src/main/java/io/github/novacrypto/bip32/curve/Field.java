@@ -0,0 +1,580 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+/**
+ * Arithmetic in the secp256k1 field, integers modulo p = 2^256 - 2^32 - 977.
+ * <p>
+ * An element is an int[10] of 26 bit limbs, least significant first, the top limb holding the last 22 bits. Results
+ * are only weakly normalized: every limb is below 2^27, except the top limb which is below 2^23, and the value may be
+ * at or above p. {@link #normalize(int[])} makes the representation unique, which encoding and comparison need.
+ * <p>
+ * Products are accumulated in longs and reduced with 2^256 = 0x1000003D1 (mod p). Every operation writes its result
+ * into a caller supplied element, which may be the same array as an operand, and allocates nothing.
+ */
+final class Field {
+
+    static final int LIMBS = 10;
+
+    /**
+     * Number of scratch elements {@link #inv} and {@link #sqrt} need.
+     */
+    static final int SCRATCH_SIZE = 5;
+
+    private static final int M = 0x3FFFFFF;
+    private static final int M22 = 0x3FFFFF;
+
+    /**
+     * 2^260 = R1 * 2^26 + R0 (mod p), for folding a column ten limbs up back down.
+     */
+    private static final long R0 = 0x3D10;
+    private static final long R1 = 0x400;
+
+    private static final byte[] P = {
+            -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+            -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -2, -1, -1, -4, 0x2F
+    };
+
+    /**
+     * 4p, limb by limb, each limb large enough to subtract any weakly normalized limb from.
+     */
+    private static final int[] P4 = {
+            0x3FFFC2F << 2, 0x3FFFFBF << 2, M << 2, M << 2, M << 2,
+            M << 2, M << 2, M << 2, M << 2, M22 << 2
+    };
+
+    private Field() {
+    }
+
+    static int[] newElement() {
+        return new int[LIMBS];
+    }
+
+    static void set(final int[] r, final int[] a) {
+        System.arraycopy(a, 0, r, 0, LIMBS);
+    }
+
+    /**
+     * Sets r to a if mask is all ones and leaves r as it is if mask is 0, running the same instructions either way.
+     *
+     * @param mask 0 or -1.
+     */
+    static void select(final int[] r, final int[] a, final int mask) {
+        for (int i = 0; i < LIMBS; i++)
+            r[i] = (r[i] & ~mask) | (a[i] & mask);
+    }
+
+    static void setInt(final int[] r, final int value) {
+        r[0] = value;
+        for (int i = 1; i < LIMBS; i++)
+            r[i] = 0;
+    }
+
+    /**
+     * @param r      Element to set.
+     * @param source 32 byte big-endian value.
+     * @param offset Position of the value in source.
+     * @return true iff the value is less than p.
+     */
+    static boolean setBytes(final int[] r, final byte[] source, final int offset) {
+        for (int i = 0; i < LIMBS; i++)
+            r[i] = 0;
+        for (int i = 0; i < 32; i++) {
+            final int bit = 8 * (31 - i);
+            final int value = source[offset + i] & 0xff;
+            final int limb = bit / 26;
+            final int shift = bit % 26;
+            r[limb] |= (value << shift) & M;
+            if (shift > 18)
+                r[limb + 1] |= value >>> (26 - shift);
+        }
+        for (int i = 0; i < 32; i++) {
+            final int difference = (source[offset + i] & 0xff) - (P[i] & 0xff);
+            if (difference != 0)
+                return difference < 0;
+        }
+        return false;
+    }
+
+    /**
+     * @param a      A normalized element.
+     * @param target Array to write the 32 byte big-endian value to.
+     * @param offset Position in target to start writing at.
+     */
+    static void getBytes(final int[] a, final byte[] target, final int offset) {
+        for (int i = 0; i < 32; i++) {
+            final int bit = 8 * (31 - i);
+            final int limb = bit / 26;
+            final int shift = bit % 26;
+            int value = a[limb] >>> shift;
+            if (shift > 18)
+                value |= a[limb + 1] << (26 - shift);
+            target[offset + i] = (byte) value;
+        }
+    }
+
+    /**
+     * Reduces a weakly normalized element to its unique representation, less than p.
+     */
+    static void normalize(final int[] r) {
+        long t0 = r[0], t1 = r[1], t2 = r[2], t3 = r[3], t4 = r[4],
+                t5 = r[5], t6 = r[6], t7 = r[7], t8 = r[8], t9 = r[9];
+        for (int pass = 0; pass < 2; pass++) {
+            final long c = t9 >> 22;
+            t9 &= M22;
+            t0 += c * 0x3D1L;
+            t1 += c << 6;
+            t1 += t0 >> 26;
+            t0 &= M;
+            t2 += t1 >> 26;
+            t1 &= M;
+            t3 += t2 >> 26;
+            t2 &= M;
+            t4 += t3 >> 26;
+            t3 &= M;
+            t5 += t4 >> 26;
+            t4 &= M;
+            t6 += t5 >> 26;
+            t5 &= M;
+            t7 += t6 >> 26;
+            t6 &= M;
+            t8 += t7 >> 26;
+            t7 &= M;
+            t9 += t8 >> 26;
+            t8 &= M;
+        }
+        // now below 2^256, subtract p if at or above it, that is, if adding 2^256 - p carries out of 2^256
+        long s0 = t0 + 0x3D1L;
+        long s1 = t1 + 0x40L + (s0 >> 26);
+        long s2 = t2 + (s1 >> 26);
+        long s3 = t3 + (s2 >> 26);
+        long s4 = t4 + (s3 >> 26);
+        long s5 = t5 + (s4 >> 26);
+        long s6 = t6 + (s5 >> 26);
+        long s7 = t7 + (s6 >> 26);
+        long s8 = t8 + (s7 >> 26);
+        long s9 = t9 + (s8 >> 26);
+        // selected with a mask rather than a branch, so normalizing takes the same time for any value
+        final long useS = -(s9 >> 22);
+        t0 = (t0 & ~useS) | (s0 & M & useS);
+        t1 = (t1 & ~useS) | (s1 & M & useS);
+        t2 = (t2 & ~useS) | (s2 & M & useS);
+        t3 = (t3 & ~useS) | (s3 & M & useS);
+        t4 = (t4 & ~useS) | (s4 & M & useS);
+        t5 = (t5 & ~useS) | (s5 & M & useS);
+        t6 = (t6 & ~useS) | (s6 & M & useS);
+        t7 = (t7 & ~useS) | (s7 & M & useS);
+        t8 = (t8 & ~useS) | (s8 & M & useS);
+        t9 = (t9 & ~useS) | (s9 & M22 & useS);
+        r[0] = (int) t0;
+        r[1] = (int) t1;
+        r[2] = (int) t2;
+        r[3] = (int) t3;
+        r[4] = (int) t4;
+        r[5] = (int) t5;
+        r[6] = (int) t6;
+        r[7] = (int) t7;
+        r[8] = (int) t8;
+        r[9] = (int) t9;
+    }
+
+    /**
+     * @param a A normalized element.
+     */
+    static boolean isZero(final int[] a) {
+        int bits = 0;
+        for (int i = 0; i < LIMBS; i++)
+            bits |= a[i];
+        return bits == 0;
+    }
+
+    /**
+     * @param a A normalized element.
+     */
+    static boolean isOdd(final int[] a) {
+        return (a[0] & 1) != 0;
+    }
+
+    /**
+     * @param a A normalized element.
+     * @param b A normalized element.
+     */
+    static boolean equal(final int[] a, final int[] b) {
+        int bits = 0;
+        for (int i = 0; i < LIMBS; i++)
+            bits |= a[i] ^ b[i];
+        return bits == 0;
+    }
+
+    static void add(final int[] r, final int[] a, final int[] b) {
+        reduce(r, (long) a[0] + b[0], (long) a[1] + b[1], (long) a[2] + b[2], (long) a[3] + b[3],
+                (long) a[4] + b[4], (long) a[5] + b[5], (long) a[6] + b[6], (long) a[7] + b[7],
+                (long) a[8] + b[8], (long) a[9] + b[9]);
+    }
+
+    static void sub(final int[] r, final int[] a, final int[] b) {
+        reduce(r, (long) a[0] + P4[0] - b[0], (long) a[1] + P4[1] - b[1], (long) a[2] + P4[2] - b[2],
+                (long) a[3] + P4[3] - b[3], (long) a[4] + P4[4] - b[4], (long) a[5] + P4[5] - b[5],
+                (long) a[6] + P4[6] - b[6], (long) a[7] + P4[7] - b[7], (long) a[8] + P4[8] - b[8],
+                (long) a[9] + P4[9] - b[9]);
+    }
+
+    static void negate(final int[] r, final int[] a) {
+        reduce(r, (long) P4[0] - a[0], (long) P4[1] - a[1], (long) P4[2] - a[2], (long) P4[3] - a[3],
+                (long) P4[4] - a[4], (long) P4[5] - a[5], (long) P4[6] - a[6], (long) P4[7] - a[7],
+                (long) P4[8] - a[8], (long) P4[9] - a[9]);
+    }
+
+    /**
+     * @param k A small multiplier, at most 64.
+     */
+    static void mulInt(final int[] r, final int[] a, final int k) {
+        reduce(r, (long) a[0] * k, (long) a[1] * k, (long) a[2] * k, (long) a[3] * k, (long) a[4] * k,
+                (long) a[5] * k, (long) a[6] * k, (long) a[7] * k, (long) a[8] * k, (long) a[9] * k);
+    }
+
+    static void mul(final int[] r, final int[] a, final int[] b) {
+        final long a0 = a[0], a1 = a[1], a2 = a[2], a3 = a[3], a4 = a[4],
+                a5 = a[5], a6 = a[6], a7 = a[7], a8 = a[8], a9 = a[9];
+        final long b0 = b[0], b1 = b[1], b2 = b[2], b3 = b[3], b4 = b[4],
+                b5 = b[5], b6 = b[6], b7 = b[7], b8 = b[8], b9 = b[9];
+        // d accumulates columns 9 to 18, folding each of 10 to 18 into c, which accumulates columns 0 to 8
+        long d = a0 * b9 + a1 * b8 + a2 * b7 + a3 * b6 + a4 * b5 + a5 * b4 + a6 * b3 + a7 * b2 + a8 * b1 + a9 * b0;
+        final long t9 = d & M;
+        d >>= 26;
+        long c;
+        long u;
+        d += a1 * b9 + a2 * b8 + a3 * b7 + a4 * b6 + a5 * b5 + a6 * b4 + a7 * b3 + a8 * b2 + a9 * b1;
+        u = d & M;
+        d >>= 26;
+        c = u * R0;
+        c += a0 * b0;
+        final long t0 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += a2 * b9 + a3 * b8 + a4 * b7 + a5 * b6 + a6 * b5 + a7 * b4 + a8 * b3 + a9 * b2;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += a0 * b1 + a1 * b0;
+        final long t1 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += a3 * b9 + a4 * b8 + a5 * b7 + a6 * b6 + a7 * b5 + a8 * b4 + a9 * b3;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += a0 * b2 + a1 * b1 + a2 * b0;
+        final long t2 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += a4 * b9 + a5 * b8 + a6 * b7 + a7 * b6 + a8 * b5 + a9 * b4;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += a0 * b3 + a1 * b2 + a2 * b1 + a3 * b0;
+        final long t3 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += a5 * b9 + a6 * b8 + a7 * b7 + a8 * b6 + a9 * b5;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += a0 * b4 + a1 * b3 + a2 * b2 + a3 * b1 + a4 * b0;
+        final long t4 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += a6 * b9 + a7 * b8 + a8 * b7 + a9 * b6;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += a0 * b5 + a1 * b4 + a2 * b3 + a3 * b2 + a4 * b1 + a5 * b0;
+        final long t5 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += a7 * b9 + a8 * b8 + a9 * b7;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += a0 * b6 + a1 * b5 + a2 * b4 + a3 * b3 + a4 * b2 + a5 * b1 + a6 * b0;
+        final long t6 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += a8 * b9 + a9 * b8;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += a0 * b7 + a1 * b6 + a2 * b5 + a3 * b4 + a4 * b3 + a5 * b2 + a6 * b1 + a7 * b0;
+        final long t7 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += a9 * b9;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += a0 * b8 + a1 * b7 + a2 * b6 + a3 * b5 + a4 * b4 + a5 * b3 + a6 * b2 + a7 * b1 + a8 * b0;
+        r[3] = (int) t3;
+        r[4] = (int) t4;
+        r[5] = (int) t5;
+        r[6] = (int) t6;
+        r[7] = (int) t7;
+        r[8] = (int) (c & M);
+        c >>= 26;
+        c += u * R1;
+        c += d * R0 + t9;
+        r[9] = (int) (c & M22);
+        c >>= 22;
+        c += d * (R1 << 4);
+        d = c * (R0 >> 4) + t0;
+        r[0] = (int) (d & M);
+        d >>= 26;
+        d += c * (R1 >> 4) + t1;
+        r[1] = (int) (d & M);
+        d >>= 26;
+        r[2] = (int) (d + t2);
+    }
+
+    static void sqr(final int[] r, final int[] a) {
+        final long a0 = a[0], a1 = a[1], a2 = a[2], a3 = a[3], a4 = a[4],
+                a5 = a[5], a6 = a[6], a7 = a[7], a8 = a[8], a9 = a[9];
+        // d accumulates columns 9 to 18, folding each of 10 to 18 into c, which accumulates columns 0 to 8
+        long d = (a0 * a9 << 1) + (a1 * a8 << 1) + (a2 * a7 << 1) + (a3 * a6 << 1) + (a4 * a5 << 1);
+        final long t9 = d & M;
+        d >>= 26;
+        long c;
+        long u;
+        d += (a1 * a9 << 1) + (a2 * a8 << 1) + (a3 * a7 << 1) + (a4 * a6 << 1) + a5 * a5;
+        u = d & M;
+        d >>= 26;
+        c = u * R0;
+        c += a0 * a0;
+        final long t0 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += (a2 * a9 << 1) + (a3 * a8 << 1) + (a4 * a7 << 1) + (a5 * a6 << 1);
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += (a0 * a1 << 1);
+        final long t1 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += (a3 * a9 << 1) + (a4 * a8 << 1) + (a5 * a7 << 1) + a6 * a6;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += (a0 * a2 << 1) + a1 * a1;
+        final long t2 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += (a4 * a9 << 1) + (a5 * a8 << 1) + (a6 * a7 << 1);
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += (a0 * a3 << 1) + (a1 * a2 << 1);
+        final long t3 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += (a5 * a9 << 1) + (a6 * a8 << 1) + a7 * a7;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += (a0 * a4 << 1) + (a1 * a3 << 1) + a2 * a2;
+        final long t4 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += (a6 * a9 << 1) + (a7 * a8 << 1);
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += (a0 * a5 << 1) + (a1 * a4 << 1) + (a2 * a3 << 1);
+        final long t5 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += (a7 * a9 << 1) + a8 * a8;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += (a0 * a6 << 1) + (a1 * a5 << 1) + (a2 * a4 << 1) + a3 * a3;
+        final long t6 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += (a8 * a9 << 1);
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += (a0 * a7 << 1) + (a1 * a6 << 1) + (a2 * a5 << 1) + (a3 * a4 << 1);
+        final long t7 = c & M;
+        c >>= 26;
+        c += u * R1;
+        d += a9 * a9;
+        u = d & M;
+        d >>= 26;
+        c += u * R0;
+        c += (a0 * a8 << 1) + (a1 * a7 << 1) + (a2 * a6 << 1) + (a3 * a5 << 1) + a4 * a4;
+        r[3] = (int) t3;
+        r[4] = (int) t4;
+        r[5] = (int) t5;
+        r[6] = (int) t6;
+        r[7] = (int) t7;
+        r[8] = (int) (c & M);
+        c >>= 26;
+        c += u * R1;
+        c += d * R0 + t9;
+        r[9] = (int) (c & M22);
+        c >>= 22;
+        c += d * (R1 << 4);
+        d = c * (R0 >> 4) + t0;
+        r[0] = (int) (d & M);
+        d >>= 26;
+        d += c * (R1 >> 4) + t1;
+        r[1] = (int) (d & M);
+        d >>= 26;
+        r[2] = (int) (d + t2);
+    }
+
+    /**
+     * Sets r to a squared n times.
+     */
+    static void sqrN(final int[] r, final int[] a, final int n) {
+        sqr(r, a);
+        for (int i = 1; i < n; i++)
+            sqr(r, r);
+    }
+
+    /**
+     * Sets r to 1 / a, computed as a^(p - 2). The result for a = 0 is 0.
+     *
+     * @param scratch {@link #SCRATCH_SIZE} elements of working space, none aliasing r or a.
+     */
+    static void inv(final int[] r, final int[] a, final int[][] scratch) {
+        powerChain(r, a, scratch);
+        final int[] x2 = scratch[0];
+        final int[] x22 = scratch[2];
+        sqrN(r, r, 23);
+        mul(r, r, x22);
+        sqrN(r, r, 5);
+        mul(r, r, a);
+        sqrN(r, r, 3);
+        mul(r, r, x2);
+        sqrN(r, r, 2);
+        mul(r, r, a);
+    }
+
+    /**
+     * Sets r to a square root of a, computed as a^((p + 1) / 4).
+     *
+     * @param scratch {@link #SCRATCH_SIZE} elements of working space, none aliasing r or a.
+     * @return true iff a has a square root.
+     */
+    static boolean sqrt(final int[] r, final int[] a, final int[][] scratch) {
+        powerChain(r, a, scratch);
+        final int[] x2 = scratch[0];
+        final int[] x22 = scratch[2];
+        sqrN(r, r, 23);
+        mul(r, r, x22);
+        sqrN(r, r, 6);
+        mul(r, r, x2);
+        sqrN(r, r, 2);
+
+        final int[] square = scratch[3];
+        final int[] normalizedA = scratch[4];
+        sqr(square, r);
+        normalize(square);
+        set(normalizedA, a);
+        normalize(normalizedA);
+        return equal(square, normalizedA);
+    }
+
+    /**
+     * The shared start of the addition chains for inversion and square root. Sets r to a^(2^223 - 1), and leaves
+     * a^(2^2 - 1) in scratch[0], a^(2^3 - 1) in scratch[1] and a^(2^22 - 1) in scratch[2].
+     */
+    private static void powerChain(final int[] r, final int[] a, final int[][] scratch) {
+        final int[] x2 = scratch[0];
+        final int[] x3 = scratch[1];
+        final int[] x22 = scratch[2];
+        final int[] x44 = scratch[3];
+        final int[] x88 = scratch[4];
+        sqr(x2, a);
+        mul(x2, x2, a);
+        sqr(x3, x2);
+        mul(x3, x3, a);
+        // r holds x6, x9 and then x11
+        sqrN(r, x3, 3);
+        mul(r, r, x3);
+        sqrN(r, r, 3);
+        mul(r, r, x3);
+        sqrN(r, r, 2);
+        mul(r, r, x2);
+        sqrN(x22, r, 11);
+        mul(x22, x22, r);
+        sqrN(x44, x22, 22);
+        mul(x44, x44, x22);
+        sqrN(x88, x44, 44);
+        mul(x88, x88, x44);
+        // r holds x176, x220 and then x223
+        sqrN(r, x88, 88);
+        mul(r, r, x88);
+        sqrN(r, r, 44);
+        mul(r, r, x44);
+        sqrN(r, r, 3);
+        mul(r, r, x3);
+    }
+
+    private static void reduce(final int[] r, long t0, long t1, long t2, long t3, long t4,
+                               long t5, long t6, long t7, long t8, long t9) {
+        t1 += t0 >> 26;
+        t0 &= M;
+        t2 += t1 >> 26;
+        t1 &= M;
+        t3 += t2 >> 26;
+        t2 &= M;
+        t4 += t3 >> 26;
+        t3 &= M;
+        t5 += t4 >> 26;
+        t4 &= M;
+        t6 += t5 >> 26;
+        t5 &= M;
+        t7 += t6 >> 26;
+        t6 &= M;
+        t8 += t7 >> 26;
+        t7 &= M;
+        t9 += t8 >> 26;
+        t8 &= M;
+        final long c = t9 >> 22;
+        t9 &= M22;
+        // the fold leaves the two bottom limbs below 2^27, which weak normalization allows
+        t0 += c * 0x3D1L;
+        t1 += c << 6;
+        r[0] = (int) t0;
+        r[1] = (int) t1;
+        r[2] = (int) t2;
+        r[3] = (int) t3;
+        r[4] = (int) t4;
+        r[5] = (int) t5;
+        r[6] = (int) t6;
+        r[7] = (int) t7;
+        r[8] = (int) t8;
+        r[9] = (int) t9;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import static io.github.novacrypto.bip32.curve.Field.LIMBS;
+import static io.github.novacrypto.bip32.curve.Field.SCRATCH_SIZE;
+import static io.github.novacrypto.bip32.curve.Field.add;
+import static io.github.novacrypto.bip32.curve.Field.inv;
+import static io.github.novacrypto.bip32.curve.Field.isZero;
+import static io.github.novacrypto.bip32.curve.Field.mul;
+import static io.github.novacrypto.bip32.curve.Field.mulInt;
+import static io.github.novacrypto.bip32.curve.Field.newElement;
+import static io.github.novacrypto.bip32.curve.Field.normalize;
+import static io.github.novacrypto.bip32.curve.Field.set;
+import static io.github.novacrypto.bip32.curve.Field.setInt;
+import static io.github.novacrypto.bip32.curve.Field.sqr;
+import static io.github.novacrypto.bip32.curve.Field.sub;
+
+/**
+ * A mutable secp256k1 point in Jacobian coordinates, (X, Y, Z) standing for the affine point (X / Z^2, Y / Z^3), with
+ * its own working space so that doubling and addition in place allocate nothing.
+ * <p>
+ * The formulas are dbl-2009-l, madd-2007-bl and add-2007-bl from the Explicit-Formulas Database, for a = 0.
+ * <p>
+ * Not thread safe.
+ */
+final class JacobianPoint {
+
+    final int[] x = newElement();
+    final int[] y = newElement();
+    final int[] z = newElement();
+    boolean infinity = true;
+
+    private final int[] t0 = newElement();
+    private final int[] t1 = newElement();
+    private final int[] t2 = newElement();
+    private final int[] t3 = newElement();
+    private final int[] t4 = newElement();
+    private final int[] t5 = newElement();
+    private final int[] t6 = newElement();
+    private final int[] t7 = newElement();
+    private final int[][] inversionScratch = new int[SCRATCH_SIZE][LIMBS];
+
+    void setInfinity() {
+        infinity = true;
+    }
+
+    void setAffine(final int[] ax, final int[] ay) {
+        set(x, ax);
+        set(y, ay);
+        setInt(z, 1);
+        infinity = false;
+    }
+
+    void setJacobian(final int[] px, final int[] py, final int[] pz) {
+        set(x, px);
+        set(y, py);
+        set(z, pz);
+        infinity = false;
+    }
+
+    /**
+     * Sets this point to twice itself.
+     */
+    void twice() {
+        if (infinity)
+            return;
+        final int[] a = t0, b = t1, c = t2, d = t3, e = t4, f = t5, t = t6;
+        sqr(a, x);
+        sqr(b, y);
+        sqr(c, b);
+        add(t, x, b);
+        sqr(t, t);
+        sub(t, t, a);
+        sub(t, t, c);
+        mulInt(d, t, 2);
+        mulInt(e, a, 3);
+        sqr(f, e);
+        mul(z, y, z);
+        mulInt(z, z, 2);
+        mulInt(t, d, 2);
+        sub(x, f, t);
+        sub(t, d, x);
+        mul(t, e, t);
+        mulInt(c, c, 8);
+        sub(y, t, c);
+    }
+
+    /**
+     * Adds an affine point to this point.
+     *
+     * @param ax Affine x of a point other than infinity.
+     * @param ay Affine y.
+     */
+    void addAffine(final int[] ax, final int[] ay) {
+        if (infinity) {
+            setAffine(ax, ay);
+            return;
+        }
+        final int[] z1z1 = t0, u2 = t1, s2 = t2, h = t3, r = t4, hh = t5, i = t6, j = t7;
+        sqr(z1z1, z);
+        mul(u2, ax, z1z1);
+        mul(s2, ay, z);
+        mul(s2, s2, z1z1);
+        sub(h, u2, x);
+        sub(r, s2, y);
+        mulInt(r, r, 2);
+        if (addingSameOrOpposite(h, r))
+            return;
+        sqr(hh, h);
+        mulInt(i, hh, 4);
+        mul(j, h, i);
+        final int[] v = u2;
+        mul(v, x, i);
+
+        add(z, z, h);
+        sqr(z, z);
+        sub(z, z, z1z1);
+        sub(z, z, hh);
+
+        final int[] y1j2 = s2;
+        mul(y1j2, y, j);
+        mulInt(y1j2, y1j2, 2);
+
+        final int[] t = i;
+        sqr(t, r);
+        sub(t, t, j);
+        sub(t, t, v);
+        sub(x, t, v);
+
+        sub(t, v, x);
+        mul(t, r, t);
+        sub(y, t, y1j2);
+    }
+
+    /**
+     * Adds a point in Jacobian coordinates to this point.
+     */
+    void addJacobian(final int[] px, final int[] py, final int[] pz) {
+        if (infinity) {
+            setJacobian(px, py, pz);
+            return;
+        }
+        final int[] z1z1 = t0, z2z2 = t1, u1 = t2, u2 = t3, s1 = t4, s2 = t5, h = t6, r = t7;
+        sqr(z1z1, z);
+        sqr(z2z2, pz);
+        mul(u1, x, z2z2);
+        mul(u2, px, z1z1);
+        mul(s1, y, pz);
+        mul(s1, s1, z2z2);
+        mul(s2, py, z);
+        mul(s2, s2, z1z1);
+        sub(h, u2, u1);
+        sub(r, s2, s1);
+        mulInt(r, r, 2);
+        if (addingSameOrOpposite(h, r))
+            return;
+
+        // z3 = ((z1 + z2)^2 - z1z1 - z2z2) * h
+        add(z, z, pz);
+        sqr(z, z);
+        sub(z, z, z1z1);
+        sub(z, z, z2z2);
+        mul(z, z, h);
+
+        final int[] i = z1z1, j = z2z2, v = u2;
+        mulInt(i, h, 2);
+        sqr(i, i);
+        mul(j, h, i);
+        mul(v, u1, i);
+
+        final int[] s1j2 = s2;
+        mul(s1j2, s1, j);
+        mulInt(s1j2, s1j2, 2);
+
+        final int[] t = u1;
+        sqr(t, r);
+        sub(t, t, j);
+        sub(t, t, v);
+        sub(x, t, v);
+
+        sub(t, v, x);
+        mul(t, r, t);
+        sub(y, t, s1j2);
+    }
+
+    /**
+     * Handles the addition of a point with the same x, where the general formulas break down.
+     *
+     * @return true iff the points had the same x and this point now holds the sum.
+     */
+    private boolean addingSameOrOpposite(final int[] h, final int[] r) {
+        final int[] test = inversionScratch[0];
+        set(test, h);
+        normalize(test);
+        if (!isZero(test))
+            return false;
+        set(test, r);
+        normalize(test);
+        if (isZero(test))
+            twice();
+        else
+            infinity = true;
+        return true;
+    }
+
+    /**
+     * Writes the normalized affine coordinates of this point, which must not be infinity.
+     */
+    void toAffine(final int[] ax, final int[] ay) {
+        final int[] zInverse = t0;
+        inv(zInverse, z, inversionScratch);
+        toAffine(zInverse, ax, ay);
+    }
+
+    /**
+     * Writes the normalized affine coordinates of this point, given 1 / Z.
+     */
+    void toAffine(final int[] zInverse, final int[] ax, final int[] ay) {
+        final int[] zInverse2 = t2;
+        sqr(zInverse2, zInverse);
+        mul(ax, x, zInverse2);
+        mul(zInverse2, zInverse2, zInverse);
+        mul(ay, y, zInverse2);
+        normalize(ax);
+        normalize(ay);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import static io.github.novacrypto.bip32.curve.Field.LIMBS;
+import static io.github.novacrypto.bip32.curve.Field.SCRATCH_SIZE;
+import static io.github.novacrypto.bip32.curve.Field.add;
+import static io.github.novacrypto.bip32.curve.Field.inv;
+import static io.github.novacrypto.bip32.curve.Field.isZero;
+import static io.github.novacrypto.bip32.curve.Field.mul;
+import static io.github.novacrypto.bip32.curve.Field.mulInt;
+import static io.github.novacrypto.bip32.curve.Field.newElement;
+import static io.github.novacrypto.bip32.curve.Field.normalize;
+import static io.github.novacrypto.bip32.curve.Field.select;
+import static io.github.novacrypto.bip32.curve.Field.set;
+import static io.github.novacrypto.bip32.curve.Field.setInt;
+import static io.github.novacrypto.bip32.curve.Field.sqr;
+import static io.github.novacrypto.bip32.curve.Field.sub;
+
+/**
+ * A mutable secp256k1 point in homogeneous projective coordinates, (X, Y, Z) standing for the affine point
+ * (X / Z, Y / Z), with the point at infinity (0, 1, 0).
+ * <p>
+ * Addition and doubling use the complete formulas of Renes, Costello and Batina ("Complete addition formulas for
+ * prime order elliptic curves", algorithms 8 and 9, for y^2 = x^3 + b). They have no exceptional cases, such as
+ * adding infinity or a point to itself, so every addition and doubling runs the same instructions whatever the
+ * points, as constant-time multiplication by secret scalars needs.
+ * <p>
+ * Not thread safe.
+ */
+final class ProjectivePoint {
+
+    /**
+     * 3 * b, for b = 7.
+     */
+    private static final int B3 = 21;
+
+    final int[] x = newElement();
+    final int[] y = newElement();
+    final int[] z = newElement();
+
+    private final int[] t0 = newElement();
+    private final int[] t1 = newElement();
+    private final int[] t2 = newElement();
+    private final int[] t3 = newElement();
+    private final int[] t4 = newElement();
+    private final int[] x3 = newElement();
+    private final int[] y3 = newElement();
+    private final int[] z3 = newElement();
+    private final int[][] inversionScratch = new int[SCRATCH_SIZE][LIMBS];
+
+    void setInfinity() {
+        setInt(x, 0);
+        setInt(y, 1);
+        setInt(z, 0);
+    }
+
+    /**
+     * Adds an affine point to this point if mask is all ones, or leaves this point as it is if mask is 0. The sum is
+     * calculated either way.
+     *
+     * @param ax   Affine x of a point other than infinity.
+     * @param ay   Affine y.
+     * @param mask 0 or -1.
+     */
+    void addAffine(final int[] ax, final int[] ay, final int mask) {
+        mul(t0, x, ax);
+        mul(t1, y, ay);
+        add(t3, ax, ay);
+        add(t4, x, y);
+        mul(t3, t3, t4);
+        add(t4, t0, t1);
+        sub(t3, t3, t4);
+        mul(t4, ay, z);
+        add(t4, t4, y);
+        mul(y3, ax, z);
+        add(y3, y3, x);
+        add(x3, t0, t0);
+        add(t0, x3, t0);
+        mulInt(t2, z, B3);
+        add(z3, t1, t2);
+        sub(t1, t1, t2);
+        mulInt(y3, y3, B3);
+        mul(x3, t4, y3);
+        mul(t2, t3, t1);
+        sub(x3, t2, x3);
+        mul(y3, y3, t0);
+        mul(t1, t1, z3);
+        add(y3, t1, y3);
+        mul(t0, t0, t3);
+        mul(z3, z3, t4);
+        add(z3, z3, t0);
+        select(x, x3, mask);
+        select(y, y3, mask);
+        select(z, z3, mask);
+    }
+
+    /**
+     * Sets this point to twice itself, running the same instructions for every point, infinity included.
+     */
+    void twice() {
+        sqr(t0, y);
+        mulInt(z3, t0, 8);
+        mul(t1, y, z);
+        sqr(t2, z);
+        mulInt(t2, t2, B3);
+        mul(x3, t2, z3);
+        add(y3, t0, t2);
+        mul(z3, t1, z3);
+        mulInt(t1, t2, 3);
+        sub(t0, t0, t1);
+        mul(y3, t0, y3);
+        add(y3, x3, y3);
+        mul(t1, x, y);
+        mul(x3, t0, t1);
+        add(x3, x3, x3);
+        set(x, x3);
+        set(y, y3);
+        set(z, z3);
+    }
+
+    /**
+     * Writes the normalized affine coordinates of this point, which must not be infinity.
+     */
+    void toAffine(final int[] ax, final int[] ay) {
+        final int[] zInverse = t0;
+        inv(zInverse, z, inversionScratch);
+        mul(ax, x, zInverse);
+        mul(ay, y, zInverse);
+        normalize(ax);
+        normalize(ay);
+    }
+
+    boolean isInfinity() {
+        final int[] test = t0;
+        set(test, z);
+        normalize(test);
+        return isZero(test);
+    }
+}
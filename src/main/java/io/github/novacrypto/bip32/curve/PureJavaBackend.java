@@ -0,0 +1,568 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.github.novacrypto.bip32.curve.Field.LIMBS;
+import static io.github.novacrypto.bip32.curve.Field.SCRATCH_SIZE;
+import static io.github.novacrypto.bip32.curve.Field.add;
+import static io.github.novacrypto.bip32.curve.Field.equal;
+import static io.github.novacrypto.bip32.curve.Field.getBytes;
+import static io.github.novacrypto.bip32.curve.Field.inv;
+import static io.github.novacrypto.bip32.curve.Field.isOdd;
+import static io.github.novacrypto.bip32.curve.Field.mul;
+import static io.github.novacrypto.bip32.curve.Field.negate;
+import static io.github.novacrypto.bip32.curve.Field.newElement;
+import static io.github.novacrypto.bip32.curve.Field.normalize;
+import static io.github.novacrypto.bip32.curve.Field.set;
+import static io.github.novacrypto.bip32.curve.Field.setBytes;
+import static io.github.novacrypto.bip32.curve.Field.select;
+import static io.github.novacrypto.bip32.curve.Field.setInt;
+import static io.github.novacrypto.bip32.curve.Field.sqr;
+import static io.github.novacrypto.bip32.curve.Field.sqrt;
+
+/**
+ * A {@link Secp256k1Backend} in plain Java, specialised to secp256k1.
+ * <p>
+ * Field elements are fixed arrays of 26 bit limbs (see {@link Field}) and the working space for each thread is
+ * allocated once, so the arithmetic allocates nothing and only results are new objects. Multiples of G come from a
+ * table of d * 16^w * G, for every 4 bit digit d of the scalar at every position w, built when the class is loaded;
+ * a multiplication is then 64 mixed additions and no doublings.
+ * <p>
+ * Other points are multiplied by splitting the scalar with the curve's endomorphism (see {@link Endomorphism}) and
+ * recoding the halves in wNAF (see {@link Wnaf}), which takes about 130 doublings. {@link #sumOfMultiplies} runs the
+ * halves of both scalars through one shared chain of doublings (Strauss), taking the odd multiples of G from a table
+ * built the first time it is called. Both branch on the scalar's digits, so they are only for public scalars;
+ * {@link #multiplyConstantTime} multiplies other points by secrets.
+ */
+public final class PureJavaBackend implements Secp256k1Backend<PureJavaBackend.Point> {
+
+    private static final int WINDOWS = 64;
+    private static final int DIGITS = 16;
+
+    private static final int[] GX = element(
+            "79BE667EF9DCBBAC55A06295CE870B07029BFCDB2DCE28D959F2815B16F81798");
+    private static final int[] GY = element(
+            "483ADA7726A3C4655DA4FBFC0E1108A8FD17B448A68554199C47D08FFB10D4B8");
+    private static final int[] SEVEN = element(
+            "0000000000000000000000000000000000000000000000000000000000000007");
+
+    private static final int[][] TABLE_X = new int[WINDOWS * DIGITS][];
+    private static final int[][] TABLE_Y = new int[WINDOWS * DIGITS][];
+
+    private static final int[] BETA = element(Endomorphism.BETA);
+
+    /**
+     * wNAF window for other points, whose table of odd multiples is built for each multiplication.
+     */
+    private static final int POINT_WINDOW = 5;
+    private static final int POINT_TABLE_SIZE = 1 << (POINT_WINDOW - 2);
+
+    /**
+     * wNAF window for G in {@link #sumOfMultiplies}, whose tables are built once, on first use.
+     */
+    private static final int G_WINDOW = 8;
+    private static final int G_TABLE_SIZE = 1 << (G_WINDOW - 2);
+
+    static {
+        final JacobianPoint point = new JacobianPoint();
+        final int[] baseX = newElement();
+        final int[] baseY = newElement();
+        set(baseX, GX);
+        set(baseY, GY);
+        for (int window = 0; window < WINDOWS; window++) {
+            point.setAffine(baseX, baseY);
+            for (int digit = 1; digit < DIGITS; digit++) {
+                final int[] x = newElement();
+                final int[] y = newElement();
+                point.toAffine(x, y);
+                TABLE_X[window * DIGITS + digit] = x;
+                TABLE_Y[window * DIGITS + digit] = y;
+                point.addAffine(baseX, baseY);
+            }
+            // point is now 16 * base, the base of the next window
+            point.toAffine(baseX, baseY);
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    /**
+     * A point of {@link PureJavaBackend}. Immutable.
+     */
+    public static final class Point {
+
+        private static final Point INFINITY = new Point(null, null, null, false);
+
+        private final int[] x;
+        private final int[] y;
+        private final int[] z;
+        private final boolean affine;
+
+        private Point(final int[] x, final int[] y, final int[] z, final boolean affine) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.affine = affine;
+        }
+
+        private static Point affine(final int[] x, final int[] y) {
+            return new Point(x, y, null, true);
+        }
+
+        private static Point of(final JacobianPoint point) {
+            if (point.infinity)
+                return INFINITY;
+            return new Point(point.x.clone(), point.y.clone(), point.z.clone(), false);
+        }
+
+        private boolean isInfinity() {
+            return x == null;
+        }
+    }
+
+    @Override
+    public Point gMultiply(final byte[] scalar) {
+        final JacobianPoint result = SCRATCH.get().point;
+        gMultiply(scalar, result);
+        return Point.of(result);
+    }
+
+    @Override
+    public Point gMultiplyAndAdd(final byte[] scalar, final Point point) {
+        final JacobianPoint result = SCRATCH.get().point;
+        gMultiply(scalar, result);
+        if (point.isInfinity())
+            return Point.of(result);
+        if (point.affine)
+            result.addAffine(point.x, point.y);
+        else
+            result.addJacobian(point.x, point.y, point.z);
+        return Point.of(result);
+    }
+
+    private static void gMultiply(final byte[] scalar, final JacobianPoint result) {
+        checkScalar(scalar);
+        result.setInfinity();
+        for (int window = 0; window < WINDOWS; window++) {
+            final int digit = (scalar[31 - (window >> 1)] >> ((window & 1) << 2)) & 0xF;
+            if (digit != 0)
+                result.addAffine(TABLE_X[window * DIGITS + digit], TABLE_Y[window * DIGITS + digit]);
+        }
+    }
+
+    /**
+     * The same 4 bit windows as {@link #gMultiply(byte[])}, but every window's table entries are all read and the
+     * wanted one kept with a mask, and the addition uses complete formulas and is always calculated, kept only when
+     * the digit is not zero. Nothing depends on the scalar except the values in the arithmetic.
+     */
+    @Override
+    public Point gMultiplyConstantTime(final byte[] scalar) {
+        checkScalar(scalar);
+        final Scratch scratch = SCRATCH.get();
+        final ProjectivePoint result = scratch.projective;
+        final int[] x = scratch.t0;
+        final int[] y = scratch.t1;
+        result.setInfinity();
+        for (int window = 0; window < WINDOWS; window++) {
+            final int digit = (scalar[31 - (window >> 1)] >> ((window & 1) << 2)) & 0xF;
+            setInt(x, 0);
+            setInt(y, 0);
+            for (int candidate = 1; candidate < DIGITS; candidate++) {
+                // all ones when candidate == digit, as only then is candidate ^ digit - 1 negative
+                final int match = ((candidate ^ digit) - 1) >> 31;
+                select(x, TABLE_X[window * DIGITS + candidate], match);
+                select(y, TABLE_Y[window * DIGITS + candidate], match);
+            }
+            final int nonZero = (digit | -digit) >> 31;
+            result.addAffine(x, y, nonZero);
+        }
+        setInt(x, 0);
+        setInt(y, 0);
+        // only for scalars that are not valid keys, 0 and n
+        if (result.isInfinity())
+            return Point.INFINITY;
+        final int[] ax = newElement();
+        final int[] ay = newElement();
+        result.toAffine(ax, ay);
+        return Point.affine(ax, ay);
+    }
+
+    /**
+     * The same 4 bit windows as {@link #gMultiplyConstantTime(byte[])}, most significant first, with four complete
+     * doublings before each window and a table of 1P to 15P built for the call. The table depends only on the point,
+     * which is public, so it is built with the faster variable-time formulas and converted to affine coordinates with
+     * one inversion.
+     */
+    @Override
+    public Point multiplyConstantTime(final Point point, final byte[] scalar) {
+        checkScalar(scalar);
+        if (point.isInfinity())
+            return Point.INFINITY;
+        final Scratch scratch = SCRATCH.get();
+        buildMultiples(point, scratch);
+        final ProjectivePoint result = scratch.projective;
+        final int[] x = scratch.t0;
+        final int[] y = scratch.t1;
+        result.setInfinity();
+        for (int window = WINDOWS - 1; window >= 0; window--) {
+            result.twice();
+            result.twice();
+            result.twice();
+            result.twice();
+            final int digit = (scalar[31 - (window >> 1)] >> ((window & 1) << 2)) & 0xF;
+            setInt(x, 0);
+            setInt(y, 0);
+            for (int candidate = 1; candidate < DIGITS; candidate++) {
+                final int match = ((candidate ^ digit) - 1) >> 31;
+                select(x, scratch.multipleX[candidate], match);
+                select(y, scratch.multipleY[candidate], match);
+            }
+            final int nonZero = (digit | -digit) >> 31;
+            result.addAffine(x, y, nonZero);
+        }
+        setInt(x, 0);
+        setInt(y, 0);
+        // only for scalars that are not valid keys, 0 and n
+        if (result.isInfinity())
+            return Point.INFINITY;
+        final int[] ax = newElement();
+        final int[] ay = newElement();
+        result.toAffine(ax, ay);
+        return Point.affine(ax, ay);
+    }
+
+    /**
+     * Fills the scratch tables with the affine coordinates of 1P to 15P. None of them is infinity, as P's order is n.
+     */
+    private static void buildMultiples(final Point point, final Scratch scratch) {
+        final JacobianPoint multiple = scratch.point;
+        setPoint(multiple, point);
+        final int[] product = scratch.t2;
+        setInt(product, 1);
+        for (int digit = 1; digit < DIGITS; digit++) {
+            if (digit > 1) {
+                if (point.affine)
+                    multiple.addAffine(point.x, point.y);
+                else
+                    multiple.addJacobian(point.x, point.y, point.z);
+            }
+            set(scratch.multipleX[digit], multiple.x);
+            set(scratch.multipleY[digit], multiple.y);
+            set(scratch.multipleZ[digit], multiple.z);
+            set(scratch.multipleProducts[digit], product);
+            mul(product, product, multiple.z);
+        }
+        final int[] inverse = scratch.t0;
+        inv(inverse, product, scratch.fieldScratch);
+        final int[] zInverse = scratch.t1;
+        for (int digit = DIGITS - 1; digit >= 1; digit--) {
+            mul(zInverse, inverse, scratch.multipleProducts[digit]);
+            mul(inverse, inverse, scratch.multipleZ[digit]);
+            multiple.setJacobian(scratch.multipleX[digit], scratch.multipleY[digit], scratch.multipleZ[digit]);
+            multiple.toAffine(zInverse, scratch.multipleX[digit], scratch.multipleY[digit]);
+        }
+    }
+
+    @Override
+    public Point multiply(final Point point, final byte[] scalar) {
+        return strauss(null, scalar, point);
+    }
+
+    @Override
+    public Point sumOfMultiplies(final byte[] a, final byte[] b, final Point point) {
+        return strauss(a, b, point);
+    }
+
+    /**
+     * Calculates gScalar * G + scalar * point with the halves of both scalars sharing one chain of doublings.
+     *
+     * @param gScalar Scalar for G, or null for none.
+     */
+    private static Point strauss(final byte[] gScalar, final byte[] scalar, final Point point) {
+        final Scratch scratch = SCRATCH.get();
+        int length = 0;
+        if (point.isInfinity()) {
+            Arrays.fill(scratch.pointDigits, 0);
+            Arrays.fill(scratch.lambdaPointDigits, 0);
+        } else {
+            final BigInteger[] halves = Endomorphism.split(checkScalar(scalar));
+            length = Math.max(length, Wnaf.encode(scratch.pointDigits, halves[0], POINT_WINDOW));
+            length = Math.max(length, Wnaf.encode(scratch.lambdaPointDigits, halves[1], POINT_WINDOW));
+            buildOddMultiples(point, scratch);
+        }
+        if (gScalar == null) {
+            Arrays.fill(scratch.gDigits, 0);
+            Arrays.fill(scratch.lambdaGDigits, 0);
+        } else {
+            final BigInteger[] halves = Endomorphism.split(checkScalar(gScalar));
+            length = Math.max(length, Wnaf.encode(scratch.gDigits, halves[0], G_WINDOW));
+            length = Math.max(length, Wnaf.encode(scratch.lambdaGDigits, halves[1], G_WINDOW));
+        }
+
+        final JacobianPoint result = scratch.point;
+        result.setInfinity();
+        for (int i = length - 1; i >= 0; i--) {
+            result.twice();
+            addOddMultiple(result, scratch.pointDigits[i], scratch.oddX, scratch);
+            addOddMultiple(result, scratch.lambdaPointDigits[i], scratch.oddLambdaX, scratch);
+            addOddMultipleOfG(result, scratch.gDigits[i], OddMultiplesOfG.X);
+            addOddMultipleOfG(result, scratch.lambdaGDigits[i], OddMultiplesOfG.LAMBDA_X);
+        }
+        return Point.of(result);
+    }
+
+    private static byte[] checkScalar(final byte[] scalar) {
+        if (scalar.length != 32)
+            throw new IllegalArgumentException("Scalar must be 32 bytes");
+        return scalar;
+    }
+
+    /**
+     * Fills the scratch tables with 1P, 3P, ..., in Jacobian coordinates, the x of the same multiples of lambda * P,
+     * and the negated y.
+     */
+    private static void buildOddMultiples(final Point point, final Scratch scratch) {
+        final JacobianPoint twice = scratch.tablePoint;
+        setPoint(twice, point);
+        twice.twice();
+        final JacobianPoint multiple = scratch.point;
+        setPoint(multiple, point);
+        for (int i = 0; i < POINT_TABLE_SIZE; i++) {
+            if (i > 0)
+                multiple.addJacobian(twice.x, twice.y, twice.z);
+            set(scratch.oddX[i], multiple.x);
+            set(scratch.oddY[i], multiple.y);
+            set(scratch.oddZ[i], multiple.z);
+            mul(scratch.oddLambdaX[i], multiple.x, BETA);
+            negate(scratch.oddNegatedY[i], multiple.y);
+        }
+    }
+
+    private static void setPoint(final JacobianPoint target, final Point point) {
+        if (point.affine)
+            target.setAffine(point.x, point.y);
+        else
+            target.setJacobian(point.x, point.y, point.z);
+    }
+
+    private static void addOddMultiple(final JacobianPoint result, final int digit, final int[][] tableX,
+                                       final Scratch scratch) {
+        if (digit > 0)
+            result.addJacobian(tableX[digit >> 1], scratch.oddY[digit >> 1], scratch.oddZ[digit >> 1]);
+        else if (digit < 0)
+            result.addJacobian(tableX[-digit >> 1], scratch.oddNegatedY[-digit >> 1], scratch.oddZ[-digit >> 1]);
+    }
+
+    private static void addOddMultipleOfG(final JacobianPoint result, final int digit, final int[][] tableX) {
+        if (digit > 0)
+            result.addAffine(tableX[digit >> 1], OddMultiplesOfG.Y[digit >> 1]);
+        else if (digit < 0)
+            result.addAffine(tableX[-digit >> 1], OddMultiplesOfG.NEGATED_Y[-digit >> 1]);
+    }
+
+    @Override
+    public Point decode(final byte[] encoded) {
+        final int[] x = newElement();
+        final int[] y = newElement();
+        if (encoded.length == 33 && (encoded[0] == 2 || encoded[0] == 3)) {
+            if (!setBytes(x, encoded, 1))
+                throw new IllegalArgumentException("Invalid point encoding, x is not in the field");
+            final Scratch scratch = SCRATCH.get();
+            final int[] rhs = scratch.t0;
+            curveRightHandSide(rhs, x);
+            if (!sqrt(y, rhs, scratch.fieldScratch))
+                throw new IllegalArgumentException("Invalid point encoding, x is not on the curve");
+            normalize(y);
+            if (isOdd(y) != (encoded[0] == 3)) {
+                negate(y, y);
+                normalize(y);
+            }
+            return Point.affine(x, y);
+        }
+        if (encoded.length == 65 && encoded[0] == 4) {
+            if (!setBytes(x, encoded, 1) || !setBytes(y, encoded, 33))
+                throw new IllegalArgumentException("Invalid point encoding, coordinate is not in the field");
+            final Scratch scratch = SCRATCH.get();
+            final int[] rhs = scratch.t0;
+            final int[] lhs = scratch.t1;
+            curveRightHandSide(rhs, x);
+            normalize(rhs);
+            sqr(lhs, y);
+            normalize(lhs);
+            if (!equal(lhs, rhs))
+                throw new IllegalArgumentException("Invalid point encoding, point is not on the curve");
+            return Point.affine(x, y);
+        }
+        throw new IllegalArgumentException("Invalid point encoding");
+    }
+
+    /**
+     * Sets r to x^3 + 7.
+     */
+    private static void curveRightHandSide(final int[] r, final int[] x) {
+        sqr(r, x);
+        mul(r, r, x);
+        add(r, r, SEVEN);
+    }
+
+    @Override
+    public byte[] encode(final Point point) {
+        if (point.isInfinity())
+            throw new IllegalArgumentException("Cannot encode the point at infinity");
+        final byte[] encoded = new byte[33];
+        if (point.affine) {
+            encode(point.x, point.y, encoded);
+        } else {
+            final Scratch scratch = SCRATCH.get();
+            final JacobianPoint jacobian = scratch.point;
+            jacobian.setJacobian(point.x, point.y, point.z);
+            jacobian.toAffine(scratch.t0, scratch.t1);
+            encode(scratch.t0, scratch.t1, encoded);
+        }
+        return encoded;
+    }
+
+    private static void encode(final int[] x, final int[] y, final byte[] encoded) {
+        encoded[0] = (byte) (isOdd(y) ? 3 : 2);
+        getBytes(x, encoded, 1);
+    }
+
+    @Override
+    public boolean isInfinity(final Point point) {
+        return point.isInfinity();
+    }
+
+    /**
+     * Converts all the points to affine coordinates with one field inversion (Montgomery's trick).
+     */
+    @Override
+    public void normalizeAll(final List<Point> points) {
+        final int count = points.size();
+        final int[][] products = new int[count][];
+        final Scratch scratch = SCRATCH.get();
+        final int[] product = scratch.t0;
+        setInt(product, 1);
+        boolean anyJacobian = false;
+        for (int i = 0; i < count; i++) {
+            final Point point = points.get(i);
+            if (point == null || point.isInfinity() || point.affine)
+                continue;
+            products[i] = product.clone();
+            mul(product, product, point.z);
+            anyJacobian = true;
+        }
+        if (!anyJacobian)
+            return;
+        final int[] inverse = scratch.t1;
+        inv(inverse, product, scratch.fieldScratch);
+        final int[] zInverse = scratch.t2;
+        final JacobianPoint jacobian = scratch.point;
+        for (int i = count - 1; i >= 0; i--) {
+            if (products[i] == null)
+                continue;
+            final Point point = points.get(i);
+            mul(zInverse, inverse, products[i]);
+            mul(inverse, inverse, point.z);
+            jacobian.setJacobian(point.x, point.y, point.z);
+            final int[] x = newElement();
+            final int[] y = newElement();
+            jacobian.toAffine(zInverse, x, y);
+            points.set(i, Point.affine(x, y));
+        }
+    }
+
+    private static int[] element(final String hex) {
+        final byte[] bytes = new byte[32];
+        for (int i = 0; i < 32; i++)
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        final int[] element = newElement();
+        setBytes(element, bytes, 0);
+        return element;
+    }
+
+    /**
+     * Affine odd multiples of G, 1G, 3G, 5G, ..., and of lambda * G, which only differ in x. Held in their own class so
+     * that they are only built when {@link #sumOfMultiplies} is first called.
+     */
+    private static final class OddMultiplesOfG {
+        static final int[][] X = new int[G_TABLE_SIZE][];
+        static final int[][] LAMBDA_X = new int[G_TABLE_SIZE][];
+        static final int[][] Y = new int[G_TABLE_SIZE][];
+        static final int[][] NEGATED_Y = new int[G_TABLE_SIZE][];
+
+        static {
+            final JacobianPoint point = new JacobianPoint();
+            final int[] twiceX = newElement();
+            final int[] twiceY = newElement();
+            point.setAffine(GX, GY);
+            point.twice();
+            point.toAffine(twiceX, twiceY);
+            point.setAffine(GX, GY);
+            for (int i = 0; i < G_TABLE_SIZE; i++) {
+                final int[] x = newElement();
+                final int[] y = newElement();
+                point.toAffine(x, y);
+                X[i] = x;
+                Y[i] = y;
+                LAMBDA_X[i] = newElement();
+                mul(LAMBDA_X[i], x, BETA);
+                normalize(LAMBDA_X[i]);
+                NEGATED_Y[i] = newElement();
+                negate(NEGATED_Y[i], y);
+                normalize(NEGATED_Y[i]);
+                point.addAffine(twiceX, twiceY);
+            }
+        }
+    }
+
+    private static final class Scratch {
+        final JacobianPoint point = new JacobianPoint();
+        final JacobianPoint tablePoint = new JacobianPoint();
+        final ProjectivePoint projective = new ProjectivePoint();
+        final int[] t0 = newElement();
+        final int[] t1 = newElement();
+        final int[] t2 = newElement();
+        final int[][] fieldScratch = new int[SCRATCH_SIZE][LIMBS];
+        final int[][] oddX = new int[POINT_TABLE_SIZE][LIMBS];
+        final int[][] oddLambdaX = new int[POINT_TABLE_SIZE][LIMBS];
+        final int[][] oddY = new int[POINT_TABLE_SIZE][LIMBS];
+        final int[][] oddNegatedY = new int[POINT_TABLE_SIZE][LIMBS];
+        final int[][] oddZ = new int[POINT_TABLE_SIZE][LIMBS];
+        final int[] pointDigits = new int[Wnaf.MAX_LENGTH];
+        final int[] lambdaPointDigits = new int[Wnaf.MAX_LENGTH];
+        final int[] gDigits = new int[Wnaf.MAX_LENGTH];
+        final int[] lambdaGDigits = new int[Wnaf.MAX_LENGTH];
+        final int[][] multipleX = new int[DIGITS][LIMBS];
+        final int[][] multipleY = new int[DIGITS][LIMBS];
+        final int[][] multipleZ = new int[DIGITS][LIMBS];
+        final int[][] multipleProducts = new int[DIGITS][LIMBS];
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import java.util.List;
+
+/**
+ * The secp256k1 operations that key derivation needs, so that the elliptic curve arithmetic can be supplied by
+ * another implementation than the default {@link PureJavaBackend}, such as {@link SpongyCastleBackend}.
+ * <p>
+ * The backend is chosen once, when first needed: the class named by the system property {@link #BACKEND_PROPERTY}
+ * if set, otherwise the first implementation found by {@link java.util.ServiceLoader}, otherwise
+ * {@link PureJavaBackend}. Implementations need a public no-argument constructor and must be thread safe.
+ * <p>
+ * Scalars are 32 byte big-endian unsigned integers less than the curve order n. Points are in whatever form suits the
+ * implementation and are only ever passed back to the same backend.
+ *
+ * @param <Point> The implementation's type for a curve point.
+ */
+public interface Secp256k1Backend<Point> {
+
+    /**
+     * System property naming the backend class to use.
+     */
+    String BACKEND_PROPERTY = "io.github.novacrypto.bip32.curve.backend";
+
+    /**
+     * System property that, when "true", makes private keys' public points come from
+     * {@link #gMultiplyConstantTime(byte[])} rather than {@link #gMultiply(byte[])}. It changes nothing else: ECDH
+     * always multiplies by the private key with {@link #multiplyConstantTime(Object, byte[])}, whatever the property,
+     * and {@link #multiply(Object, byte[])} and {@link #sumOfMultiplies} are never given private keys.
+     */
+    String CONSTANT_TIME_PROPERTY = "io.github.novacrypto.bip32.curve.constantTime";
+
+    /**
+     * @param scalar 32 byte scalar.
+     * @return scalar * G.
+     */
+    Point gMultiply(byte[] scalar);
+
+    /**
+     * Multiplies G by a secret, with no branches, table indexes or allocations that depend on its value, so that the
+     * time taken and the memory touched reveal nothing about it.
+     *
+     * @param scalar 32 byte scalar.
+     * @return scalar * G.
+     */
+    Point gMultiplyConstantTime(byte[] scalar);
+
+    /**
+     * @param scalar 32 byte scalar.
+     * @param point  Point to add.
+     * @return scalar * G + point, which may be the point at infinity.
+     */
+    Point gMultiplyAndAdd(byte[] scalar, Point point);
+
+    /**
+     * May take time that depends on the scalar, so is only for public scalars, see
+     * {@link #multiplyConstantTime(Object, byte[])}.
+     *
+     * @param point  Point to multiply.
+     * @param scalar 32 byte scalar.
+     * @return scalar * point, which may be the point at infinity.
+     */
+    Point multiply(Point point, byte[] scalar);
+
+    /**
+     * Multiplies a point by a secret, with no branches, table indexes or allocations that depend on its value. The
+     * point is public.
+     *
+     * @param point  Point to multiply.
+     * @param scalar 32 byte scalar.
+     * @return scalar * point, which may be the point at infinity.
+     */
+    Point multiplyConstantTime(Point point, byte[] scalar);
+
+    /**
+     * Calculates the two multiplications in one pass (Shamir's trick), sharing their doublings. May take time that
+     * depends on the scalars, so is only for public scalars.
+     *
+     * @param a     32 byte scalar for G.
+     * @param b     32 byte scalar for the point.
+     * @param point Point to multiply by b.
+     * @return a * G + b * point, which may be the point at infinity.
+     */
+    Point sumOfMultiplies(byte[] a, byte[] b, Point point);
+
+    /**
+     * @param encoded A 33 byte compressed or 65 byte uncompressed SEC encoding.
+     * @return The point.
+     * @throws IllegalArgumentException if the bytes do not encode a point on the curve.
+     */
+    Point decode(byte[] encoded);
+
+    /**
+     * @param point A point other than the point at infinity.
+     * @return The 33 byte compressed SEC encoding of the point.
+     */
+    byte[] encode(Point point);
+
+    boolean isInfinity(Point point);
+
+    /**
+     * Prepares many points for encoding at once, for example converting them all to affine coordinates with a single
+     * inversion. Elements may be replaced with equivalent points and null elements are skipped. Implementations that
+     * have nothing to prepare may do nothing.
+     *
+     * @param points The points, in a list that supports set.
+     */
+    void normalizeAll(List<Point> points);
+}
@@ -0,0 +1,128 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
+import org.spongycastle.math.ec.ECAlgorithms;
+import org.spongycastle.math.ec.ECMultiplier;
+import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
+import org.spongycastle.math.ec.FixedPointUtil;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * A {@link Secp256k1Backend} using SpongyCastle's secp256k1 implementation, whose curve is configured with the GLV
+ * endomorphism for multiplying other points.
+ */
+public final class SpongyCastleBackend implements Secp256k1Backend<ECPoint> {
+
+    private static final X9ECParameters CURVE = CustomNamedCurves.getByName("secp256k1");
+
+    /**
+     * Comb width for the fixed-base multiplier of G. The table of 2^COMB_WIDTH points is built once, when this class
+     * is loaded, and is held by the curve against G, so every multiplication of G after that reuses it.
+     */
+    private static final int COMB_WIDTH = 8;
+
+    private static final ECMultiplier G_MULTIPLIER = new FixedPointCombMultiplier();
+
+    private static final PureJavaBackend CONSTANT_TIME = new PureJavaBackend();
+
+    static {
+        FixedPointUtil.precompute(CURVE.getG(), COMB_WIDTH);
+    }
+
+    @Override
+    public ECPoint gMultiply(final byte[] scalar) {
+        return G_MULTIPLIER.multiply(CURVE.getG(), new BigInteger(1, scalar));
+    }
+
+    /**
+     * SpongyCastle's multipliers index their tables with the scalar's bits, so this uses
+     * {@link PureJavaBackend#gMultiplyConstantTime(byte[])} and decodes its result, which is public.
+     */
+    @Override
+    public ECPoint gMultiplyConstantTime(final byte[] scalar) {
+        return fromPureJava(CONSTANT_TIME.gMultiplyConstantTime(scalar));
+    }
+
+    private ECPoint fromPureJava(final PureJavaBackend.Point point) {
+        if (CONSTANT_TIME.isInfinity(point))
+            return CURVE.getCurve().getInfinity();
+        return decode(CONSTANT_TIME.encode(point));
+    }
+
+    @Override
+    public ECPoint gMultiplyAndAdd(final byte[] scalar, final ECPoint point) {
+        return gMultiply(scalar).add(point);
+    }
+
+    @Override
+    public ECPoint multiply(final ECPoint point, final byte[] scalar) {
+        return point.multiply(new BigInteger(1, scalar));
+    }
+
+    /**
+     * Uses {@link PureJavaBackend#multiplyConstantTime(PureJavaBackend.Point, byte[])} for the same reason as
+     * {@link #gMultiplyConstantTime(byte[])}.
+     */
+    @Override
+    public ECPoint multiplyConstantTime(final ECPoint point, final byte[] scalar) {
+        if (point.isInfinity())
+            return point;
+        return fromPureJava(CONSTANT_TIME.multiplyConstantTime(CONSTANT_TIME.decode(point.getEncoded(true)), scalar));
+    }
+
+    @Override
+    public ECPoint sumOfMultiplies(final byte[] a, final byte[] b, final ECPoint point) {
+        return ECAlgorithms.sumOfTwoMultiplies(CURVE.getG(), new BigInteger(1, a), point, new BigInteger(1, b));
+    }
+
+    @Override
+    public ECPoint decode(final byte[] encoded) {
+        return CURVE.getCurve().decodePoint(encoded);
+    }
+
+    @Override
+    public byte[] encode(final ECPoint point) {
+        return point.getEncoded(true);
+    }
+
+    @Override
+    public boolean isInfinity(final ECPoint point) {
+        return point.isInfinity();
+    }
+
+    /**
+     * Normalizes all the points with one field inversion (Montgomery's trick).
+     */
+    @Override
+    public void normalizeAll(final List<ECPoint> points) {
+        final ECPoint[] array = points.toArray(new ECPoint[points.size()]);
+        CURVE.getCurve().normalizeAll(array);
+        for (int i = 0; i < array.length; i++)
+            points.set(i, array[i]);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Width-w non-adjacent form: a signed recoding of a scalar whose digits are zero or odd, between -(2^(w-1) - 1) and
+ * 2^(w-1) - 1, with at least w - 1 zeros after every non-zero digit. A multiplication then needs a table of only the
+ * odd multiples 1P, 3P, ..., (2^(w-1) - 1)P and about one addition every w + 1 doublings.
+ */
+final class Wnaf {
+
+    /**
+     * Length of a digit array long enough for the halves from {@link Endomorphism#split(byte[])} with windows up to 8.
+     */
+    static final int MAX_LENGTH = 140;
+
+    private Wnaf() {
+    }
+
+    /**
+     * @param digits Array of at least {@link #MAX_LENGTH} to write the digits to, least significant first. Digits
+     *               past the returned length are zero.
+     * @param k      A signed scalar below 2^130 in magnitude.
+     * @param w      The window width, from 2 to 8.
+     * @return The number of digits, the position of the last non-zero digit plus one, 0 when k is 0.
+     */
+    static int encode(final int[] digits, final BigInteger k, final int w) {
+        Arrays.fill(digits, 0);
+        final BigInteger magnitude = k.abs();
+        final int sign = k.signum();
+        final int length = magnitude.bitLength() + w;
+        if (length > MAX_LENGTH)
+            throw new IllegalArgumentException("Scalar too large for wNAF");
+        final int[] words = words(magnitude, length);
+        int carry = 0;
+        int bit = 0;
+        int last = -1;
+        while (bit < length) {
+            if (bits(words, bit, 1) == carry) {
+                bit++;
+                continue;
+            }
+            final int now = Math.min(w, length - bit);
+            int word = bits(words, bit, now) + carry;
+            carry = (word >> (w - 1)) & 1;
+            word -= carry << w;
+            digits[bit] = sign * word;
+            last = bit;
+            bit += now;
+        }
+        return last + 1;
+    }
+
+    /**
+     * @return The magnitude as 32 bit words, least significant first, with room to read count bits at any bit below
+     * length.
+     */
+    private static int[] words(final BigInteger magnitude, final int length) {
+        final int[] words = new int[(length >> 5) + 2];
+        final byte[] bytes = magnitude.toByteArray();
+        for (int i = 0; i < bytes.length; i++) {
+            final int bit = 8 * (bytes.length - 1 - i);
+            if (bit >> 5 < words.length)
+                words[bit >> 5] |= (bytes[i] & 0xff) << (bit & 31);
+        }
+        return words;
+    }
+
+    private static int bits(final int[] words, final int bit, final int count) {
+        final long pair = (words[bit >> 5] & 0xFFFFFFFFL) | ((long) words[(bit >> 5) + 1] << 32);
+        return (int) (pair >>> (bit & 31)) & ((1 << count) - 1);
+    }
+}
@@ -27,9 +27,9 @@ import io.github.novacrypto.bip32.Networks;
 public enum DefaultNetworks implements Networks {
     INSTANCE(new NetworkCollection(Bitcoin.MAIN_NET, Litecoin.MAIN_NET, Bitcoin.TEST_NET));
 
-    private final Networks networks;
+    private final NetworkCollection networks;
 
-    DefaultNetworks(final Networks networks) {
+    DefaultNetworks(final NetworkCollection networks) {
 
         this.networks = networks;
     }
@@ -43,4 +43,18 @@ public enum DefaultNetworks implements Networks {
     public Network findByPublicVersion(final int publicVersion) {
         return networks.findByPublicVersion(publicVersion);
     }
-}
\ No newline at end of file
+
+    /**
+     * @see NetworkCollection#findByPrivateVersionOrNull(int)
+     */
+    public Network findByPrivateVersionOrNull(final int privateVersion) {
+        return networks.findByPrivateVersionOrNull(privateVersion);
+    }
+
+    /**
+     * @see NetworkCollection#findByPublicVersionOrNull(int)
+     */
+    public Network findByPublicVersionOrNull(final int publicVersion) {
+        return networks.findByPublicVersionOrNull(publicVersion);
+    }
+}
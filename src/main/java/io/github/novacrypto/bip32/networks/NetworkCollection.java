@@ -24,31 +24,61 @@ package io.github.novacrypto.bip32.networks;
 import io.github.novacrypto.bip32.Network;
 import io.github.novacrypto.bip32.Networks;
 
-import java.util.Arrays;
-import java.util.List;
-
+/**
+ * A fixed set of networks, looked up by version in hash indexes built once when the collection is created.
+ * <p>
+ * Where networks share a version, the first given is found.
+ */
 public final class NetworkCollection implements Networks {
-    private final List<? extends Network> networks;
+    private final VersionIndex byPrivateVersion;
+    private final VersionIndex byPublicVersion;
 
     public NetworkCollection(final Network... networks) {
-        this.networks = Arrays.asList(networks);
+        final int[] privateVersions = new int[networks.length];
+        final int[] publicVersions = new int[networks.length];
+        for (int i = 0; i < networks.length; i++) {
+            if (networks[i] == null)
+                throw new IllegalArgumentException("Network is null");
+            privateVersions[i] = networks[i].getPrivateVersion();
+            publicVersions[i] = networks[i].getPublicVersion();
+        }
+        byPrivateVersion = new VersionIndex(networks, privateVersions);
+        byPublicVersion = new VersionIndex(networks, publicVersions);
     }
 
     @Override
     public Network findByPrivateVersion(final int privateVersion) {
-        for (final Network network : networks) {
-            if (network.getPrivateVersion() == privateVersion)
-                return network;
-        }
-        throw new UnknownNetworkException(String.format("Can't find network that matches private version 0x%x", privateVersion));
+        final Network network = byPrivateVersion.get(privateVersion);
+        if (network == null)
+            throw new UnknownNetworkException(String.format("Can't find network that matches private version 0x%x", privateVersion));
+        return network;
     }
 
     @Override
     public Network findByPublicVersion(final int publicVersion) {
-        for (final Network network : networks) {
-            if (network.getPublicVersion() == publicVersion)
-                return network;
-        }
-        throw new UnknownNetworkException(String.format("Can't find network that matches public version 0x%x", publicVersion));
+        final Network network = byPublicVersion.get(publicVersion);
+        if (network == null)
+            throw new UnknownNetworkException(String.format("Can't find network that matches public version 0x%x", publicVersion));
+        return network;
+    }
+
+    /**
+     * As {@link #findByPrivateVersion(int)}, but without the cost of an exception for unknown versions.
+     *
+     * @param privateVersion The version of a serialized private key.
+     * @return The network, or null if there is none with the version.
+     */
+    public Network findByPrivateVersionOrNull(final int privateVersion) {
+        return byPrivateVersion.get(privateVersion);
+    }
+
+    /**
+     * As {@link #findByPublicVersion(int)}, but without the cost of an exception for unknown versions.
+     *
+     * @param publicVersion The version of a serialized public key.
+     * @return The network, or null if there is none with the version.
+     */
+    public Network findByPublicVersionOrNull(final int publicVersion) {
+        return byPublicVersion.get(publicVersion);
     }
-}
\ No newline at end of file
+}
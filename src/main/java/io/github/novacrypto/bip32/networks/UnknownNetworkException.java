@@ -22,7 +22,7 @@
 package io.github.novacrypto.bip32.networks;
 
 public final class UnknownNetworkException extends RuntimeException {
-    UnknownNetworkException(final String message) {
+    public UnknownNetworkException(final String message) {
         super(message);
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.networks;
+
+import io.github.novacrypto.bip32.Network;
+
+/**
+ * An immutable hash table from a version to the first network given with that version.
+ * <p>
+ * Open addressing with linear probing in a table at least twice the number of networks, so a lookup is one or two
+ * probes of an int array, with no boxing.
+ */
+final class VersionIndex {
+
+    private final int[] versions;
+    private final Network[] networks;
+    private final int mask;
+
+    VersionIndex(final Network[] networks, final int[] versions) {
+        int capacity = 2;
+        while (capacity < 2 * networks.length)
+            capacity <<= 1;
+        this.versions = new int[capacity];
+        this.networks = new Network[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < networks.length; i++) {
+            int slot = slot(versions[i]);
+            while (this.networks[slot] != null && this.versions[slot] != versions[i])
+                slot = (slot + 1) & mask;
+            if (this.networks[slot] == null) {
+                this.versions[slot] = versions[i];
+                this.networks[slot] = networks[i];
+            }
+        }
+    }
+
+    /**
+     * @return The network with the version, or null if there is none.
+     */
+    Network get(final int version) {
+        int slot = slot(version);
+        Network network;
+        while ((network = networks[slot]) != null) {
+            if (versions[slot] == version)
+                return network;
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private int slot(final int version) {
+        final int hash = version * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
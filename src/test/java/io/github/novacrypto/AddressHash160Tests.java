@@ -0,0 +1,96 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static io.github.novacrypto.base58.Base58.base58Decode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
+
+public final class AddressHash160Tests {
+
+    private static final ExtendedPublicKey chain =
+            ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET).derive("m/44'/0'/0'/0").neuter();
+
+    @Test
+    public void p2pkhHash160IsAddressPayload() {
+        final ExtendedPublicKey key = chain.cKDpub(3);
+        assertArrayEquals(payload(key.p2pkhAddress()), key.p2pkhHash160());
+    }
+
+    @Test
+    public void p2shScriptHashIsAddressPayload() {
+        final ExtendedPublicKey key = chain.cKDpub(3);
+        assertArrayEquals(payload(key.p2shAddress()), key.p2shScriptHash());
+    }
+
+    @Test
+    public void writesAtOffset() {
+        final ExtendedPublicKey key = chain.cKDpub(5);
+        final byte[] target = new byte[45];
+        key.p2pkhHash160(target, 2);
+        key.p2shScriptHash(target, 25);
+        assertArrayEquals(key.p2pkhHash160(), Arrays.copyOfRange(target, 2, 22));
+        assertArrayEquals(key.p2shScriptHash(), Arrays.copyOfRange(target, 25, 45));
+        assertArrayEquals(new byte[2], Arrays.copyOfRange(target, 0, 2));
+    }
+
+    @Test
+    public void p2pkhHash160Range() {
+        final byte[] target = new byte[1 + 10 * 20];
+        chain.deriveP2pkhHash160Range(100, 10, target, 1);
+        for (int i = 0; i < 10; i++)
+            assertArrayEquals(chain.cKDpub(100 + i).p2pkhHash160(), Arrays.copyOfRange(target, 1 + i * 20, 21 + i * 20));
+    }
+
+    @Test
+    public void p2shScriptHashRange() {
+        final byte[] target = new byte[10 * 20];
+        chain.deriveP2shScriptHashRange(0, 10, target, 0);
+        for (int i = 0; i < 10; i++)
+            assertArrayEquals(chain.cKDpub(i).p2shScriptHash(), Arrays.copyOfRange(target, i * 20, 20 + i * 20));
+    }
+
+    @Test
+    public void notEnoughRoom() {
+        assertThatThrownBy(() -> chain.p2pkhHash160(new byte[20], 1))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessage("Not enough room in target for 20 bytes");
+    }
+
+    @Test
+    public void notEnoughRoomForRange() {
+        assertThatThrownBy(() -> chain.deriveP2shScriptHashRange(0, 3, new byte[59], 0))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessage("Not enough room in target for 60 bytes");
+    }
+
+    private static byte[] payload(final String address) {
+        return Arrays.copyOfRange(base58Decode(address), 1, 21);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.CompiledPath;
+import io.github.novacrypto.bip32.ExtendedKey;
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.IllegalCKDCall;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import static io.github.novacrypto.Asserts.assertBase58KeysEqual;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class CompiledPathTests {
+
+    private static final ExtendedPrivateKey root = ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET);
+
+    @Test
+    public void fixedPrivatePath() {
+        final CompiledPath path = CompiledPath.compile("m/44'/0'/0'/0/7");
+        assertFalse(path.hasVariableIndex());
+        assertEquals(5, path.depth());
+        assertSameKey(root.derive("m/44'/0'/0'/0/7"), root.derive(path));
+    }
+
+    @Test
+    public void hAsHardenedMarker() {
+        assertSameKey(root.derive("m/44'/0'"), root.derive(CompiledPath.compile("m/44h/0h")));
+    }
+
+    @Test
+    public void rootPath() {
+        final CompiledPath path = CompiledPath.compile("m");
+        assertEquals(0, path.depth());
+        assertSameKey(root, root.derive(path));
+    }
+
+    @Test
+    public void variableIndex() {
+        final CompiledPath path = CompiledPath.compile("m/44'/0'/0'/0/*");
+        assertTrue(path.hasVariableIndex());
+        assertEquals(5, path.depth());
+        for (int i = 0; i < 5; i++)
+            assertSameKey(root.derive("m/44'/0'/0'/0/" + i), root.derive(path, i));
+    }
+
+    @Test
+    public void hardenedVariableIndex() {
+        final CompiledPath path = CompiledPath.compile("m/44'/0'/*'");
+        assertSameKey(root.derive("m/44'/0'/3'"), root.derive(path, 3));
+    }
+
+    @Test
+    public void publicPath() {
+        final ExtendedPublicKey account = root.derive("m/44'/0'/0'").neuter();
+        assertSameKey(account.derive("m/1/5"), account.derive(CompiledPath.compile("m/1/5")));
+        assertSameKey(account.derive("m/1/5"), account.derive(CompiledPath.compile("m/1/*"), 5));
+    }
+
+    @Test
+    public void publicPathCannotBeHardened() {
+        final ExtendedPublicKey account = root.neuter();
+        assertThatThrownBy(() -> account.derive(CompiledPath.compile("m/1/2'")))
+                .isInstanceOf(IllegalCKDCall.class)
+                .hasMessage("Cannot derive a hardened key from a public key");
+        assertThatThrownBy(() -> account.derive(CompiledPath.compile("m/1/*'"), 0))
+                .isInstanceOf(IllegalCKDCall.class)
+                .hasMessage("Cannot derive a hardened key from a public key");
+    }
+
+    @Test
+    public void withDerivationAndCache() {
+        final CompiledPath path = CompiledPath.compile("m/44'/0'/0'");
+        assertSameKey(root.derive("m/44'/0'/0'"), root.deriveWithCache().derive(path, CompiledPath.DERIVATION));
+    }
+
+    @Test
+    public void variableIndexMustBeSupplied() {
+        assertThatThrownBy(() -> root.derive(CompiledPath.compile("m/0/*")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Path m/0/* needs an index for *");
+        assertThatThrownBy(() -> root.derive(CompiledPath.compile("m/0/*"), CompiledPath.DERIVATION))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Path m/0/* needs an index for *");
+    }
+
+    @Test
+    public void noVariableIndexToSupply() {
+        assertThatThrownBy(() -> root.derive(CompiledPath.compile("m/0/1"), 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Path m/0/1 has no variable index");
+    }
+
+    @Test
+    public void mustStartWithM() {
+        assertThatThrownBy(() -> CompiledPath.compile("44'/0'"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Path must start with m");
+        assertThatThrownBy(() -> CompiledPath.compile(""))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Path must start with m");
+    }
+
+    @Test
+    public void malformed() {
+        for (final String path : new String[]{"m/", "m//1", "m/a", "m/1x", "m1"})
+            assertThatThrownBy(() -> CompiledPath.compile(path))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Malformed path " + path);
+    }
+
+    @Test
+    public void variableIndexMustBeLast() {
+        assertThatThrownBy(() -> CompiledPath.compile("m/*/1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only the last index of a path can be *");
+    }
+
+    @Test
+    public void indexTooLarge() {
+        assertThatThrownBy(() -> CompiledPath.compile("m/2147483648"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Index too large in path m/2147483648");
+    }
+
+    @Test
+    public void largestIndex() {
+        assertSameKey(root.cKDpriv(0x7fffffff), root.derive(CompiledPath.compile("m/2147483647")));
+    }
+
+    @Test
+    public void toStringIsSourcePath() {
+        assertEquals("m/44'/0'/*", CompiledPath.compile("m/44'/0'/*").toString());
+    }
+
+    private static void assertSameKey(final ExtendedKey expected, final ExtendedKey actual) {
+        assertBase58KeysEqual(expected.extendedBase58(), actual.extendedBase58());
+    }
+}
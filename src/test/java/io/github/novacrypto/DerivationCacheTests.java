@@ -0,0 +1,142 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.DerivationCache;
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.derivation.Derive;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.github.novacrypto.Asserts.assertBase58KeysEqual;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public final class DerivationCacheTests {
+
+    private static final ExtendedPrivateKey root = ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET);
+
+    @Test
+    public void sameChildIsReturned() {
+        final Derive<ExtendedPublicKey> derive = root.neuter().deriveWithCache(new DerivationCache(100));
+        assertSame(derive.derive("m/0/1/2"), derive.derive("m/0/1/2"));
+    }
+
+    @Test
+    public void derivesCorrectKeys() {
+        final Derive<ExtendedPrivateKey> derive = root.deriveWithCache(new DerivationCache(100));
+        derive.derive("m/44'/0'/0'");
+        assertBase58KeysEqual(root.derive("m/44'/0'/0'/0/1").extendedBase58(),
+                derive.derive("m/44'/0'/0'/0/1").extendedBase58());
+    }
+
+    @Test
+    public void hitsAndMisses() {
+        final DerivationCache cache = new DerivationCache(100);
+        final Derive<ExtendedPublicKey> derive = root.neuter().deriveWithCache(cache);
+        derive.derive("m/0/1");
+        assertEquals(0, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        derive.derive("m/0/2");
+        assertEquals(1, cache.hitCount());
+        assertEquals(3, cache.missCount());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void equalParentsShareEntries() {
+        final String xpub = root.neuter().extendedBase58();
+        final DerivationCache cache = new DerivationCache(100);
+        final ExtendedPublicKey first = ExtendedPublicKey.deserializer().deserialize(xpub)
+                .deriveWithCache(cache).derive("m/0");
+        final ExtendedPublicKey second = ExtendedPublicKey.deserializer().deserialize(xpub)
+                .deriveWithCache(cache).derive("m/0");
+        assertSame(first, second);
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    public void privateAndPublicParentsDoNotShareEntries() {
+        final DerivationCache cache = new DerivationCache(100);
+        final ExtendedPrivateKey privateChild = root.deriveWithCache(cache).derive("m/0");
+        final ExtendedPublicKey publicChild = root.neuter().deriveWithCache(cache).derive("m/0");
+        assertEquals(0, cache.hitCount());
+        assertBase58KeysEqual(privateChild.neuter().extendedBase58(), publicChild.extendedBase58());
+    }
+
+    @Test
+    public void evictsWhenFull() {
+        final DerivationCache cache = new DerivationCache(4);
+        final Derive<ExtendedPublicKey> derive = root.neuter().deriveWithCache(cache);
+        for (int i = 0; i < 10; i++)
+            derive.derive("m/" + i);
+        assertEquals(4, cache.size());
+        assertEquals(6, cache.evictionCount());
+    }
+
+    @Test
+    public void sizeIsBoundedAcrossSegments() {
+        final DerivationCache cache = new DerivationCache(50);
+        final ExtendedPublicKey[] children = root.neuter().deriveRange(0, 40);
+        for (ExtendedPublicKey child : children)
+            for (int i = 0; i < 5; i++)
+                child.deriveWithCache(cache).derive("m/" + i);
+        assertTrue(cache.size() <= 50);
+        assertEquals(200 - cache.size(), cache.evictionCount());
+    }
+
+    @Test
+    public void concurrentUse() throws Exception {
+        final DerivationCache cache = new DerivationCache(1000);
+        final Derive<ExtendedPublicKey> derive = root.neuter().deriveWithCache(cache);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<ExtendedPublicKey>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final String path = "m/" + (i % 8) + "/1";
+                futures.add(executor.submit(() -> derive.derive(path)));
+            }
+            for (int i = 0; i < futures.size(); i++)
+                assertSame(futures.get(i % 8).get(), futures.get(i).get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(16, cache.size());
+        assertEquals(128, cache.hitCount() + cache.missCount());
+    }
+
+    @Test
+    public void maximumSizeMustBePositive() {
+        assertThatThrownBy(() -> new DerivationCache(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Maximum size must be at least 1");
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.DerivationExecutor;
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.IllegalCKDCall;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static io.github.novacrypto.Asserts.assertBase58KeysEqual;
+import static io.github.novacrypto.bip32.Index.hard;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public final class DerivationExecutorTests {
+
+    private static final ExtendedPrivateKey root = ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET);
+
+    @Test
+    public void publicRangeInIndexOrder() {
+        final ExtendedPublicKey parent = root.derive("m/44'/0'/0'/0").neuter();
+        try (DerivationExecutor executor = smallBatchExecutor()) {
+            assertSameAsSequential(parent.deriveRange(5, 50), executor.deriveRange(parent, 5, 50));
+        }
+    }
+
+    @Test
+    public void emptyPublicRange() {
+        try (DerivationExecutor executor = smallBatchExecutor()) {
+            assertEquals(0, executor.deriveRange(root.neuter(), 0, 0).length);
+        }
+    }
+
+    @Test
+    public void manyParents() {
+        final ExtendedPublicKey[] parents = {
+                root.derive("m/44'/0'/0'/0").neuter(),
+                root.derive("m/44'/0'/0'/1").neuter(),
+                root.derive("m/44'/0'/1'/0").neuter()
+        };
+        try (DerivationExecutor executor = smallBatchExecutor()) {
+            final ExtendedPublicKey[][] children = executor.deriveRange(parents, 0, 20);
+            assertEquals(parents.length, children.length);
+            for (int p = 0; p < parents.length; p++)
+                assertSameAsSequential(parents[p].deriveRange(0, 20), children[p]);
+        }
+    }
+
+    @Test
+    public void privateRangeIncludingHardened() {
+        try (DerivationExecutor executor = smallBatchExecutor()) {
+            assertSameAsSequential(root.deriveRange(hard(0) - 10, 20), executor.deriveRange(root, hard(0) - 10, 20));
+        }
+    }
+
+    @Test
+    public void privateRangeChildNumbers() {
+        try (DerivationExecutor executor = smallBatchExecutor()) {
+            final ExtendedPrivateKey[] children = executor.deriveRange(root, hard(3), 10);
+            for (int i = 0; i < children.length; i++)
+                assertEquals(hard(3) + i, children[i].childNumber());
+        }
+    }
+
+    @Test
+    public void privateRangeCannotPassLastIndex() {
+        try (DerivationExecutor executor = smallBatchExecutor()) {
+            assertThatThrownBy(() -> executor.deriveRange(root, -1, 2))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Range goes beyond the last child index");
+        }
+    }
+
+    @Test
+    public void privateRangeCanEndAtLastIndex() {
+        try (DerivationExecutor executor = smallBatchExecutor()) {
+            assertEquals(-1, executor.deriveRange(root, -2, 2)[1].childNumber());
+        }
+    }
+
+    @Test
+    public void publicRangeCannotBeHardened() {
+        try (DerivationExecutor executor = smallBatchExecutor()) {
+            assertThatThrownBy(() -> executor.deriveRange(root.neuter(), hard(0) - 1, 2))
+                    .isInstanceOf(IllegalCKDCall.class);
+        }
+    }
+
+    @Test
+    public void negativeCount() {
+        try (DerivationExecutor executor = smallBatchExecutor()) {
+            assertThatThrownBy(() -> executor.deriveRange(root, 0, -1))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Count must not be negative");
+        }
+    }
+
+    @Test
+    public void suppliedPoolIsNotShutDown() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            new DerivationExecutor.Builder()
+                    .pool(pool)
+                    .build()
+                    .close();
+            assertFalse(pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelismMustBePositive() {
+        assertThatThrownBy(() -> new DerivationExecutor.Builder().parallelism(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Parallelism must be at least 1");
+    }
+
+    @Test
+    public void batchSizeMustBePositive() {
+        assertThatThrownBy(() -> new DerivationExecutor.Builder().batchSize(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Batch size must be at least 1");
+    }
+
+    private static DerivationExecutor smallBatchExecutor() {
+        return new DerivationExecutor.Builder()
+                .parallelism(4)
+                .batchSize(3)
+                .build();
+    }
+
+    private static void assertSameAsSequential(final ExtendedPublicKey[] expected, final ExtendedPublicKey[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++)
+            assertBase58KeysEqual(expected[i].extendedBase58(), actual[i].extendedBase58());
+    }
+
+    private static void assertSameAsSequential(final ExtendedPrivateKey[] expected, final ExtendedPrivateKey[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++)
+            assertBase58KeysEqual(expected[i].extendedBase58(), actual[i].extendedBase58());
+    }
+}
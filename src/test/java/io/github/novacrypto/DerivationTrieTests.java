@@ -0,0 +1,166 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.CompiledPath;
+import io.github.novacrypto.bip32.DerivationTrie;
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.IllegalCKDCall;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.github.novacrypto.Asserts.assertBase58KeysEqual;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public final class DerivationTrieTests {
+
+    private static final ExtendedPrivateKey root = ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET);
+    private static final CompiledPath ADDRESS = CompiledPath.compile("m/44'/0'/0'/0/*");
+
+    @Test
+    public void derivesCorrectKeys() {
+        final DerivationTrie trie = new DerivationTrie(100);
+        for (int i = 0; i < 3; i++)
+            assertBase58KeysEqual(root.derive("m/44'/0'/0'/0/" + i).extendedBase58(),
+                    trie.derive(root, ADDRESS, i).extendedBase58());
+    }
+
+    @Test
+    public void sameKeyIsReturned() {
+        final DerivationTrie trie = new DerivationTrie(100);
+        assertSame(trie.derive(root, ADDRESS, 4), trie.derive(root, ADDRESS, 4));
+    }
+
+    @Test
+    public void reusesDeepestAncestor() {
+        final DerivationTrie trie = new DerivationTrie(100);
+        trie.derive(root, ADDRESS, 0);
+        assertEquals(0, trie.hitCount());
+        assertEquals(5, trie.missCount());
+        trie.derive(root, ADDRESS, 1);
+        assertEquals(4, trie.hitCount());
+        assertEquals(6, trie.missCount());
+        trie.derive(root, CompiledPath.compile("m/44'/0'/0'/1/0"));
+        assertEquals(7, trie.hitCount());
+        assertEquals(8, trie.missCount());
+        assertEquals(1 + 4 + 2 + 2, trie.size());
+    }
+
+    @Test
+    public void ancestorIsSharedWithLaterDescendants() {
+        final DerivationTrie trie = new DerivationTrie(100);
+        final ExtendedPrivateKey account = trie.derive(root, CompiledPath.compile("m/44'/0'/0'"));
+        assertSame(account, trie.derive(root, CompiledPath.compile("m/44'/0'/0'")));
+        trie.derive(root, ADDRESS, 0);
+        assertEquals(3 + 3, trie.hitCount());
+    }
+
+    @Test
+    public void equalRootsShareTree() {
+        final DerivationTrie trie = new DerivationTrie(100);
+        final ExtendedPrivateKey sameRoot = ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET);
+        assertSame(trie.derive(root, ADDRESS, 0), trie.derive(sameRoot, ADDRESS, 0));
+    }
+
+    @Test
+    public void privateAndPublicRootsAreSeparate() {
+        final DerivationTrie trie = new DerivationTrie(100);
+        final CompiledPath path = CompiledPath.compile("m/0/1");
+        final ExtendedPrivateKey privateChild = trie.derive(root, path);
+        final ExtendedPublicKey publicChild = trie.derive(root.neuter(), path);
+        assertBase58KeysEqual(privateChild.neuter().extendedBase58(), publicChild.extendedBase58());
+        assertEquals(6, trie.size());
+    }
+
+    @Test
+    public void emptyPathReturnsRoot() {
+        final DerivationTrie trie = new DerivationTrie(100);
+        assertSame(root, trie.derive(root, CompiledPath.compile("m")));
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void evictsColdLeavesFirst() {
+        final DerivationTrie trie = new DerivationTrie(8);
+        for (int i = 0; i < 10; i++)
+            trie.derive(root, ADDRESS, i);
+        assertEquals(8, trie.size());
+        assertEquals(7, trie.evictionCount());
+        final long misses = trie.missCount();
+        trie.derive(root, ADDRESS, 9);
+        trie.derive(root, ADDRESS, 7);
+        assertEquals(misses, trie.missCount());
+        trie.derive(root, ADDRESS, 0);
+        assertEquals(misses + 1, trie.missCount());
+    }
+
+    @Test
+    public void smallerThanPath() {
+        final DerivationTrie trie = new DerivationTrie(2);
+        assertBase58KeysEqual(root.derive("m/44'/0'/0'/0/3").extendedBase58(),
+                trie.derive(root, ADDRESS, 3).extendedBase58());
+        assertEquals(2, trie.size());
+        assertBase58KeysEqual(root.derive("m/44'/0'/0'/0/3").extendedBase58(),
+                trie.derive(root, ADDRESS, 3).extendedBase58());
+    }
+
+    @Test
+    public void publicPathCannotBeHardened() {
+        assertThatThrownBy(() -> new DerivationTrie(10).derive(root.neuter(), ADDRESS, 0))
+                .isInstanceOf(IllegalCKDCall.class)
+                .hasMessage("Cannot derive a hardened key from a public key");
+    }
+
+    @Test
+    public void maximumSizeMustBePositive() {
+        assertThatThrownBy(() -> new DerivationTrie(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Maximum size must be at least 1");
+    }
+
+    @Test
+    public void concurrentDerivation() throws Exception {
+        final DerivationTrie trie = new DerivationTrie(30);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int index = i % 40;
+                results.add(executor.submit(() -> trie.derive(root, ADDRESS, index).extendedBase58()));
+            }
+            for (int i = 0; i < 200; i++)
+                assertEquals(root.derive("m/44'/0'/0'/0/" + (i % 40)).extendedBase58(), results.get(i).get());
+            assertEquals(30, trie.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
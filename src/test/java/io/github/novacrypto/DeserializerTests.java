@@ -67,6 +67,24 @@ public final class DeserializerTests {
                 .hasMessage("Expected 0 padding at position 45");
     }
 
+    @Test
+    public void deserializeBadBase58Character() {
+        final String base58 = testNetPublic.substring(0, 50) + "0" + testNetPublic.substring(51);
+        assertThatThrownBy(() ->
+                ExtendedPublicKey.deserializer().deserialize(base58)
+        ).isInstanceOf(BadKeySerializationException.class)
+                .hasMessage("Bad Base58 character");
+    }
+
+    @Test
+    public void deserializeTruncatedBase58() {
+        final String base58 = testNetPrivate.substring(0, 100);
+        assertThatThrownBy(() ->
+                ExtendedPrivateKey.deserializer().deserialize(base58)
+        ).isInstanceOf(BadKeySerializationException.class)
+                .hasMessage("Not the Base58 of an 82 byte extended key");
+    }
+
     private void rewriteChecksum(byte[] bytes) {
         final byte[] checksum = sha256Twice(bytes, 0, 78);
         System.arraycopy(checksum, 0, bytes, 78, 4);
@@ -0,0 +1,72 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.IllegalCKDCall;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class EcdhTests {
+
+    private static final ExtendedPrivateKey alice = ExtendedPrivateKey.fromSeed(new byte[]{1}, Bitcoin.MAIN_NET);
+    private static final ExtendedPrivateKey bob = ExtendedPrivateKey.fromSeed(new byte[]{2}, Bitcoin.MAIN_NET);
+
+    @Test
+    public void bothPartiesCalculateTheSamePoint() {
+        final byte[] shared = alice.ecdh(bob.neuter());
+        assertEquals(33, shared.length);
+        assertArrayEquals(shared, bob.ecdh(alice.neuter()));
+    }
+
+    @Test
+    public void derivedKeys() {
+        final ExtendedPrivateKey aliceChild = alice.derive("m/0'/5");
+        final ExtendedPrivateKey bobChild = bob.derive("m/1/2");
+        assertArrayEquals(aliceChild.ecdh(bobChild.neuter()), bobChild.ecdh(aliceChild.neuter()));
+    }
+
+    @Test
+    public void withChildOfPublicKeyMatchesDerivingTheChild() {
+        final ExtendedPublicKey bobParent = bob.derive("m/44'/0'/0'/0").neuter();
+        for (int i = 0; i < 10; i++)
+            assertArrayEquals(alice.ecdh(bobParent.cKDpub(i)), alice.ecdh(bobParent, i));
+    }
+
+    @Test
+    public void withChildOfPublicKeyMatchesTheChildsPrivateKey() {
+        final ExtendedPrivateKey bobParent = bob.derive("m/7");
+        assertArrayEquals(bobParent.cKDpriv(3).ecdh(alice.neuter()), alice.ecdh(bobParent.neuter(), 3));
+    }
+
+    @Test
+    public void withHardenedChildOfPublicKey() {
+        assertThatThrownBy(() -> alice.ecdh(bob.neuter(), 0x80000000))
+                .isInstanceOf(IllegalCKDCall.class)
+                .hasMessage("Cannot derive a hardened key from a public key");
+    }
+}
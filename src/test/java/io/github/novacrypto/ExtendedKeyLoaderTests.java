@@ -0,0 +1,226 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.BadKeySerializationException;
+import io.github.novacrypto.bip32.ExtendedKey;
+import io.github.novacrypto.bip32.ExtendedKeyLoader;
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import io.github.novacrypto.bip32.networks.NetworkCollection;
+import io.github.novacrypto.bip32.networks.UnknownNetworkException;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.github.novacrypto.bip32.ExtendedKeyLoader.Format.BASE58_LINES;
+import static io.github.novacrypto.bip32.ExtendedKeyLoader.Format.RECORDS;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class ExtendedKeyLoaderTests {
+
+    private static final ExtendedPrivateKey root =
+            ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET).derive("m/44'/0'/0'");
+    private static final ExtendedPrivateKey[] privateKeys = root.deriveRange(0, 300);
+    private static final ExtendedPublicKey[] publicKeys = root.neuter().deriveRange(0, 300);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExtendedKeyLoader loader = new ExtendedKeyLoader.Builder()
+            .parallelism(4)
+            .chunkSize(1024)
+            .build();
+
+    @After
+    public void closeLoader() {
+        loader.close();
+    }
+
+    @Test
+    public void publicLinesFromChannel() throws Exception {
+        assertKeys(publicKeys, loader.loadPublic(channel(lines(publicKeys, "\n")), BASE58_LINES));
+    }
+
+    @Test
+    public void privateLinesFromChannel() throws Exception {
+        assertKeys(privateKeys, loader.loadPrivate(channel(lines(privateKeys, "\n")), BASE58_LINES));
+    }
+
+    @Test
+    public void publicRecordsFromChannel() throws Exception {
+        assertKeys(publicKeys, loader.loadPublic(channel(records(publicKeys)), RECORDS));
+    }
+
+    @Test
+    public void privateRecordsFromChannel() throws Exception {
+        assertKeys(privateKeys, loader.loadPrivate(channel(records(privateKeys)), RECORDS));
+    }
+
+    @Test
+    public void publicLinesFromFile() throws Exception {
+        assertKeys(publicKeys, loader.loadPublic(file(lines(publicKeys, "\n")), BASE58_LINES));
+    }
+
+    @Test
+    public void privateRecordsFromFile() throws Exception {
+        assertKeys(privateKeys, loader.loadPrivate(file(records(privateKeys)), RECORDS));
+    }
+
+    @Test
+    public void windowsLineEndingsBlankLinesAndNoFinalNewline() throws Exception {
+        final String keys = new String(lines(publicKeys, " \r\n\r\n"), StandardCharsets.US_ASCII);
+        final String text = "\r\n  " + keys.trim() + "\t";
+        final byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        assertKeys(publicKeys, loader.loadPublic(channel(bytes), BASE58_LINES));
+        assertKeys(publicKeys, loader.loadPublic(file(bytes), BASE58_LINES));
+    }
+
+    @Test
+    public void emptyInput() throws Exception {
+        assertTrue(loader.loadPublic(channel(new byte[0]), BASE58_LINES).isEmpty());
+        assertTrue(loader.loadPublic(file(new byte[0]), RECORDS).isEmpty());
+    }
+
+    @Test
+    public void channelThatReadsAFewBytesAtATime() throws Exception {
+        final InputStream slow = new ByteArrayInputStream(lines(publicKeys, "\n")) {
+            @Override
+            public synchronized int read(final byte[] b, final int off, final int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+        assertKeys(publicKeys, loader.loadPublic(Channels.newChannel(slow), BASE58_LINES));
+    }
+
+    @Test
+    public void badChecksumGivesPosition() throws Exception {
+        final byte[] bytes = records(publicKeys);
+        bytes[82 * 200 + 50] ^= 1;
+        assertThatThrownBy(() -> loader.loadPublic(channel(bytes), RECORDS))
+                .isInstanceOf(BadKeySerializationException.class)
+                .hasMessage("At byte " + 82 * 200 + ": Checksum error");
+    }
+
+    @Test
+    public void badLineGivesPosition() throws Exception {
+        final String line = publicKeys[0].extendedBase58();
+        final String text = line + "\n" + line.substring(1) + "\n";
+        assertThatThrownBy(() -> loader.loadPublic(file(text.getBytes(StandardCharsets.US_ASCII)), BASE58_LINES))
+                .isInstanceOf(BadKeySerializationException.class)
+                .hasMessage("At byte " + (line.length() + 1) + ": Not the Base58 of an 82 byte extended key");
+    }
+
+    @Test
+    public void truncatedRecord() throws Exception {
+        final byte[] bytes = records(publicKeys);
+        final byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assertThatThrownBy(() -> loader.loadPublic(channel(truncated), RECORDS))
+                .isInstanceOf(BadKeySerializationException.class)
+                .hasMessage("At byte " + 82 * 299 + ": Truncated record");
+    }
+
+    @Test
+    public void versionsAreCheckedAgainstTheNetworks() throws Exception {
+        try (ExtendedKeyLoader testNetOnly = new ExtendedKeyLoader.Builder()
+                .networks(new NetworkCollection(Bitcoin.TEST_NET))
+                .build()) {
+            assertThatThrownBy(() -> testNetOnly.loadPublic(channel(records(publicKeys)), RECORDS))
+                    .isInstanceOf(UnknownNetworkException.class)
+                    .hasMessage("At byte 0: Can't find network that matches public version 0x488b21e");
+        }
+    }
+
+    @Test
+    public void privateKeysAreNotPublicKeys() throws Exception {
+        assertThatThrownBy(() -> loader.loadPublic(channel(records(privateKeys)), RECORDS))
+                .isInstanceOf(UnknownNetworkException.class);
+    }
+
+    @Test
+    public void unknownVersionInLinesGivesPosition() throws Exception {
+        final String line = publicKeys[0].extendedBase58();
+        final String text = line + "\n\n" + privateKeys[1].extendedBase58() + "\n";
+        assertThatThrownBy(() -> loader.loadPublic(file(text.getBytes(StandardCharsets.US_ASCII)), BASE58_LINES))
+                .isInstanceOf(UnknownNetworkException.class)
+                .hasMessage("At byte " + (line.length() + 2)
+                        + ": Can't find network that matches public version 0x488ade4");
+    }
+
+    @Test
+    public void chunkSizeMustBeAtLeast1024() {
+        assertThatThrownBy(() -> new ExtendedKeyLoader.Builder().chunkSize(1023))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Chunk size must be at least 1024");
+    }
+
+    @Test
+    public void parallelismMustBePositive() {
+        assertThatThrownBy(() -> new ExtendedKeyLoader.Builder().parallelism(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Parallelism must be at least 1");
+    }
+
+    private static void assertKeys(final ExtendedKey[] expected, final List<? extends ExtendedKey> actual) {
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i].extendedBase58(), actual.get(i).extendedBase58());
+    }
+
+    private static byte[] lines(final ExtendedKey[] keys, final String separator) {
+        final StringBuilder text = new StringBuilder();
+        for (ExtendedKey key : keys)
+            text.append(key.extendedBase58()).append(separator);
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] records(final ExtendedKey[] keys) {
+        final byte[] bytes = new byte[82 * keys.length];
+        for (int i = 0; i < keys.length; i++)
+            System.arraycopy(keys[i].extendedKeyByteArray(), 0, bytes, 82 * i, 82);
+        return bytes;
+    }
+
+    private static ReadableByteChannel channel(final byte[] bytes) {
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+    private Path file(final byte[] bytes) throws Exception {
+        final Path file = folder.newFile().toPath();
+        Files.write(file, bytes);
+        return file;
+    }
+}
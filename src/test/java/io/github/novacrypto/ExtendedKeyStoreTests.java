@@ -0,0 +1,191 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.ExtendedKey;
+import io.github.novacrypto.bip32.ExtendedKeyStore;
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import io.github.novacrypto.bip32.networks.NetworkCollection;
+import io.github.novacrypto.bip32.networks.UnknownNetworkException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class ExtendedKeyStoreTests {
+
+    private static final ExtendedPrivateKey account =
+            ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET).derive("m/44'/0'/0'");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void publicKeys() throws Exception {
+        final List<ExtendedPublicKey> keys = Arrays.asList(account.neuter().deriveRange(0, 100));
+        final ExtendedKeyStore store = writeAndOpen(keys);
+        assertEquals(100, store.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertFalse(store.isPrivate(i));
+            assertEquals(keys.get(i).extendedBase58(), store.get(i).extendedBase58());
+            assertEquals(keys.get(i).extendedBase58(), store.getPublic(i).extendedBase58());
+        }
+    }
+
+    @Test
+    public void privateKeys() throws Exception {
+        final List<ExtendedPrivateKey> keys = Arrays.asList(account.deriveRange(0, 20));
+        final ExtendedKeyStore store = writeAndOpen(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            assertTrue(store.isPrivate(i));
+            assertEquals(keys.get(i).extendedBase58(), store.get(i).extendedBase58());
+            assertEquals(keys.get(i).extendedBase58(), store.getPrivate(i).extendedBase58());
+            assertEquals(keys.get(i).neuter().extendedBase58(), store.getPublic(i).extendedBase58());
+        }
+    }
+
+    @Test
+    public void fieldsWithoutBuildingKeys() throws Exception {
+        final ExtendedPrivateKey key = account.derive("m/1/2'");
+        final ExtendedKeyStore store = writeAndOpen(Arrays.asList(account, key.neuter()));
+        assertEquals(3, store.depth(0));
+        assertEquals(5, store.depth(1));
+        assertEquals(key.childNumber(), store.childNumber(1));
+        assertEquals(ByteBuffer.wrap(key.extendedKeyByteArray()).getInt(5), store.parentFingerprint(1));
+    }
+
+    @Test
+    public void findParentsByFingerprint() throws Exception {
+        final List<ExtendedKey> keys = new ArrayList<>();
+        final ExtendedPublicKey[] parents = account.neuter().deriveRange(0, 50);
+        for (ExtendedPublicKey parent : parents) {
+            keys.add(parent);
+            keys.add(parent.cKDpub(0));
+        }
+        final ExtendedKeyStore store = writeAndOpen(keys);
+        for (int i = 0; i < parents.length; i++) {
+            final int child = 2 * i + 1;
+            assertArrayEquals(new int[]{2 * i}, store.findByFingerprint(store.parentFingerprint(child)));
+        }
+    }
+
+    @Test
+    public void duplicateFingerprints() throws Exception {
+        final ExtendedPublicKey key = account.neuter();
+        final ExtendedKeyStore store = writeAndOpen(Arrays.asList(key.cKDpub(0), key, key.cKDpub(1), key));
+        assertArrayEquals(new int[]{1, 3}, store.findByFingerprint(store.parentFingerprint(0)));
+    }
+
+    @Test
+    public void unknownFingerprint() throws Exception {
+        final ExtendedKeyStore store = writeAndOpen(Arrays.asList(account.neuter().deriveRange(0, 10)));
+        assertArrayEquals(new int[0], store.findByFingerprint(store.parentFingerprint(0)));
+    }
+
+    @Test
+    public void emptyStore() throws Exception {
+        final ExtendedKeyStore store = writeAndOpen(Collections.<ExtendedKey>emptyList());
+        assertEquals(0, store.size());
+        assertArrayEquals(new int[0], store.findByFingerprint(0));
+    }
+
+    @Test
+    public void recordOutOfRange() throws Exception {
+        final ExtendedKeyStore store = writeAndOpen(Collections.singletonList(account));
+        assertThatThrownBy(() -> store.get(1))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessage("Record 1 of 1");
+        assertThatThrownBy(() -> store.depth(-1))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void publicRecordIsNotPrivate() throws Exception {
+        final ExtendedKeyStore store = writeAndOpen(Collections.singletonList(account.neuter()));
+        assertThatThrownBy(() -> store.getPrivate(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Record 0 is a public key");
+    }
+
+    @Test
+    public void versionsAreLookedUpWhenKeysAreBuilt() throws Exception {
+        final Path file = folder.newFile().toPath();
+        ExtendedKeyStore.write(file, Collections.singletonList(account.neuter()));
+        final ExtendedKeyStore store = ExtendedKeyStore.open(file, new NetworkCollection(Bitcoin.TEST_NET));
+        assertEquals(3, store.depth(0));
+        assertThatThrownBy(() -> store.get(0))
+                .isInstanceOf(UnknownNetworkException.class);
+    }
+
+    @Test
+    public void notAStore() throws Exception {
+        final Path file = folder.newFile().toPath();
+        Files.write(file, new byte[100]);
+        assertThatThrownBy(() -> ExtendedKeyStore.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Not an extended key store: " + file);
+    }
+
+    @Test
+    public void truncatedStore() throws Exception {
+        final Path file = folder.newFile().toPath();
+        ExtendedKeyStore.write(file, Arrays.asList(account.neuter().deriveRange(0, 10)));
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThatThrownBy(() -> ExtendedKeyStore.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Not an extended key store: " + file);
+    }
+
+    @Test
+    public void fileLayout() throws Exception {
+        final Path file = folder.newFile().toPath();
+        ExtendedKeyStore.write(file, Arrays.asList(account.neuter().deriveRange(0, 10)));
+        final byte[] bytes = Files.readAllBytes(file);
+        assertEquals(32 + 10 * (78 + 8), bytes.length);
+        assertEquals("BIP32KS", new String(bytes, 0, 7, "US-ASCII"));
+        final byte[] serialized = account.neuter().cKDpub(3).extendedKeyByteArray();
+        assertArrayEquals(Arrays.copyOf(serialized, 78), Arrays.copyOfRange(bytes, 32 + 3 * 78, 32 + 4 * 78));
+    }
+
+    private ExtendedKeyStore writeAndOpen(final List<? extends ExtendedKey> keys) throws IOException {
+        final Path file = folder.newFile().toPath();
+        ExtendedKeyStore.write(file, keys);
+        return ExtendedKeyStore.open(file);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.IllegalCKDCall;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import static io.github.novacrypto.Asserts.assertBase58KeysEqual;
+import static io.github.novacrypto.bip32.Index.hard;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+
+public final class ExtendedPublicKeyDeriveRangeTests {
+
+    private static final ExtendedPublicKey parent =
+            ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET).derive("m/44'/0'/0'/0").neuter();
+
+    @Test
+    public void emptyRange() {
+        assertEquals(0, parent.deriveRange(0, 0).length);
+    }
+
+    @Test
+    public void emptyRangeAtHardenedIndex() {
+        assertEquals(0, parent.deriveRange(hard(0), 0).length);
+    }
+
+    @Test
+    public void rangeFromZero() {
+        assertRangeMatchesCKDpub(0, 20);
+    }
+
+    @Test
+    public void rangeFromOffset() {
+        assertRangeMatchesCKDpub(1000, 5);
+    }
+
+    @Test
+    public void rangeEndingAtLastNonHardenedIndex() {
+        assertRangeMatchesCKDpub(hard(0) - 3, 3);
+    }
+
+    @Test
+    public void childNumbersAndDepth() {
+        final ExtendedPublicKey[] children = parent.deriveRange(7, 3);
+        for (int i = 0; i < children.length; i++) {
+            assertEquals(7 + i, children[i].childNumber());
+            assertEquals(parent.depth() + 1, children[i].depth());
+        }
+    }
+
+    @Test
+    public void negativeCount() {
+        assertThatThrownBy(() -> parent.deriveRange(0, -1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Count must not be negative");
+    }
+
+    @Test
+    public void hardenedStart() {
+        assertThatThrownBy(() -> parent.deriveRange(hard(0), 1))
+                .isInstanceOf(IllegalCKDCall.class)
+                .hasMessage("Cannot derive a hardened key from a public key");
+    }
+
+    @Test
+    public void rangeRunningIntoHardened() {
+        assertThatThrownBy(() -> parent.deriveRange(hard(0) - 2, 3))
+                .isInstanceOf(IllegalCKDCall.class)
+                .hasMessage("Cannot derive a hardened key from a public key");
+    }
+
+    private static void assertRangeMatchesCKDpub(final int from, final int count) {
+        final ExtendedPublicKey[] children = parent.deriveRange(from, count);
+        assertEquals(count, children.length);
+        for (int i = 0; i < count; i++) {
+            assertBase58KeysEqual(parent.cKDpub(from + i).extendedBase58(), children[i].extendedBase58());
+        }
+    }
+}
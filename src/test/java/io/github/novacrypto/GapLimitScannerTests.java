@@ -0,0 +1,118 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.GapLimitScanner;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class GapLimitScannerTests {
+
+    private static final ExtendedPublicKey account =
+            ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET).derive("m/44'/0'/0'").neuter();
+
+    @Test
+    public void unusedAccount() {
+        final GapLimitScanner.Result result = new GapLimitScanner.Builder()
+                .usedAddresses(new HashSet<String>())
+                .build()
+                .scan(account);
+        assertEquals(-1, result.receive().lastUsedIndex());
+        assertEquals(0, result.receive().nextUnusedIndex());
+        assertEquals(20, result.receive().derivedCount());
+        assertEquals(20, result.change().derivedCount());
+    }
+
+    @Test
+    public void findsUsedAddressesWithinGap() {
+        final Set<String> used = new HashSet<>();
+        used.add(address(0, 0));
+        used.add(address(0, 19));
+        used.add(address(0, 25));
+        used.add(address(0, 46));
+        used.add(address(1, 3));
+        final GapLimitScanner.Result result = new GapLimitScanner.Builder()
+                .usedAddresses(used)
+                .build()
+                .scan(account);
+        assertArrayEquals(new int[]{0, 19, 25}, result.receive().usedIndexes());
+        assertEquals(26, result.receive().nextUnusedIndex());
+        assertEquals(46, result.receive().derivedCount());
+        assertArrayEquals(new int[]{3}, result.change().usedIndexes());
+        assertEquals(24, result.change().derivedCount());
+    }
+
+    @Test
+    public void checksEachAddressOnceInIndexOrder() {
+        final List<String> checked = new ArrayList<>();
+        final String lastUsed = address(0, 3);
+        final GapLimitScanner.Chain chain = new GapLimitScanner.Builder()
+                .gapLimit(5)
+                .batchSize(3)
+                .usage(address -> {
+                    checked.add(address);
+                    return address.equals(lastUsed);
+                })
+                .build()
+                .scanChain(account.cKDpub(0));
+        assertEquals(9, chain.derivedCount());
+        assertEquals(9, checked.size());
+        for (int i = 0; i < checked.size(); i++)
+            assertEquals(address(0, i), checked.get(i));
+    }
+
+    @Test
+    public void usageIsRequired() {
+        assertThatThrownBy(() -> new GapLimitScanner.Builder().build())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("An address usage check is required");
+    }
+
+    @Test
+    public void gapLimitMustBePositive() {
+        assertThatThrownBy(() -> new GapLimitScanner.Builder().gapLimit(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Gap limit must be at least 1");
+    }
+
+    @Test
+    public void batchSizeMustBePositive() {
+        assertThatThrownBy(() -> new GapLimitScanner.Builder().batchSize(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Batch size must be at least 1");
+    }
+
+    private static String address(final int chain, final int index) {
+        return account.cKDpub(chain).cKDpub(index).p2pkhAddress();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.Hash160Index;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static io.github.novacrypto.base58.Base58.base58Decode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public final class Hash160IndexTests {
+
+    private static final ExtendedPrivateKey root = ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET);
+    private static final ExtendedPublicKey account0 = root.derive("m/44'/0'/0'").neuter();
+    private static final ExtendedPublicKey account1 = root.derive("m/44'/0'/1'").neuter();
+
+    @Test
+    public void findsOwnerOfWatchedChildren() {
+        final Hash160Index index = new Hash160Index();
+        assertEquals(30, index.extend(7, account0, 0, 30));
+        assertEquals(10, index.extend(7, account0, 1, 10));
+        assertEquals(30, index.extend(8, account1, 0, 30));
+        assertEquals(70, index.size());
+        assertOwner(index, 7, account0, 0, 0);
+        assertOwner(index, 7, account0, 0, 29);
+        assertOwner(index, 7, account0, 1, 9);
+        assertOwner(index, 8, account1, 0, 17);
+    }
+
+    @Test
+    public void unwatchedChildIsNotFound() {
+        final Hash160Index index = new Hash160Index();
+        index.extend(1, account0, 0, 20);
+        assertNull(index.find(hash160(account0, 0, 20)));
+        assertNull(index.find(hash160(account0, 1, 0)));
+        assertNull(index.find(new byte[20]));
+    }
+
+    @Test
+    public void extendsIncrementally() {
+        final Hash160Index index = new Hash160Index();
+        assertEquals(20, index.extend(1, account0, 0, 20));
+        assertEquals(0, index.extend(1, account0, 0, 10));
+        assertEquals(25, index.extend(1, account0, 0, 45));
+        assertEquals(45, index.watchedCount(1, 0));
+        assertEquals(0, index.watchedCount(1, 1));
+        assertEquals(45, index.size());
+        assertOwner(index, 1, account0, 0, 44);
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        final Hash160Index index = new Hash160Index();
+        index.extend(1, account0, 0, 500);
+        assertEquals(500, index.size());
+        for (int i = 0; i < 500; i += 37)
+            assertOwner(index, 1, account0, 0, i);
+    }
+
+    @Test
+    public void findWithinLargerBuffer() {
+        final Hash160Index index = new Hash160Index();
+        index.extend(3, account0, 0, 5);
+        final byte[] script = new byte[25];
+        System.arraycopy(hash160(account0, 0, 4), 0, script, 3, 20);
+        assertEquals(owner(3, 0, 4), String.valueOf(index.find(script, 3)));
+    }
+
+    @Test
+    public void keyIdCannotBeReusedForAnotherAccount() {
+        final Hash160Index index = new Hash160Index();
+        index.extend(1, account0, 0, 1);
+        assertThatThrownBy(() -> index.extend(1, account1, 0, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Key id 1 is already used for a different account");
+    }
+
+    @Test
+    public void hashMustBeTwentyBytes() {
+        assertThatThrownBy(() -> new Hash160Index().find(new byte[19]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Hash160 must be 20 bytes");
+    }
+
+    @Test
+    public void offsetMustLeaveRoomForHash() {
+        assertThatThrownBy(() -> new Hash160Index().find(new byte[25], 6))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private static void assertOwner(final Hash160Index index, final int keyId, final ExtendedPublicKey account,
+                                    final int chain, final int child) {
+        assertEquals(owner(keyId, chain, child), String.valueOf(index.find(hash160(account, chain, child))));
+    }
+
+    private static String owner(final int keyId, final int chain, final int index) {
+        return "Owner{keyId=" + keyId + ", chain=" + chain + ", index=" + index + "}";
+    }
+
+    private static byte[] hash160(final ExtendedPublicKey account, final int chain, final int child) {
+        final byte[] address = base58Decode(account.cKDpub(chain).cKDpub(child).p2pkhAddress());
+        return Arrays.copyOfRange(address, 1, 21);
+    }
+}
@@ -21,10 +21,12 @@
 
 package io.github.novacrypto;
 
+import io.github.novacrypto.bip32.Network;
 import io.github.novacrypto.bip32.networks.*;
 import org.junit.Test;
 
 import static org.assertj.core.api.Java6Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
 public final class NetworkCollectionTests {
@@ -121,4 +123,93 @@ public final class NetworkCollectionTests {
                 DefaultNetworks.INSTANCE.findByPrivateVersion(Bitcoin.TEST_NET.getPrivateVersion())
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void orNullFindsByPrivate() {
+        final NetworkCollection collection = new NetworkCollection(Bitcoin.MAIN_NET, Bitcoin.TEST_NET);
+        assertSame(Bitcoin.TEST_NET, collection.findByPrivateVersionOrNull(Bitcoin.TEST_NET.getPrivateVersion()));
+    }
+
+    @Test
+    public void orNullFindsByPublic() {
+        final NetworkCollection collection = new NetworkCollection(Bitcoin.MAIN_NET, Bitcoin.TEST_NET);
+        assertSame(Bitcoin.TEST_NET, collection.findByPublicVersionOrNull(Bitcoin.TEST_NET.getPublicVersion()));
+    }
+
+    @Test
+    public void orNullReturnsNullWhenCantFind() {
+        final NetworkCollection collection = new NetworkCollection(Bitcoin.MAIN_NET);
+        assertNull(collection.findByPrivateVersionOrNull(Bitcoin.TEST_NET.getPrivateVersion()));
+        assertNull(collection.findByPublicVersionOrNull(Bitcoin.TEST_NET.getPublicVersion()));
+        assertNull(collection.findByPrivateVersionOrNull(Bitcoin.MAIN_NET.getPublicVersion()));
+    }
+
+    @Test
+    public void defaultCollectionOrNull() {
+        assertSame(Litecoin.MAIN_NET,
+                DefaultNetworks.INSTANCE.findByPublicVersionOrNull(Litecoin.MAIN_NET.getPublicVersion()));
+        assertNull(DefaultNetworks.INSTANCE.findByPrivateVersionOrNull(0));
+    }
+
+    @Test
+    public void emptyCollection() {
+        final NetworkCollection collection = new NetworkCollection();
+        assertNull(collection.findByPublicVersionOrNull(0));
+        assertThatThrownBy(() -> collection.findByPublicVersion(0))
+                .isInstanceOf(UnknownNetworkException.class);
+    }
+
+    @Test
+    public void manyNetworks() {
+        final Network[] networks = new Network[100];
+        for (int i = 0; i < networks.length; i++)
+            networks[i] = network(i << 16, i);
+        final NetworkCollection collection = new NetworkCollection(networks);
+        for (int i = 0; i < networks.length; i++) {
+            assertSame(networks[i], collection.findByPrivateVersion(i << 16));
+            assertSame(networks[i], collection.findByPublicVersion(i));
+        }
+        assertNull(collection.findByPrivateVersionOrNull(100 << 16));
+        assertNull(collection.findByPublicVersionOrNull(100));
+    }
+
+    @Test
+    public void firstOfSameVersionIsFound() {
+        final Network first = network(1, 2);
+        final Network second = network(1, 3);
+        final NetworkCollection collection = new NetworkCollection(first, second);
+        assertSame(first, collection.findByPrivateVersion(1));
+        assertSame(second, collection.findByPublicVersion(3));
+    }
+
+    @Test
+    public void nullNetwork() {
+        assertThatThrownBy(() -> new NetworkCollection(Bitcoin.MAIN_NET, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Network is null");
+    }
+
+    private static Network network(final int privateVersion, final int publicVersion) {
+        return new Network() {
+            @Override
+            public int getPrivateVersion() {
+                return privateVersion;
+            }
+
+            @Override
+            public int getPublicVersion() {
+                return publicVersion;
+            }
+
+            @Override
+            public byte p2pkhVersion() {
+                return 0;
+            }
+
+            @Override
+            public byte p2shVersion() {
+                return 0;
+            }
+        };
+    }
+}
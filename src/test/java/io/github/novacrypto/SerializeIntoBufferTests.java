@@ -0,0 +1,199 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto;
+
+import io.github.novacrypto.bip32.ExtendedKey;
+import io.github.novacrypto.bip32.ExtendedPrivateKey;
+import io.github.novacrypto.bip32.ExtendedPublicKey;
+import io.github.novacrypto.bip32.Network;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import static io.github.novacrypto.base58.Base58.base58Encode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class SerializeIntoBufferTests {
+
+    private static final ExtendedPrivateKey privateKey =
+            ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET).derive("m/44'/0'/0'");
+
+    @Test
+    public void privateIntoArray() {
+        assertSerializesIntoArray(privateKey, privateKey::serialize);
+    }
+
+    @Test
+    public void publicIntoArray() {
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        assertSerializesIntoArray(publicKey, publicKey::serialize);
+    }
+
+    @Test
+    public void manyKeysIntoOneArray() {
+        final ExtendedPublicKey[] keys = privateKey.neuter().deriveRange(0, 10);
+        final byte[] target = new byte[82 * keys.length];
+        for (int i = 0; i < keys.length; i++)
+            keys[i].serialize(target, 82 * i);
+        for (int i = 0; i < keys.length; i++)
+            assertArrayEquals(keys[i].extendedKeyByteArray(), Arrays.copyOfRange(target, 82 * i, 82 * (i + 1)));
+    }
+
+    @Test
+    public void arrayTooSmall() {
+        assertThatThrownBy(() -> privateKey.serialize(new byte[100], 19))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void negativeOffset() {
+        assertThatThrownBy(() -> privateKey.serialize(new byte[100], -1))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void privateIntoHeapBuffer() {
+        assertSerializesIntoBuffer(privateKey, privateKey::serialize, ByteBuffer.allocate(100));
+    }
+
+    @Test
+    public void publicIntoHeapBuffer() {
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        assertSerializesIntoBuffer(publicKey, publicKey::serialize, ByteBuffer.allocate(100));
+    }
+
+    @Test
+    public void intoSlicedHeapBuffer() {
+        final ByteBuffer buffer = ByteBuffer.allocate(120);
+        buffer.position(10);
+        assertSerializesIntoBuffer(privateKey, privateKey::serialize, buffer.slice());
+    }
+
+    @Test
+    public void privateIntoDirectBuffer() {
+        assertSerializesIntoBuffer(privateKey, privateKey::serialize, ByteBuffer.allocateDirect(100));
+    }
+
+    @Test
+    public void publicIntoDirectBuffer() {
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        assertSerializesIntoBuffer(publicKey, publicKey::serialize, ByteBuffer.allocateDirect(100));
+    }
+
+    @Test
+    public void bufferTooSmall() {
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        buffer.position(19);
+        assertThatThrownBy(() -> privateKey.serialize(buffer))
+                .isInstanceOf(BufferOverflowException.class);
+        assertEquals(19, buffer.position());
+    }
+
+    @Test
+    public void readOnlyBuffer() {
+        assertThatThrownBy(() -> privateKey.serialize(ByteBuffer.allocate(100).asReadOnlyBuffer()))
+                .isInstanceOf(ReadOnlyBufferException.class);
+    }
+
+    @Test
+    public void privateBase58IntoStringBuilder() {
+        assertAppendsBase58(privateKey, privateKey::extendedBase58);
+    }
+
+    @Test
+    public void publicBase58IntoStringBuilder() {
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        assertAppendsBase58(publicKey, publicKey::extendedBase58);
+    }
+
+    @Test
+    public void extendedKeyNeedsNoMoreThanItsOriginalMethods() {
+        final ExtendedKey key = new ExtendedKey() {
+            @Override
+            public Network network() {
+                return Bitcoin.MAIN_NET;
+            }
+
+            @Override
+            public int depth() {
+                return 0;
+            }
+
+            @Override
+            public int childNumber() {
+                return 0;
+            }
+
+            @Override
+            public String extendedBase58() {
+                return "";
+            }
+
+            @Override
+            public byte[] extendedKeyByteArray() {
+                return new byte[0];
+            }
+
+            @Override
+            public ExtendedKey toNetwork(final Network otherNetwork) {
+                return this;
+            }
+        };
+        assertEquals(0, key.depth());
+    }
+
+    private static void assertAppendsBase58(final ExtendedKey key, final Consumer<StringBuilder> extendedBase58) {
+        final StringBuilder target = new StringBuilder("key: ");
+        extendedBase58.accept(target);
+        assertEquals("key: " + base58Encode(key.extendedKeyByteArray()), target.toString());
+    }
+
+    private static void assertSerializesIntoArray(final ExtendedKey key, final ObjIntConsumer<byte[]> serialize) {
+        final byte[] target = new byte[100];
+        Arrays.fill(target, (byte) 0x55);
+        serialize.accept(target, 7);
+        assertArrayEquals(key.extendedKeyByteArray(), Arrays.copyOfRange(target, 7, 89));
+        for (int i = 0; i < 7; i++)
+            assertEquals(0x55, target[i]);
+        for (int i = 89; i < target.length; i++)
+            assertEquals(0x55, target[i]);
+    }
+
+    private static void assertSerializesIntoBuffer(final ExtendedKey key, final Consumer<ByteBuffer> serialize,
+                                                   final ByteBuffer buffer) {
+        buffer.position(5);
+        serialize.accept(buffer);
+        assertEquals(87, buffer.position());
+        final byte[] written = new byte[82];
+        buffer.position(5);
+        buffer.get(written);
+        assertArrayEquals(key.extendedKeyByteArray(), written);
+    }
+}
@@ -31,9 +31,11 @@ public final class ConstructorCoverage {
     @SuppressWarnings("ObviousNullCheck")
     public void coverUtilClassConstructors() {
         assertNotNull(new BigIntegerUtils());
+        assertNotNull(new Scalars());
         assertNotNull(new HmacSha512());
         assertNotNull(new Index());
         assertNotNull(new Secp256k1SC());
         assertNotNull(new Checksum());
+        assertNotNull(new ChildRange());
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
+import org.spongycastle.math.ec.ECPoint;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static io.github.novacrypto.bip32.Index.hard;
+import static io.github.novacrypto.bip32.Index.isHardened;
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * The default backend is {@link io.github.novacrypto.bip32.curve.PureJavaBackend}, where earlier versions used
+ * SpongyCastle directly. These tests derive keys with the default backend and check them against the BIP32 formulas
+ * calculated with SpongyCastle's points and BigInteger, so that upgrading changes no key.
+ */
+public final class DefaultBackendCompatibilityTests {
+
+    private static final X9ECParameters CURVE = CustomNamedCurves.getByName("secp256k1");
+
+    private static final int[] INDEXES = {0, 1, 2, 1000, 0x7fffffff, hard(0), hard(1), hard(0x7fffffff)};
+
+    @Test
+    public void masterKeys() {
+        final Random random = new Random(16);
+        for (int i = 0; i < 20; i++) {
+            final byte[] seed = new byte[32];
+            random.nextBytes(seed);
+            final ExtendedPrivateKey master = ExtendedPrivateKey.fromSeed(seed, Bitcoin.MAIN_NET);
+            assertPublicPoint(master);
+        }
+    }
+
+    @Test
+    public void privateDerivation() throws Exception {
+        ExtendedPrivateKey parent = ExtendedPrivateKey.fromSeed(new byte[]{1, 6}, Bitcoin.MAIN_NET);
+        for (int depth = 0; depth < 3; depth++) {
+            for (final int index : INDEXES) {
+                final ExtendedPrivateKey child = parent.cKDpriv(index);
+                final byte[] il = new byte[32];
+                final byte[] ir = new byte[32];
+                referenceHmac(parent, index, il, ir);
+                final BigInteger k = new BigInteger(1, il).add(new BigInteger(1, parent.hdKey().getKey()))
+                        .mod(CURVE.getN());
+                assertArrayEquals(ser256(k), child.hdKey().getKey());
+                assertArrayEquals(ir, child.hdKey().getChainCode());
+                assertPublicPoint(child);
+            }
+            parent = parent.cKDpriv(INDEXES[depth]);
+        }
+    }
+
+    @Test
+    public void publicDerivation() throws Exception {
+        final ExtendedPrivateKey parent = ExtendedPrivateKey.fromSeed(new byte[]{1, 6}, Bitcoin.MAIN_NET)
+                .derive("m/44'/0'/0'");
+        final ECPoint parentPoint = CURVE.getCurve().decodePoint(parent.neuter().hdKey().getKey());
+        for (final int index : INDEXES) {
+            if (isHardened(index))
+                continue;
+            final byte[] il = new byte[32];
+            final byte[] ir = new byte[32];
+            referenceHmac(parent, index, il, ir);
+            final ECPoint expected = CURVE.getG().multiply(new BigInteger(1, il)).add(parentPoint);
+            final ExtendedPublicKey child = parent.neuter().cKDpub(index);
+            assertArrayEquals(expected.getEncoded(true), child.hdKey().getKey());
+            assertArrayEquals(ir, child.hdKey().getChainCode());
+        }
+    }
+
+    private static void assertPublicPoint(final ExtendedPrivateKey key) {
+        final BigInteger k = new BigInteger(1, key.hdKey().getKey());
+        assertArrayEquals(CURVE.getG().multiply(k).getEncoded(true), key.neuter().hdKey().getKey());
+    }
+
+    /**
+     * HMAC-SHA512(cpar, 0x00 || ser256(kpar) || ser32(i)) for hardened indexes, with serP(point(kpar)) otherwise.
+     */
+    private static void referenceHmac(final ExtendedPrivateKey parent, final int index, final byte[] il,
+                                      final byte[] ir) throws Exception {
+        final byte[] k = parent.hdKey().getKey();
+        final ByteBuffer data = ByteBuffer.allocate(37);
+        if (isHardened(index))
+            data.put((byte) 0).put(k);
+        else
+            data.put(CURVE.getG().multiply(new BigInteger(1, k)).getEncoded(true));
+        data.putInt(index);
+        final Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(parent.hdKey().getChainCode(), "HmacSHA512"));
+        final byte[] i = mac.doFinal(data.array());
+        System.arraycopy(i, 0, il, 0, 32);
+        System.arraycopy(i, 32, ir, 0, 32);
+    }
+
+    private static byte[] ser256(final BigInteger k) {
+        final byte[] bytes = k.toByteArray();
+        final byte[] ser = new byte[32];
+        final int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, ser, 32 - length, length);
+        return ser;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static io.github.novacrypto.base58.Base58.base58Decode;
+import static io.github.novacrypto.base58.Base58.base58Encode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class ExtendedKeyBase58Tests {
+
+    private final ExtendedKeyBase58 codec = new ExtendedKeyBase58();
+
+    @Test
+    public void randomData() {
+        final Random random = new Random(21);
+        for (int i = 0; i < 500; i++) {
+            final byte[] data = new byte[82];
+            random.nextBytes(data);
+            assertMatchesBase58(data);
+        }
+    }
+
+    @Test
+    public void leadingZeroBytes() {
+        final Random random = new Random(22);
+        for (int zeros = 0; zeros <= 82; zeros++) {
+            final byte[] data = new byte[82];
+            random.nextBytes(data);
+            Arrays.fill(data, 0, zeros, (byte) 0);
+            assertMatchesBase58(data);
+        }
+    }
+
+    @Test
+    public void allOnes() {
+        final byte[] data = new byte[82];
+        Arrays.fill(data, (byte) 0xff);
+        assertMatchesBase58(data);
+        assertEquals(ExtendedKeyBase58.MAX_LENGTH, encode(data).length());
+    }
+
+    @Test
+    public void appendsAtOffset() {
+        final byte[] data = new byte[100];
+        new Random(23).nextBytes(data);
+        final StringBuilder target = new StringBuilder("prefix ");
+        codec.encode(data, 9, target);
+        assertEquals("prefix " + base58Encode(Arrays.copyOfRange(data, 9, 91)), target.toString());
+    }
+
+    @Test
+    public void decodesAtOffset() {
+        final byte[] data = new byte[82];
+        new Random(24).nextBytes(data);
+        final byte[] target = new byte[100];
+        codec.decode(base58Encode(data), target, 11);
+        assertArrayEquals(data, Arrays.copyOfRange(target, 11, 93));
+    }
+
+    @Test
+    public void badCharacter() {
+        final String base58 = base58Encode(new byte[]{1, 2, 3}) + "0" + base58Encode(new byte[79]);
+        assertThatThrownBy(() -> codec.decode(base58, new byte[82], 0))
+                .isInstanceOf(BadKeySerializationException.class)
+                .hasMessage("Bad Base58 character");
+    }
+
+    @Test
+    public void nonAsciiCharacter() {
+        assertThatThrownBy(() -> codec.decode("xpubé", new byte[82], 0))
+                .isInstanceOf(BadKeySerializationException.class)
+                .hasMessage("Bad Base58 character");
+    }
+
+    @Test
+    public void tooFewBytes() {
+        assertNotAnExtendedKey(base58Encode(filled(81)));
+        assertNotAnExtendedKey("");
+    }
+
+    @Test
+    public void tooManyBytes() {
+        assertNotAnExtendedKey(base58Encode(filled(83)));
+        final byte[] leadingZero = filled(83);
+        leadingZero[0] = 0;
+        assertNotAnExtendedKey(base58Encode(leadingZero));
+    }
+
+    @Test
+    public void tooManyCharacters() {
+        final StringBuilder base58 = new StringBuilder();
+        for (int i = 0; i < 113; i++)
+            base58.append('1');
+        assertNotAnExtendedKey(base58);
+    }
+
+    private void assertMatchesBase58(final byte[] data) {
+        final String expected = base58Encode(data);
+        assertEquals(expected, encode(data));
+        final byte[] decoded = new byte[82];
+        codec.decode(expected, decoded, 0);
+        assertArrayEquals(base58Decode(expected), decoded);
+    }
+
+    private String encode(final byte[] data) {
+        final StringBuilder target = new StringBuilder();
+        codec.encode(data, 0, target);
+        return target.toString();
+    }
+
+    private void assertNotAnExtendedKey(final CharSequence base58) {
+        assertThatThrownBy(() -> codec.decode(base58, new byte[82], 0))
+                .isInstanceOf(BadKeySerializationException.class)
+                .hasMessage("Not the Base58 of an 82 byte extended key");
+    }
+
+    private static byte[] filled(final int length) {
+        final byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) 0x9c);
+        return bytes;
+    }
+}
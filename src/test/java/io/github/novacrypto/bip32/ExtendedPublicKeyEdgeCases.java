@@ -30,6 +30,7 @@ import static io.github.novacrypto.bip32.FakeHmacSha512.fakeHmacSha512Responses;
 import static io.github.novacrypto.bip32.FakeHmacSha512.toHeadOf64BytesArray;
 import static io.github.novacrypto.bip32.FakeSecp256k1SC.fakeGMultiplyAndAddPointNextInfinity;
 import static io.github.novacrypto.bip32.Secp256k1SC.n;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -94,6 +95,25 @@ public final class ExtendedPublicKeyEdgeCases {
         assertKeyIsOfIndexWhenKiIsInifity(100, 101);
     }
 
+    @Test
+    public void when_ki_is_infinity_in_a_range_that_child_is_the_next_child() {
+        ExtendedPublicKey publicKey = givenPublicKey();
+        String expected = publicKey.cKDpub(11).extendedBase58();
+        fakeGMultiplyAndAddPointNextInfinity();
+        ExtendedPublicKey[] range = publicKey.deriveRange(10, 2);
+        assertEquals(expected, range[0].extendedBase58());
+        assertEquals(expected, range[1].extendedBase58());
+    }
+
+    @Test
+    public void ecdh_with_child_when_parse256_Il_equal_n_uses_next_child() {
+        ExtendedPublicKey publicKey = givenPublicKey();
+        ExtendedPrivateKey privateKey = ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET);
+        byte[] expected = privateKey.ecdh(publicKey.cKDpub(6));
+        fakeHmacSha512Responses(toHeadOf64BytesArray(n()));
+        assertArrayEquals(expected, privateKey.ecdh(publicKey, 5));
+    }
+
     private static ExtendedPublicKey givenPublicKey() {
         return ExtendedPrivateKey.fromSeed(new byte[0], Bitcoin.MAIN_NET).neuter();
     }
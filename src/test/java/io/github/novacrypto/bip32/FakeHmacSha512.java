@@ -55,6 +55,23 @@ final class FakeHmacSha512 {
                 }
                 return responses[i++];
             }
+
+            @Mock
+            @SuppressFBWarnings(
+                    value = "UMAC_UNCALLABLE_METHOD_OF_ANONYMOUS_CLASS",
+                    justification = "Found by reflection"
+            )
+            public void hmacSha512(Invocation inv, final byte[] byteKey, final byte[] seed,
+                                   final byte[] il, final byte[] ir) {
+                if (i > responses.length - 1) {
+                    inv.proceed(byteKey, seed, il, ir);
+                    return;
+                }
+                final byte[] response = responses[i++];
+                System.arraycopy(response, 0, il, 0, Math.min(32, response.length));
+                if (response.length > 32)
+                    System.arraycopy(response, 32, ir, 0, Math.min(32, response.length - 32));
+            }
         };
     }
 
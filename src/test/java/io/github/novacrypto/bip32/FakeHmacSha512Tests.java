@@ -30,6 +30,7 @@ import static io.github.novacrypto.bip32.FakeHmacSha512.fakeHmacSha512Responses;
 import static io.github.novacrypto.bip32.FakeHmacSha512.toHeadOf64Bytes;
 import static io.github.novacrypto.bip32.HmacSha512.hmacSha512;
 import static io.github.novacrypto.bip32.Secp256k1SC.n;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 
@@ -43,6 +44,19 @@ public final class FakeHmacSha512Tests {
         assertSame(two, hmacSha512(new byte[0], new byte[0]));
     }
 
+    @Test
+    public void canFakeHmacResponsesSplitIntoIlAndIr() {
+        byte[] one = new byte[64];
+        one[0] = 1;
+        one[32] = 2;
+        fakeHmacSha512Responses(one);
+        byte[] il = new byte[32];
+        byte[] ir = new byte[32];
+        hmacSha512(new byte[0], new byte[0], il, ir);
+        assertArrayEquals(Arrays.copyOfRange(one, 0, 32), il);
+        assertArrayEquals(Arrays.copyOfRange(one, 32, 64), ir);
+    }
+
     @Test
     public void canCreate64BytesBasedOnN() {
         BigInteger n = n();
@@ -21,37 +21,37 @@
 
 package io.github.novacrypto.bip32;
 
+import io.github.novacrypto.Hex;
 import io.github.novacrypto.SuppressFBWarnings;
 import mockit.Invocation;
 import mockit.Mock;
 import mockit.MockUp;
-import org.spongycastle.math.ec.ECPoint;
 
-import java.math.BigInteger;
-
-import static io.github.novacrypto.bip32.Secp256k1SC.CURVE;
+import static io.github.novacrypto.bip32.Secp256k1SC.decode;
 
 final class FakeSecp256k1SC {
 
-    private static void fakeGMultiplyAndAddPoint(ECPoint... responses) {
+    private static final byte[] ONE = Hex.toArray("0000000000000000000000000000000000000000000000000000000000000001");
+    private static final byte[] MINUS_G = Hex.toArray(
+            "0379be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798");
+
+    static void fakeGMultiplyAndAddPointNextInfinity() {
         new MockUp<Secp256k1SC>() {
-            private int i = 0;
+            private boolean faked;
 
             @Mock
             @SuppressFBWarnings(
                     value = "UMAC_UNCALLABLE_METHOD_OF_ANONYMOUS_CLASS",
                     justification = "Found by reflection"
             )
-            public ECPoint gMultiplyAndAddPoint(final Invocation inv, final BigInteger p, final byte[] toAdd) {
-                if (i > responses.length - 1) {
+            public Object gMultiplyAndAddPoint(final Invocation inv, final byte[] p, final Object toAdd) {
+                if (faked) {
                     return inv.proceed(p, toAdd);
                 }
-                return responses[i++];
+                faked = true;
+                // G + -G, the point at infinity in the backend's own representation
+                return inv.proceed(ONE, decode(MINUS_G));
             }
         };
     }
-
-    static void fakeGMultiplyAndAddPointNextInfinity() {
-        fakeGMultiplyAndAddPoint(CURVE.getCurve().getInfinity());
-    }
-}
\ No newline at end of file
+}
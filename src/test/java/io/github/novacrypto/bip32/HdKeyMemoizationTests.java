@@ -0,0 +1,155 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.github.novacrypto.bip32.Secp256k1SC.decode;
+import static io.github.novacrypto.bip32.Secp256k1SC.pointSerP;
+import static io.github.novacrypto.bip32.Secp256k1SC.pointSerP_gMultiply;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public final class HdKeyMemoizationTests {
+
+    @Test
+    public void pointIsCalculatedOnce() {
+        final HdKey hdKey = givenPrivateHdKey();
+        assertSame(hdKey.getPoint(), hdKey.getPoint());
+    }
+
+    @Test
+    public void pointIsCorrect() {
+        final HdKey hdKey = givenPrivateHdKey();
+        assertArrayEquals(pointSerP_gMultiply(hdKey.getKey()), hdKey.getPoint());
+    }
+
+    @Test
+    public void fingerprintIsStable() {
+        final HdKey hdKey = givenPrivateHdKey();
+        final int fingerprint = hdKey.calculateFingerPrint();
+        assertEquals(fingerprint, hdKey.calculateFingerPrint());
+    }
+
+    @Test
+    public void fingerprintMatchesNeuteredKey() {
+        final HdKey hdKey = givenPrivateHdKey();
+        final HdKey neutered = new HdKey.Builder()
+                .neutered(true)
+                .key(hdKey.getPoint())
+                .build();
+        assertEquals(neutered.calculateFingerPrint(), hdKey.calculateFingerPrint());
+    }
+
+    @Test
+    public void keyPointIsDecodedOnce() {
+        final HdKey neutered = givenNeuteredHdKey();
+        assertSame(neutered.getKeyPoint(), neutered.getKeyPoint());
+        assertArrayEquals(neutered.getKey(), pointSerP(neutered.getKeyPoint()));
+    }
+
+    @Test
+    public void suppliedKeyPointIsUsed() {
+        final HdKey hdKey = givenPrivateHdKey();
+        final Object point = decode(hdKey.getPoint());
+        final HdKey neutered = new HdKey.Builder()
+                .neutered(true)
+                .key(hdKey.getPoint())
+                .keyPoint(point)
+                .build();
+        assertSame(point, neutered.getKeyPoint());
+    }
+
+    @Test
+    public void toBuilderKeepsKeyPoint() {
+        final HdKey neutered = givenNeuteredHdKey();
+        final Object keyPoint = neutered.getKeyPoint();
+        final HdKey converted = neutered.toBuilder()
+                .network(Bitcoin.TEST_NET)
+                .build();
+        assertSame(keyPoint, converted.getKeyPoint());
+    }
+
+    @Test
+    public void toBuilderKeepsPoint() {
+        final HdKey hdKey = givenPrivateHdKey();
+        final byte[] point = hdKey.getPoint();
+        final HdKey converted = hdKey.toBuilder()
+                .network(Bitcoin.TEST_NET)
+                .build();
+        assertSame(point, converted.getPoint());
+    }
+
+    @Test
+    public void toNetworkKeepsKeyPoint() {
+        final ExtendedPublicKey publicKey = new ExtendedPublicKey(givenNeuteredHdKey());
+        final Object keyPoint = publicKey.hdKey().getKeyPoint();
+        assertSame(keyPoint, publicKey.toNetwork(Bitcoin.TEST_NET).hdKey().getKeyPoint());
+    }
+
+    @Test
+    public void concurrentCallersAgree() throws Exception {
+        final HdKey hdKey = givenPrivateHdKey();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit((Callable<Integer>) hdKey::calculateFingerPrint));
+            }
+            final int expected = givenPrivateHdKey().calculateFingerPrint();
+            for (Future<Integer> future : futures) {
+                assertEquals(expected, (int) future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static HdKey givenNeuteredHdKey() {
+        return new HdKey.Builder()
+                .network(Bitcoin.MAIN_NET)
+                .neutered(true)
+                .key(givenPrivateHdKey().getPoint())
+                .chainCode(new byte[32])
+                .build();
+    }
+
+    private static HdKey givenPrivateHdKey() {
+        final byte[] key = new byte[32];
+        key[31] = 7;
+        return new HdKey.Builder()
+                .network(Bitcoin.MAIN_NET)
+                .neutered(false)
+                .key(key)
+                .chainCode(new byte[32])
+                .build();
+    }
+}
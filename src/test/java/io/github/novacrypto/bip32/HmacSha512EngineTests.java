@@ -0,0 +1,136 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public final class HmacSha512EngineTests {
+
+    private final byte[] keyA = bytes(32, 1);
+    private final byte[] keyB = bytes(32, 2);
+
+    @Test
+    public void matchesJcaMac() throws Exception {
+        assertMatchesJca(new HmacSha512Engine(), keyA, bytes(37, 3));
+    }
+
+    @Test
+    public void sameKeyManyMessages() throws Exception {
+        final HmacSha512Engine engine = new HmacSha512Engine();
+        for (int i = 0; i < 10; i++) {
+            assertMatchesJca(engine, keyA, bytes(37, i));
+        }
+    }
+
+    @Test
+    public void rekeying() throws Exception {
+        final HmacSha512Engine engine = new HmacSha512Engine();
+        assertMatchesJca(engine, keyA, bytes(37, 3));
+        assertMatchesJca(engine, keyB, bytes(37, 3));
+        assertMatchesJca(engine, keyA, bytes(37, 4));
+    }
+
+    @Test
+    public void keyComparedByContent() throws Exception {
+        final HmacSha512Engine engine = new HmacSha512Engine();
+        final byte[] key = keyA.clone();
+        assertMatchesJca(engine, key, bytes(37, 3));
+        key[0]++;
+        assertMatchesJca(engine, key, bytes(37, 3));
+    }
+
+    @Test
+    public void keysOfOtherLengths() throws Exception {
+        final HmacSha512Engine engine = new HmacSha512Engine();
+        assertMatchesJca(engine, "Bitcoin seed".getBytes("UTF-8"), bytes(64, 5));
+        assertMatchesJca(engine, bytes(200, 6), bytes(64, 5));
+    }
+
+    @Test
+    public void keysAroundTheBlockLength() throws Exception {
+        final HmacSha512Engine engine = new HmacSha512Engine();
+        for (int length = 126; length <= 130; length++)
+            assertMatchesJca(engine, bytes(length, 7), bytes(37, 5));
+    }
+
+    @Test
+    public void messagesAroundThePaddingBoundaries() throws Exception {
+        final HmacSha512Engine engine = new HmacSha512Engine();
+        for (int length = 0; length <= 260; length++)
+            assertMatchesJca(engine, keyA, bytes(length, length));
+    }
+
+    @Test
+    public void splitIntoIlAndIr() throws Exception {
+        final HmacSha512Engine engine = new HmacSha512Engine();
+        final byte[] expected = jca(keyA, bytes(37, 3));
+        final byte[] il = new byte[32];
+        final byte[] ir = new byte[32];
+        engine.hmacSha512(keyA, bytes(37, 3), il, ir);
+        assertArrayEquals(Arrays.copyOfRange(expected, 0, 32), il);
+        assertArrayEquals(Arrays.copyOfRange(expected, 32, 64), ir);
+    }
+
+    @Test
+    public void staticHelperMatchesJcaMac() throws Exception {
+        assertArrayEquals(jca(keyA, bytes(37, 9)), HmacSha512.hmacSha512(keyA, bytes(37, 9)));
+    }
+
+    @Test
+    public void oneEnginePerThread() throws Exception {
+        final HmacSha512Engine engine = HmacSha512Engine.forThisThread();
+        assertSame(engine, HmacSha512Engine.forThisThread());
+        final AtomicReference<HmacSha512Engine> other = new AtomicReference<>();
+        final Thread thread = new Thread(() -> other.set(HmacSha512Engine.forThisThread()));
+        thread.start();
+        thread.join();
+        assertNotSame(engine, other.get());
+    }
+
+    private static void assertMatchesJca(HmacSha512Engine engine, byte[] key, byte[] message) throws Exception {
+        final byte[] actual = new byte[64];
+        engine.hmacSha512(key, message, actual);
+        assertArrayEquals(jca(key, message), actual);
+    }
+
+    private static byte[] jca(byte[] key, byte[] message) throws Exception {
+        final Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(key, "HmacSHA512"));
+        return mac.doFinal(message);
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+            bytes[i] = (byte) (i * 31 + seed);
+        return bytes;
+    }
+}
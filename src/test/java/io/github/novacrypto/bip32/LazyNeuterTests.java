@@ -0,0 +1,168 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import io.github.novacrypto.SuppressFBWarnings;
+import io.github.novacrypto.bip32.networks.Bitcoin;
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public final class LazyNeuterTests {
+
+    private static final String EXPECTED_XPUB = ExtendedPrivateKey
+            .fromSeed(new byte[1], Bitcoin.MAIN_NET)
+            .derive("m/44'/0'/0'/1")
+            .neuter()
+            .extendedBase58();
+
+    private final AtomicInteger pointCalculations = new AtomicInteger();
+    private ExtendedPrivateKey privateKey;
+
+    @Before
+    public void countPointCalculations() {
+        privateKey = ExtendedPrivateKey.fromSeed(new byte[1], Bitcoin.MAIN_NET).derive("m/44'/0'/0'/1");
+        new MockUp<Secp256k1SC>() {
+            @Mock
+            @SuppressFBWarnings(
+                    value = "UMAC_UNCALLABLE_METHOD_OF_ANONYMOUS_CLASS",
+                    justification = "Found by reflection"
+            )
+            public byte[] pointSerP_gMultiply(final Invocation inv, final byte[] p) {
+                pointCalculations.incrementAndGet();
+                return inv.proceed(p);
+            }
+        };
+    }
+
+    @Test
+    public void neuterDoesNotCalculateThePoint() {
+        privateKey.neuter();
+        assertEquals(0, pointCalculations.get());
+    }
+
+    @Test
+    public void sharedFieldsDoNotCalculateThePoint() {
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        assertEquals(4, publicKey.depth());
+        assertEquals(1, publicKey.childNumber());
+        assertSame(Bitcoin.MAIN_NET, publicKey.network());
+        assertSame(publicKey, publicKey.toNetwork(Bitcoin.MAIN_NET));
+        assertEquals(0, pointCalculations.get());
+    }
+
+    @Test
+    public void pointIsCalculatedOnFirstUse() {
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        assertEquals(EXPECTED_XPUB, publicKey.extendedBase58());
+        assertEquals(EXPECTED_XPUB, publicKey.extendedBase58());
+        publicKey.p2pkhAddress();
+        assertEquals(1, pointCalculations.get());
+    }
+
+    @Test
+    public void pointIsSharedWithThePrivateKey() {
+        final ExtendedPublicKey first = privateKey.neuter();
+        final ExtendedPublicKey second = privateKey.neuter();
+        first.extendedBase58();
+        assertEquals(EXPECTED_XPUB, second.extendedBase58());
+        privateKey.cKDpriv(0);
+        assertEquals(1, pointCalculations.get());
+    }
+
+    @Test
+    public void keyWithKnownPointIsNeuteredStraightAway() {
+        privateKey.cKDpriv(0);
+        final AtomicInteger builds = countHdKeyBuilds();
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        assertEquals(1, builds.get());
+        assertEquals(EXPECTED_XPUB, publicKey.extendedBase58());
+        assertEquals(1, builds.get());
+        assertEquals(1, pointCalculations.get());
+    }
+
+    @Test
+    public void keyWithoutPointIsNeuteredLazily() {
+        final AtomicInteger builds = countHdKeyBuilds();
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        assertEquals(0, builds.get());
+        publicKey.extendedBase58();
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    public void lazyKeyDerivesChildren() {
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        assertEquals(privateKey.cKDpub(5).extendedBase58(), publicKey.cKDpub(5).extendedBase58());
+        assertEquals(privateKey.cKDpub(6).extendedBase58(), publicKey.deriveRange(6, 1)[0].extendedBase58());
+    }
+
+    @Test
+    public void toOtherNetwork() {
+        final ExtendedPublicKey publicKey = privateKey.neuter().toNetwork(Bitcoin.TEST_NET);
+        assertEquals(privateKey.toNetwork(Bitcoin.TEST_NET).neuter().extendedBase58(), publicKey.extendedBase58());
+    }
+
+    @Test
+    public void concurrentFirstUse() throws Exception {
+        final ExtendedPublicKey publicKey = privateKey.neuter();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++)
+                futures.add(executor.submit((Callable<String>) publicKey::extendedBase58));
+            for (Future<String> future : futures)
+                assertEquals(EXPECTED_XPUB, future.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static AtomicInteger countHdKeyBuilds() {
+        final AtomicInteger builds = new AtomicInteger();
+        new MockUp<HdKey.Builder>() {
+            @Mock
+            @SuppressFBWarnings(
+                    value = "UMAC_UNCALLABLE_METHOD_OF_ANONYMOUS_CLASS",
+                    justification = "Found by reflection"
+            )
+            public HdKey build(final Invocation inv) {
+                builds.incrementAndGet();
+                return inv.proceed();
+            }
+        };
+        return builds;
+    }
+}
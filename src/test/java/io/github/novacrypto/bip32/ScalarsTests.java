@@ -0,0 +1,94 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class ScalarsTests {
+
+    private static final BigInteger N = new BigInteger(
+            "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEBAAEDCE6AF48A03BBFD25E8CD0364141", 16);
+
+    @Test
+    public void lessThanN() {
+        assertTrue(Scalars.lessThanN(bytes(BigInteger.ZERO)));
+        assertTrue(Scalars.lessThanN(bytes(N.subtract(BigInteger.ONE))));
+        assertFalse(Scalars.lessThanN(bytes(N)));
+        assertFalse(Scalars.lessThanN(bytes(N.add(BigInteger.ONE))));
+        assertFalse(Scalars.lessThanN(bytes(BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE))));
+    }
+
+    @Test
+    public void isZero() {
+        assertTrue(Scalars.isZero(new byte[32]));
+        assertFalse(Scalars.isZero(bytes(BigInteger.ONE)));
+        assertFalse(Scalars.isZero(bytes(BigInteger.ONE.shiftLeft(255))));
+    }
+
+    @Test
+    public void addModN() {
+        final Random random = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            assertAddModN(new BigInteger(256, random).mod(N), new BigInteger(256, random).mod(N));
+        }
+    }
+
+    @Test
+    public void addModNEdgeCases() {
+        final BigInteger nMinusOne = N.subtract(BigInteger.ONE);
+        assertAddModN(nMinusOne, nMinusOne);
+        assertAddModN(nMinusOne, BigInteger.ONE);
+        assertAddModN(BigInteger.ONE, BigInteger.ONE);
+        assertAddModN(BigInteger.ZERO, BigInteger.ZERO);
+        assertAddModN(N.shiftRight(1), N.shiftRight(1).add(BigInteger.ONE));
+    }
+
+    @Test
+    public void addModNIntoOperand() {
+        final BigInteger a = N.subtract(BigInteger.TEN);
+        final byte[] target = bytes(a);
+        Scalars.addModN(target, bytes(BigInteger.valueOf(20)), target);
+        assertEquals(BigInteger.TEN, new BigInteger(1, target));
+    }
+
+    private static void assertAddModN(final BigInteger a, final BigInteger b) {
+        final byte[] target = new byte[32];
+        Scalars.addModN(bytes(a), bytes(b), target);
+        assertArrayEquals(bytes(a.add(b).mod(N)), target);
+    }
+
+    private static byte[] bytes(final BigInteger value) {
+        final byte[] bytes = value.toByteArray();
+        final byte[] result = new byte[32];
+        final int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, result, 32 - length, length);
+        return result;
+    }
+}
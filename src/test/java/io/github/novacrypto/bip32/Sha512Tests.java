@@ -0,0 +1,68 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32;
+
+import org.junit.Test;
+
+import java.security.MessageDigest;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public final class Sha512Tests {
+
+    @Test
+    public void emptyMessage() throws Exception {
+        assertMatchesJca(new byte[0]);
+    }
+
+    @Test
+    public void abc() throws Exception {
+        assertArrayEquals(fromHex(
+                "ddaf35a193617abacc417349ae20413112e6fa4e89a97ea20a9eeee64b55d39a" +
+                        "2192992a274fc1a836ba3c23a3feebbd454d4423643ce80e2a9ac94fa54ca49f"),
+                Sha512.digest("abc".getBytes("UTF-8")));
+    }
+
+    @Test
+    public void lengthsAroundThePaddingBoundaries() throws Exception {
+        for (int length = 1; length <= 400; length++)
+            assertMatchesJca(bytes(length));
+    }
+
+    private static void assertMatchesJca(byte[] message) throws Exception {
+        assertArrayEquals(MessageDigest.getInstance("SHA-512").digest(message), Sha512.digest(message));
+    }
+
+    private static byte[] bytes(int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+            bytes[i] = (byte) (i * 17 + length);
+        return bytes;
+    }
+
+    private static byte[] fromHex(String hex) {
+        final byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        return bytes;
+    }
+}
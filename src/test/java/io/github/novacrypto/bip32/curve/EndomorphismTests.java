@@ -0,0 +1,82 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import org.junit.Test;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
+import org.spongycastle.math.ec.ECPoint;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class EndomorphismTests {
+
+    private static final X9ECParameters CURVE = CustomNamedCurves.getByName("secp256k1");
+
+    private static final BigInteger LAMBDA = new BigInteger(
+            "5363AD4CC05C30E0A5261C028812645A122E22EA20816678DF02967C1B23BD72", 16);
+
+    @Test
+    public void betaTimesXIsLambdaTimesThePoint() {
+        final ECPoint g = CURVE.getG();
+        final ECPoint lambdaG = g.multiply(LAMBDA).normalize();
+        final BigInteger p = CURVE.getCurve().getField().getCharacteristic();
+        assertEquals(g.getAffineXCoord().toBigInteger().multiply(new BigInteger(Endomorphism.BETA, 16)).mod(p),
+                lambdaG.getAffineXCoord().toBigInteger());
+        assertEquals(g.getAffineYCoord().toBigInteger(), lambdaG.getAffineYCoord().toBigInteger());
+    }
+
+    @Test
+    public void halvesRecombineToTheScalar() {
+        final Random random = new Random(11);
+        for (int i = 0; i < 1000; i++)
+            assertSplit(new BigInteger(256, random).mod(CURVE.getN()));
+    }
+
+    @Test
+    public void edgeScalars() {
+        assertSplit(BigInteger.ZERO);
+        assertSplit(BigInteger.ONE);
+        assertSplit(LAMBDA);
+        assertSplit(CURVE.getN().subtract(BigInteger.ONE));
+        assertSplit(CURVE.getN().shiftRight(1));
+    }
+
+    private static void assertSplit(final BigInteger k) {
+        final BigInteger[] halves = Endomorphism.split(scalar(k));
+        assertEquals(k, halves[0].add(halves[1].multiply(LAMBDA)).mod(CURVE.getN()));
+        assertTrue(halves[0].abs().bitLength() <= 129);
+        assertTrue(halves[1].abs().bitLength() <= 129);
+    }
+
+    private static byte[] scalar(final BigInteger k) {
+        final byte[] bytes = k.toByteArray();
+        final byte[] scalar = new byte[32];
+        final int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, scalar, 32 - length, length);
+        return scalar;
+    }
+}
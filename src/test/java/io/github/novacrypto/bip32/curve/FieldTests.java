@@ -0,0 +1,239 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class FieldTests {
+
+    private static final BigInteger P = new BigInteger(
+            "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEFFFFFC2F", 16);
+
+    private final Random random = new Random(1);
+    private final int[][] scratch = new int[Field.SCRATCH_SIZE][Field.LIMBS];
+
+    @Test
+    public void bytesRoundTrip() {
+        for (int i = 0; i < 100; i++) {
+            final BigInteger a = randomElement();
+            assertEquals(a, value(element(a)));
+        }
+    }
+
+    @Test
+    public void setBytesRejectsValuesNotBelowP() {
+        final int[] r = Field.newElement();
+        assertFalse(Field.setBytes(r, bytes(P), 0));
+        assertFalse(Field.setBytes(r, bytes(BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE)), 0));
+        assertTrue(Field.setBytes(r, bytes(P.subtract(BigInteger.ONE)), 0));
+    }
+
+    @Test
+    public void add() {
+        for (int i = 0; i < 1000; i++) {
+            final BigInteger a = randomElement();
+            final BigInteger b = randomElement();
+            final int[] r = Field.newElement();
+            Field.add(r, element(a), element(b));
+            assertEquals(a.add(b).mod(P), value(r));
+        }
+    }
+
+    @Test
+    public void sub() {
+        for (int i = 0; i < 1000; i++) {
+            final BigInteger a = randomElement();
+            final BigInteger b = randomElement();
+            final int[] r = Field.newElement();
+            Field.sub(r, element(a), element(b));
+            assertEquals(a.subtract(b).mod(P), value(r));
+        }
+    }
+
+    @Test
+    public void negate() {
+        for (int i = 0; i < 100; i++) {
+            final BigInteger a = randomElement();
+            final int[] r = Field.newElement();
+            Field.negate(r, element(a));
+            assertEquals(a.negate().mod(P), value(r));
+        }
+    }
+
+    @Test
+    public void mulInt() {
+        for (int i = 0; i < 100; i++) {
+            final BigInteger a = randomElement();
+            final int[] r = Field.newElement();
+            Field.mulInt(r, element(a), 8);
+            assertEquals(a.multiply(BigInteger.valueOf(8)).mod(P), value(r));
+        }
+    }
+
+    @Test
+    public void mul() {
+        for (int i = 0; i < 1000; i++) {
+            final BigInteger a = randomElement();
+            final BigInteger b = randomElement();
+            final int[] r = Field.newElement();
+            Field.mul(r, element(a), element(b));
+            assertEquals(a.multiply(b).mod(P), value(r));
+        }
+    }
+
+    @Test
+    public void sqr() {
+        for (int i = 0; i < 1000; i++) {
+            final BigInteger a = randomElement();
+            final int[] r = Field.newElement();
+            Field.sqr(r, element(a));
+            assertEquals(a.multiply(a).mod(P), value(r));
+        }
+    }
+
+    @Test
+    public void extremeValues() {
+        final BigInteger[] values = {BigInteger.ZERO, BigInteger.ONE, P.subtract(BigInteger.ONE),
+                P.subtract(BigInteger.valueOf(2)), BigInteger.ONE.shiftLeft(255), BigInteger.ONE.shiftLeft(32)};
+        for (final BigInteger a : values) {
+            for (final BigInteger b : values) {
+                final int[] r = Field.newElement();
+                Field.mul(r, element(a), element(b));
+                assertEquals(a.multiply(b).mod(P), value(r));
+                Field.add(r, element(a), element(b));
+                assertEquals(a.add(b).mod(P), value(r));
+                Field.sub(r, element(a), element(b));
+                assertEquals(a.subtract(b).mod(P), value(r));
+            }
+        }
+    }
+
+    @Test
+    public void chainedOperationsStayInRange() {
+        BigInteger expected = randomElement();
+        final int[] r = element(expected);
+        for (int i = 0; i < 1000; i++) {
+            final BigInteger b = randomElement();
+            switch (i % 4) {
+                case 0:
+                    Field.mul(r, r, element(b));
+                    expected = expected.multiply(b);
+                    break;
+                case 1:
+                    Field.add(r, r, element(b));
+                    expected = expected.add(b);
+                    break;
+                case 2:
+                    Field.sub(r, r, element(b));
+                    expected = expected.subtract(b);
+                    break;
+                default:
+                    Field.sqr(r, r);
+                    expected = expected.multiply(expected);
+            }
+            expected = expected.mod(P);
+        }
+        assertEquals(expected, value(r));
+    }
+
+    @Test
+    public void select() {
+        final BigInteger a = randomElement();
+        final BigInteger b = randomElement();
+        final int[] r = element(a);
+        Field.select(r, element(b), 0);
+        assertEquals(a, value(r));
+        Field.select(r, element(b), -1);
+        assertEquals(b, value(r));
+    }
+
+    @Test
+    public void normalizeValuesAtAndAboveP() {
+        final int[] r = Field.newElement();
+        Field.add(r, element(P.subtract(BigInteger.ONE)), element(BigInteger.ONE));
+        assertEquals(BigInteger.ZERO, value(r));
+        Field.add(r, element(P.subtract(BigInteger.ONE)), element(BigInteger.TEN));
+        assertEquals(BigInteger.valueOf(9), value(r));
+    }
+
+    @Test
+    public void inv() {
+        for (int i = 0; i < 50; i++) {
+            final BigInteger a = randomElement();
+            final int[] r = Field.newElement();
+            Field.inv(r, element(a), scratch);
+            assertEquals(a.modInverse(P), value(r));
+        }
+    }
+
+    @Test
+    public void sqrt() {
+        for (int i = 0; i < 50; i++) {
+            final BigInteger a = randomElement();
+            final BigInteger square = a.multiply(a).mod(P);
+            final int[] r = Field.newElement();
+            assertTrue(Field.sqrt(r, element(square), scratch));
+            final BigInteger root = value(r);
+            assertTrue(root.equals(a) || root.equals(P.subtract(a)));
+        }
+    }
+
+    @Test
+    public void sqrtOfNonResidue() {
+        // -1 is not a square modulo p, as p = 3 (mod 4)
+        final int[] r = Field.newElement();
+        assertFalse(Field.sqrt(r, element(P.subtract(BigInteger.ONE)), scratch));
+    }
+
+    private BigInteger randomElement() {
+        return new BigInteger(256, random).mod(P);
+    }
+
+    private static int[] element(final BigInteger value) {
+        final int[] element = Field.newElement();
+        assertTrue(Field.setBytes(element, bytes(value), 0));
+        return element;
+    }
+
+    private static BigInteger value(final int[] element) {
+        final int[] normalized = element.clone();
+        Field.normalize(normalized);
+        final byte[] bytes = new byte[32];
+        Field.getBytes(normalized, bytes, 0);
+        return new BigInteger(1, bytes);
+    }
+
+    private static byte[] bytes(final BigInteger value) {
+        final byte[] bytes = value.toByteArray();
+        final byte[] result = new byte[32];
+        final int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, result, 32 - length, length);
+        return result;
+    }
+}
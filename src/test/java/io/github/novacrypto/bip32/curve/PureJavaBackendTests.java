@@ -0,0 +1,410 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import io.github.novacrypto.Hex;
+import org.junit.Test;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
+import org.spongycastle.math.ec.ECPoint;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public final class PureJavaBackendTests {
+
+    private static final X9ECParameters CURVE = CustomNamedCurves.getByName("secp256k1");
+
+    private final PureJavaBackend backend = new PureJavaBackend();
+
+    @Test
+    public void one() {
+        assertSameAsSpongyCastle(BigInteger.ONE);
+    }
+
+    @Test
+    public void nMinusOne() {
+        assertSameAsSpongyCastle(CURVE.getN().subtract(BigInteger.ONE));
+    }
+
+    @Test
+    public void scalarsWithEveryWindowDigit() {
+        for (int digit = 1; digit < 16; digit++) {
+            BigInteger k = BigInteger.ZERO;
+            for (int window = 0; window < 64; window++)
+                k = k.shiftLeft(4).or(BigInteger.valueOf(digit));
+            assertSameAsSpongyCastle(k.mod(CURVE.getN()));
+        }
+    }
+
+    @Test
+    public void randomScalars() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            assertSameAsSpongyCastle(new BigInteger(256, random).mod(CURVE.getN()));
+        }
+    }
+
+    @Test
+    public void zeroIsInfinity() {
+        assertTrue(backend.isInfinity(backend.gMultiply(new byte[32])));
+    }
+
+    @Test
+    public void encodeInfinity() {
+        assertThatThrownBy(() -> backend.encode(backend.gMultiply(new byte[32])))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void multiplyAndAdd() {
+        final Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            final BigInteger a = new BigInteger(256, random).mod(CURVE.getN());
+            final BigInteger b = new BigInteger(256, random).mod(CURVE.getN());
+            final PureJavaBackend.Point bG = backend.decode(CURVE.getG().multiply(b).getEncoded(true));
+            assertArrayEquals(CURVE.getG().multiply(a.add(b)).getEncoded(true),
+                    backend.encode(backend.gMultiplyAndAdd(scalar(a), bG)));
+        }
+    }
+
+    @Test
+    public void multiplyAndAddJacobianPoint() {
+        final BigInteger a = BigInteger.valueOf(1234567);
+        final BigInteger b = BigInteger.valueOf(7654321);
+        final PureJavaBackend.Point bG = backend.gMultiply(scalar(b));
+        assertArrayEquals(CURVE.getG().multiply(a.add(b)).getEncoded(true),
+                backend.encode(backend.gMultiplyAndAdd(scalar(a), bG)));
+    }
+
+    @Test
+    public void multiplyAndAddSamePointDoubles() {
+        final BigInteger a = BigInteger.valueOf(98765);
+        final PureJavaBackend.Point aG = backend.decode(CURVE.getG().multiply(a).getEncoded(true));
+        assertArrayEquals(CURVE.getG().multiply(a.shiftLeft(1)).getEncoded(true),
+                backend.encode(backend.gMultiplyAndAdd(scalar(a), aG)));
+    }
+
+    @Test
+    public void multiplyAndAddToInfinity() {
+        final BigInteger a = BigInteger.valueOf(5);
+        final PureJavaBackend.Point aG = backend.gMultiply(scalar(a));
+        assertArrayEquals(CURVE.getG().multiply(a).getEncoded(true),
+                backend.encode(backend.gMultiplyAndAdd(new byte[32], aG)));
+    }
+
+    @Test
+    public void addingNegationIsInfinity() {
+        final BigInteger a = BigInteger.valueOf(12345);
+        final PureJavaBackend.Point negation = backend.decode(CURVE.getG().multiply(a).negate().getEncoded(true));
+        assertTrue(backend.isInfinity(backend.gMultiplyAndAdd(scalar(a), negation)));
+    }
+
+    @Test
+    public void gMultiplyConstantTime() {
+        final Random random = new Random(23);
+        for (int i = 0; i < 100; i++)
+            assertConstantTimeSameAsSpongyCastle(new BigInteger(256, random).mod(CURVE.getN()));
+    }
+
+    @Test
+    public void gMultiplyConstantTimeEdgeScalars() {
+        final BigInteger n = CURVE.getN();
+        for (final BigInteger k : new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(16), BigInteger.valueOf(0xF0F),
+                BigInteger.ONE.shiftLeft(255), n.subtract(BigInteger.ONE), n.subtract(BigInteger.valueOf(16))})
+            assertConstantTimeSameAsSpongyCastle(k);
+        for (int digit = 1; digit < 16; digit++) {
+            BigInteger k = BigInteger.ZERO;
+            for (int window = 0; window < 64; window++)
+                k = k.shiftLeft(4).or(BigInteger.valueOf(digit));
+            assertConstantTimeSameAsSpongyCastle(k.mod(n));
+        }
+    }
+
+    @Test
+    public void gMultiplyConstantTimeOfZero() {
+        assertTrue(backend.isInfinity(backend.gMultiplyConstantTime(new byte[32])));
+        assertTrue(backend.isInfinity(backend.gMultiplyConstantTime(scalar(CURVE.getN()))));
+    }
+
+    @Test
+    public void gMultiplyConstantTimeRejectsShortScalar() {
+        assertThatThrownBy(() -> backend.gMultiplyConstantTime(new byte[31]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void multiply() {
+        final Random random = new Random(17);
+        for (int i = 0; i < 50; i++) {
+            final ECPoint p = CURVE.getG().multiply(new BigInteger(256, random).mod(CURVE.getN()));
+            final BigInteger k = new BigInteger(256, random).mod(CURVE.getN());
+            assertArrayEquals(p.multiply(k).getEncoded(true),
+                    backend.encode(backend.multiply(backend.decode(p.getEncoded(true)), scalar(k))));
+        }
+    }
+
+    @Test
+    public void multiplyEdgeScalars() {
+        final ECPoint p = CURVE.getG().multiply(BigInteger.valueOf(31337));
+        final PureJavaBackend.Point point = backend.decode(p.getEncoded(true));
+        final BigInteger n = CURVE.getN();
+        for (final BigInteger k : new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(2), BigInteger.valueOf(15),
+                n.subtract(BigInteger.ONE), n.shiftRight(1), BigInteger.ONE.shiftLeft(128)}) {
+            assertArrayEquals(p.multiply(k).getEncoded(true), backend.encode(backend.multiply(point, scalar(k))));
+        }
+        assertTrue(backend.isInfinity(backend.multiply(point, new byte[32])));
+        assertTrue(backend.isInfinity(backend.multiply(point, scalar(n))));
+    }
+
+    @Test
+    public void multiplyJacobianPoint() {
+        final BigInteger c = BigInteger.valueOf(424242);
+        final BigInteger k = BigInteger.valueOf(99).shiftLeft(200);
+        final PureJavaBackend.Point point = backend.gMultiply(scalar(c));
+        assertArrayEquals(CURVE.getG().multiply(c.multiply(k)).getEncoded(true),
+                backend.encode(backend.multiply(point, scalar(k))));
+    }
+
+    @Test
+    public void multiplyInfinity() {
+        final PureJavaBackend.Point infinity = backend.gMultiply(new byte[32]);
+        assertTrue(backend.isInfinity(backend.multiply(infinity, scalar(BigInteger.TEN))));
+    }
+
+    @Test
+    public void multiplyConstantTime() {
+        final Random random = new Random(29);
+        for (int i = 0; i < 50; i++) {
+            final ECPoint p = CURVE.getG().multiply(new BigInteger(256, random).mod(CURVE.getN()));
+            final BigInteger k = new BigInteger(256, random).mod(CURVE.getN());
+            assertArrayEquals(p.multiply(k).getEncoded(true),
+                    backend.encode(backend.multiplyConstantTime(backend.decode(p.getEncoded(true)), scalar(k))));
+        }
+    }
+
+    @Test
+    public void multiplyConstantTimeEdgeScalars() {
+        final ECPoint p = CURVE.getG().multiply(BigInteger.valueOf(31337));
+        final PureJavaBackend.Point point = backend.decode(p.getEncoded(true));
+        final BigInteger n = CURVE.getN();
+        for (final BigInteger k : new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(2), BigInteger.valueOf(15),
+                BigInteger.valueOf(16), n.subtract(BigInteger.ONE), n.shiftRight(1), BigInteger.ONE.shiftLeft(255)}) {
+            assertArrayEquals(p.multiply(k).getEncoded(true),
+                    backend.encode(backend.multiplyConstantTime(point, scalar(k))));
+        }
+        assertTrue(backend.isInfinity(backend.multiplyConstantTime(point, new byte[32])));
+        assertTrue(backend.isInfinity(backend.multiplyConstantTime(point, scalar(n))));
+    }
+
+    @Test
+    public void multiplyConstantTimeJacobianPoint() {
+        final BigInteger c = BigInteger.valueOf(424242);
+        final BigInteger k = BigInteger.valueOf(99).shiftLeft(200);
+        final PureJavaBackend.Point point = backend.gMultiply(scalar(c));
+        assertArrayEquals(CURVE.getG().multiply(c.multiply(k)).getEncoded(true),
+                backend.encode(backend.multiplyConstantTime(point, scalar(k))));
+    }
+
+    @Test
+    public void multiplyConstantTimeOfInfinity() {
+        final PureJavaBackend.Point infinity = backend.gMultiply(new byte[32]);
+        assertTrue(backend.isInfinity(backend.multiplyConstantTime(infinity, scalar(BigInteger.TEN))));
+    }
+
+    @Test
+    public void multiplyConstantTimeRejectsShortScalar() {
+        final PureJavaBackend.Point g = backend.decode(CURVE.getG().getEncoded(true));
+        assertThatThrownBy(() -> backend.multiplyConstantTime(g, new byte[31]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void sumOfMultiplies() {
+        final Random random = new Random(19);
+        for (int i = 0; i < 50; i++) {
+            final ECPoint p = CURVE.getG().multiply(new BigInteger(256, random).mod(CURVE.getN()));
+            final BigInteger a = new BigInteger(256, random).mod(CURVE.getN());
+            final BigInteger b = new BigInteger(256, random).mod(CURVE.getN());
+            assertArrayEquals(CURVE.getG().multiply(a).add(p.multiply(b)).getEncoded(true),
+                    backend.encode(backend.sumOfMultiplies(scalar(a), scalar(b),
+                            backend.decode(p.getEncoded(true)))));
+        }
+    }
+
+    @Test
+    public void sumOfMultipliesWithZeroScalars() {
+        final ECPoint p = CURVE.getG().multiply(BigInteger.valueOf(5150));
+        final PureJavaBackend.Point point = backend.decode(p.getEncoded(true));
+        final BigInteger k = BigInteger.valueOf(8675309);
+        assertArrayEquals(CURVE.getG().multiply(k).getEncoded(true),
+                backend.encode(backend.sumOfMultiplies(scalar(k), new byte[32], point)));
+        assertArrayEquals(p.multiply(k).getEncoded(true),
+                backend.encode(backend.sumOfMultiplies(new byte[32], scalar(k), point)));
+        assertTrue(backend.isInfinity(backend.sumOfMultiplies(new byte[32], new byte[32], point)));
+    }
+
+    @Test
+    public void sumOfMultipliesToInfinity() {
+        // a * G + b * (c * G) where a = -b * c
+        final BigInteger b = BigInteger.valueOf(777);
+        final BigInteger c = BigInteger.valueOf(123456789);
+        final BigInteger a = b.multiply(c).negate().mod(CURVE.getN());
+        final PureJavaBackend.Point point = backend.decode(CURVE.getG().multiply(c).getEncoded(true));
+        assertTrue(backend.isInfinity(backend.sumOfMultiplies(scalar(a), scalar(b), point)));
+    }
+
+    @Test
+    public void sumOfMultipliesOfG() {
+        // exercises the additions of equal points, G's multiples from both tables landing on the same point
+        final PureJavaBackend.Point g = backend.decode(CURVE.getG().getEncoded(true));
+        final BigInteger a = BigInteger.valueOf(3);
+        assertArrayEquals(CURVE.getG().multiply(BigInteger.valueOf(6)).getEncoded(true),
+                backend.encode(backend.sumOfMultiplies(scalar(a), scalar(a), g)));
+    }
+
+    @Test
+    public void multiplyRejectsShortScalar() {
+        final PureJavaBackend.Point g = backend.decode(CURVE.getG().getEncoded(true));
+        assertThatThrownBy(() -> backend.multiply(g, new byte[31]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void decodeEncodeRoundTrip() {
+        final byte[] encoded = Hex.toArray("0355fc85b769dd00d4ca22b121504f4b012e146a4ef6c05b31b12c99906aa4d30d");
+        assertArrayEquals(encoded, backend.encode(backend.decode(encoded)));
+    }
+
+    @Test
+    public void decodeBothParities() {
+        final Random random = new Random(9);
+        for (int i = 0; i < 20; i++) {
+            final ECPoint point = CURVE.getG().multiply(new BigInteger(256, random).mod(CURVE.getN()));
+            final byte[] encoded = point.getEncoded(true);
+            assertArrayEquals(encoded, backend.encode(backend.decode(encoded)));
+        }
+    }
+
+    @Test
+    public void decodeUncompressed() {
+        final ECPoint point = CURVE.getG().multiply(BigInteger.valueOf(777));
+        assertArrayEquals(point.getEncoded(true), backend.encode(backend.decode(point.getEncoded(false))));
+    }
+
+    @Test
+    public void decodeInvalidEncoding() {
+        final byte[] encoded = Hex.toArray("0555fc85b769dd00d4ca22b121504f4b012e146a4ef6c05b31b12c99906aa4d30d");
+        assertThatThrownBy(() -> backend.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void decodeWrongLength() {
+        assertThatThrownBy(() -> backend.decode(new byte[]{2, 1, 2}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void decodeXNotOnCurve() {
+        // x = 5 has no y on secp256k1, 5^3 + 7 = 132 is not a square mod p
+        final byte[] encoded = new byte[33];
+        encoded[0] = 2;
+        encoded[32] = 5;
+        assertThatThrownBy(() -> backend.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void decodeXNotBelowP() {
+        final byte[] encoded = new byte[33];
+        Arrays.fill(encoded, (byte) -1);
+        encoded[0] = 2;
+        assertThatThrownBy(() -> backend.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void decodeUncompressedNotOnCurve() {
+        final byte[] encoded = CURVE.getG().multiply(BigInteger.valueOf(777)).getEncoded(false);
+        encoded[64] ^= 1;
+        assertThatThrownBy(() -> backend.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void normalizeAllMatchesIndividualNormalization() {
+        final Random random = new Random(7);
+        final PureJavaBackend.Point p = backend.gMultiply(scalar(new BigInteger(256, random).mod(CURVE.getN())));
+        final PureJavaBackend.Point[] points = new PureJavaBackend.Point[10];
+        final byte[][] expected = new byte[points.length][];
+        for (int i = 0; i < points.length; i++) {
+            if (i == 3)
+                continue;
+            points[i] = backend.gMultiplyAndAdd(scalar(new BigInteger(256, random).mod(CURVE.getN())), p);
+            expected[i] = backend.encode(points[i]);
+        }
+        points[5] = backend.gMultiply(new byte[32]);
+        backend.normalizeAll(Arrays.asList(points));
+        assertNull(points[3]);
+        assertTrue(backend.isInfinity(points[5]));
+        for (int i = 0; i < points.length; i++) {
+            if (i == 3 || i == 5)
+                continue;
+            assertArrayEquals(expected[i], backend.encode(points[i]));
+        }
+    }
+
+    @Test
+    public void normalizeAllLeavesAffinePointsAlone() {
+        final PureJavaBackend.Point point = backend.decode(CURVE.getG().getEncoded(true));
+        final PureJavaBackend.Point[] points = {point};
+        backend.normalizeAll(Arrays.asList(points));
+        assertSame(point, points[0]);
+        assertFalse(backend.isInfinity(points[0]));
+    }
+
+    private void assertConstantTimeSameAsSpongyCastle(final BigInteger k) {
+        assertArrayEquals(CURVE.getG().multiply(k).getEncoded(true),
+                backend.encode(backend.gMultiplyConstantTime(scalar(k))));
+    }
+
+    private void assertSameAsSpongyCastle(final BigInteger k) {
+        assertArrayEquals(CURVE.getG().multiply(k).getEncoded(true), backend.encode(backend.gMultiply(scalar(k))));
+    }
+
+    private static byte[] scalar(final BigInteger k) {
+        final byte[] bytes = k.toByteArray();
+        final byte[] scalar = new byte[32];
+        final int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, scalar, 32 - length, length);
+        return scalar;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import io.github.novacrypto.Hex;
+import org.junit.Test;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
+import org.spongycastle.math.ec.ECPoint;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public final class SpongyCastleBackendTests {
+
+    private static final X9ECParameters CURVE = CustomNamedCurves.getByName("secp256k1");
+
+    private final SpongyCastleBackend backend = new SpongyCastleBackend();
+
+    @Test
+    public void one() {
+        assertSameAsGenericMultiply(BigInteger.ONE);
+    }
+
+    @Test
+    public void nMinusOne() {
+        assertSameAsGenericMultiply(CURVE.getN().subtract(BigInteger.ONE));
+    }
+
+    @Test
+    public void randomScalars() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            assertSameAsGenericMultiply(new BigInteger(256, random).mod(CURVE.getN()));
+        }
+    }
+
+    @Test
+    public void multiplyAndAdd() {
+        final Random random = new Random(3);
+        final BigInteger a = new BigInteger(256, random).mod(CURVE.getN());
+        final BigInteger b = new BigInteger(256, random).mod(CURVE.getN());
+        final ECPoint bG = CURVE.getG().multiply(b);
+        assertArrayEquals(CURVE.getG().multiply(a.add(b)).getEncoded(true),
+                backend.encode(backend.gMultiplyAndAdd(scalar(a), bG)));
+    }
+
+    @Test
+    public void addingNegationIsInfinity() {
+        final BigInteger a = BigInteger.valueOf(12345);
+        assertTrue(backend.isInfinity(backend.gMultiplyAndAdd(scalar(a), CURVE.getG().multiply(a).negate())));
+    }
+
+    @Test
+    public void gMultiplyConstantTime() {
+        final Random random = new Random(23);
+        for (int i = 0; i < 20; i++) {
+            final BigInteger k = new BigInteger(256, random).mod(CURVE.getN());
+            assertArrayEquals(CURVE.getG().multiply(k).getEncoded(true),
+                    backend.encode(backend.gMultiplyConstantTime(scalar(k))));
+        }
+        assertTrue(backend.isInfinity(backend.gMultiplyConstantTime(new byte[32])));
+    }
+
+    @Test
+    public void multiply() {
+        final Random random = new Random(17);
+        final BigInteger c = new BigInteger(256, random).mod(CURVE.getN());
+        final BigInteger k = new BigInteger(256, random).mod(CURVE.getN());
+        final ECPoint p = CURVE.getG().multiply(c);
+        assertArrayEquals(CURVE.getG().multiply(c.multiply(k).mod(CURVE.getN())).getEncoded(true),
+                backend.encode(backend.multiply(p, scalar(k))));
+    }
+
+    @Test
+    public void multiplyConstantTime() {
+        final Random random = new Random(29);
+        for (int i = 0; i < 10; i++) {
+            final ECPoint p = CURVE.getG().multiply(new BigInteger(256, random).mod(CURVE.getN()));
+            final BigInteger k = new BigInteger(256, random).mod(CURVE.getN());
+            assertArrayEquals(p.multiply(k).getEncoded(true),
+                    backend.encode(backend.multiplyConstantTime(p, scalar(k))));
+        }
+        assertTrue(backend.isInfinity(backend.multiplyConstantTime(CURVE.getG(), new byte[32])));
+        final ECPoint infinity = CURVE.getCurve().getInfinity();
+        assertTrue(backend.isInfinity(backend.multiplyConstantTime(infinity, scalar(BigInteger.TEN))));
+    }
+
+    @Test
+    public void sumOfMultiplies() {
+        final Random random = new Random(19);
+        final BigInteger a = new BigInteger(256, random).mod(CURVE.getN());
+        final BigInteger b = new BigInteger(256, random).mod(CURVE.getN());
+        final BigInteger c = new BigInteger(256, random).mod(CURVE.getN());
+        final ECPoint p = backend.decode(CURVE.getG().multiply(c).getEncoded(true));
+        assertArrayEquals(CURVE.getG().multiply(a.add(b.multiply(c)).mod(CURVE.getN())).getEncoded(true),
+                backend.encode(backend.sumOfMultiplies(scalar(a), scalar(b), p)));
+    }
+
+    @Test
+    public void decodeEncodeRoundTrip() {
+        final byte[] encoded = Hex.toArray("0355fc85b769dd00d4ca22b121504f4b012e146a4ef6c05b31b12c99906aa4d30d");
+        assertArrayEquals(encoded, backend.encode(backend.decode(encoded)));
+    }
+
+    @Test
+    public void decodeInvalidEncoding() {
+        final byte[] encoded = Hex.toArray("0555fc85b769dd00d4ca22b121504f4b012e146a4ef6c05b31b12c99906aa4d30d");
+        assertThatThrownBy(() -> backend.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void normalizeAllMatchesIndividualNormalization() {
+        final Random random = new Random(7);
+        final ECPoint p = CURVE.getG().multiply(new BigInteger(256, random).mod(CURVE.getN()));
+        final ECPoint[] points = new ECPoint[10];
+        final ECPoint[] expected = new ECPoint[points.length];
+        for (int i = 0; i < points.length; i++) {
+            if (i == 3)
+                continue;
+            points[i] = backend.gMultiplyAndAdd(scalar(new BigInteger(256, random).mod(CURVE.getN())), p);
+            expected[i] = points[i].normalize();
+        }
+        backend.normalizeAll(Arrays.asList(points));
+        assertNull(points[3]);
+        for (int i = 0; i < points.length; i++) {
+            if (i == 3)
+                continue;
+            assertTrue(points[i].isNormalized());
+            assertArrayEquals(backend.encode(expected[i]), backend.encode(points[i]));
+        }
+    }
+
+    private void assertSameAsGenericMultiply(final BigInteger k) {
+        assertArrayEquals(CURVE.getG().multiply(k).getEncoded(true), backend.encode(backend.gMultiply(scalar(k))));
+    }
+
+    private static byte[] scalar(final BigInteger k) {
+        final byte[] bytes = k.toByteArray();
+        final byte[] scalar = new byte[32];
+        final int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, scalar, 32 - length, length);
+        return scalar;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *  BIP32 library, a Java implementation of BIP32
+ *  Copyright (C) 2017-2019 Alan Evans, NovaCrypto
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *  Original source: https://github.com/NovaCrypto/BIP32
+ *  You can contact the authors via github issues.
+ */
+
+package io.github.novacrypto.bip32.curve;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class WnafTests {
+
+    @Test
+    public void zero() {
+        final int[] digits = new int[Wnaf.MAX_LENGTH];
+        assertEquals(0, Wnaf.encode(digits, BigInteger.ZERO, 5));
+    }
+
+    @Test
+    public void randomScalars() {
+        final Random random = new Random(13);
+        for (int w = 2; w <= 8; w++) {
+            for (int i = 0; i < 200; i++) {
+                final BigInteger k = new BigInteger(129, random);
+                assertWnaf(k, w);
+                assertWnaf(k.negate(), w);
+            }
+        }
+    }
+
+    @Test
+    public void allOnes() {
+        for (int w = 2; w <= 8; w++)
+            assertWnaf(BigInteger.ONE.shiftLeft(129).subtract(BigInteger.ONE), w);
+    }
+
+    @Test
+    public void digitsPastTheLengthAreCleared() {
+        final int[] digits = new int[Wnaf.MAX_LENGTH];
+        Wnaf.encode(digits, BigInteger.ONE.shiftLeft(129).subtract(BigInteger.ONE), 5);
+        final int length = Wnaf.encode(digits, BigInteger.valueOf(3), 5);
+        assertEquals(BigInteger.valueOf(3), value(digits));
+        assertEquals(1, length);
+    }
+
+    @Test
+    public void tooLarge() {
+        assertThatThrownBy(() -> Wnaf.encode(new int[Wnaf.MAX_LENGTH], BigInteger.ONE.shiftLeft(256), 5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertWnaf(final BigInteger k, final int w) {
+        final int[] digits = new int[Wnaf.MAX_LENGTH];
+        final int length = Wnaf.encode(digits, k, w);
+        assertEquals(k, value(digits));
+        int lastNonZero = -w;
+        for (int i = 0; i < digits.length; i++) {
+            final int digit = digits[i];
+            if (digit == 0)
+                continue;
+            assertTrue("odd", (digit & 1) == 1);
+            assertTrue("in window", Math.abs(digit) < 1 << (w - 1));
+            assertTrue("non-adjacent", i - lastNonZero >= w);
+            lastNonZero = i;
+        }
+        assertEquals(lastNonZero + 1, length);
+    }
+
+    private static BigInteger value(final int[] digits) {
+        BigInteger value = BigInteger.ZERO;
+        for (int i = digits.length - 1; i >= 0; i--)
+            value = value.shiftLeft(1).add(BigInteger.valueOf(digits[i]));
+        return value;
+    }
+}